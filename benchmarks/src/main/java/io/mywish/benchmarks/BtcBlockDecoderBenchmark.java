@@ -0,0 +1,53 @@
+package io.mywish.benchmarks;
+
+import io.mywish.blockchain.WrapperBlock;
+import io.mywish.btc.blockchain.helper.BtcBlockDecoder;
+import org.bitcoinj.core.NetworkParameters;
+import org.bitcoinj.params.MainNetParams;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BtcBlockDecoderBenchmark {
+    /**
+     * Checked-in mainnet block or {@link BtcBlockFixture#SYNTHETIC} one of the full size.
+     */
+    @Param({"mainnet-1", BtcBlockFixture.SYNTHETIC})
+    private String block;
+
+    @Param({"1", "4"})
+    private int threads;
+
+    /**
+     * With the cache all iterations after the first one hit it: the upper bound for blocks of repeated addresses.
+     */
+    @Param({"0", "16384"})
+    private int addressCacheSize;
+
+    private BtcBlockDecoder decoder;
+    private final NetworkParameters parameters = MainNetParams.get();
+    private byte[] bytes;
+
+    @Setup
+    public void setUp() throws IOException {
+        bytes = BtcBlockFixture.load(block);
+        decoder = new BtcBlockDecoder(threads, addressCacheSize);
+    }
+
+    @TearDown
+    public void tearDown() {
+        decoder.close();
+    }
+
+    @Benchmark
+    public WrapperBlock decode() {
+        return decoder.decode(parameters, bytes, 1);
+    }
+}
@@ -0,0 +1,146 @@
+package io.mywish.benchmarks;
+
+import javax.xml.bind.DatatypeConverter;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+/**
+ * BTC blocks in mainnet serialization. Real mainnet blocks are checked in as fixtures/btc/&lt;name&gt;.hex, dumps of
+ * getblock with verbosity 0. They are early blocks, which are small, so "synthetic" adds a block of P2PKH, P2SH
+ * and P2WPKH transactions of the typical mainnet size, generated from the fixed seed to be comparable between runs.
+ * A full size mainnet dump put to -Dbenchmarks.fixtures directory as btc/&lt;name&gt;.hex is measured by -p block=&lt;name&gt;,
+ * {@link FixtureDump} makes one from a node.
+ */
+public final class BtcBlockFixture {
+    public static final String SYNTHETIC = "synthetic";
+
+    private static final int TRANSACTIONS = 2200;
+
+    private BtcBlockFixture() {
+    }
+
+    public static byte[] load(String block) throws IOException {
+        if (SYNTHETIC.equals(block)) {
+            return generate(new Random(42));
+        }
+        String hex = new String(Fixtures.load("btc/" + block + ".hex"), StandardCharsets.US_ASCII).trim();
+        return DatatypeConverter.parseHexBinary(hex);
+    }
+
+    private static byte[] generate(Random random) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(1 << 20);
+        writeInt(out, 0x20000000);
+        out.write(randomBytes(random, 32), 0, 32);
+        out.write(randomBytes(random, 32), 0, 32);
+        writeInt(out, 1546300800);
+        writeInt(out, 0x172e6f88);
+        writeInt(out, random.nextInt());
+        writeVarInt(out, TRANSACTIONS);
+        for (int i = 0; i < TRANSACTIONS; i++) {
+            writeTransaction(out, random, i == 0, i % 2 == 1);
+        }
+        return out.toByteArray();
+    }
+
+    private static void writeTransaction(ByteArrayOutputStream out, Random random, boolean coinbase, boolean segwit) {
+        int inputs = coinbase ? 1 : 1 + random.nextInt(3);
+        int outputs = coinbase ? 2 : 1 + random.nextInt(3);
+        writeInt(out, segwit ? 2 : 1);
+        if (segwit) {
+            out.write(0);
+            out.write(1);
+        }
+        writeVarInt(out, inputs);
+        for (int i = 0; i < inputs; i++) {
+            out.write(coinbase ? new byte[32] : randomBytes(random, 32), 0, 32);
+            writeInt(out, coinbase ? -1 : random.nextInt(4));
+            byte[] script = coinbase
+                    ? randomBytes(random, 40)
+                    : segwit ? new byte[0] : randomBytes(random, 106);
+            writeVarInt(out, script.length);
+            out.write(script, 0, script.length);
+            writeInt(out, -1);
+        }
+        writeVarInt(out, outputs);
+        for (int i = 0; i < outputs; i++) {
+            writeLong(out, random.nextInt(100_000_000));
+            byte[] script = outputScript(random, i);
+            writeVarInt(out, script.length);
+            out.write(script, 0, script.length);
+        }
+        if (segwit) {
+            for (int i = 0; i < inputs; i++) {
+                writeVarInt(out, 2);
+                writeVarInt(out, 72);
+                out.write(randomBytes(random, 72), 0, 72);
+                writeVarInt(out, 33);
+                out.write(randomBytes(random, 33), 0, 33);
+            }
+        }
+        writeInt(out, 0);
+    }
+
+    private static byte[] outputScript(Random random, int index) {
+        byte[] hash = randomBytes(random, 20);
+        ByteArrayOutputStream script = new ByteArrayOutputStream(25);
+        switch (random.nextInt(3)) {
+            case 0:
+                // P2PKH: OP_DUP OP_HASH160 <20> OP_EQUALVERIFY OP_CHECKSIG
+                script.write(0x76);
+                script.write(0xa9);
+                script.write(20);
+                script.write(hash, 0, 20);
+                script.write(0x88);
+                script.write(0xac);
+                break;
+            case 1:
+                // P2SH: OP_HASH160 <20> OP_EQUAL
+                script.write(0xa9);
+                script.write(20);
+                script.write(hash, 0, 20);
+                script.write(0x87);
+                break;
+            default:
+                // P2WPKH: OP_0 <20>
+                script.write(0);
+                script.write(20);
+                script.write(hash, 0, 20);
+        }
+        return script.toByteArray();
+    }
+
+    private static byte[] randomBytes(Random random, int length) {
+        byte[] bytes = new byte[length];
+        random.nextBytes(bytes);
+        return bytes;
+    }
+
+    private static void writeInt(ByteArrayOutputStream out, int value) {
+        for (int i = 0; i < 4; i++) {
+            out.write(value >>> (8 * i));
+        }
+    }
+
+    private static void writeLong(ByteArrayOutputStream out, long value) {
+        for (int i = 0; i < 8; i++) {
+            out.write((int) (value >>> (8 * i)));
+        }
+    }
+
+    private static void writeVarInt(ByteArrayOutputStream out, long value) {
+        if (value < 0xfd) {
+            out.write((int) value);
+        }
+        else if (value <= 0xffff) {
+            out.write(0xfd);
+            out.write((int) value);
+            out.write((int) (value >>> 8));
+        }
+        else {
+            out.write(0xfe);
+            writeInt(out, (int) value);
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package io.mywish.benchmarks;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Checked-in node responses from benchmarks/src/main/resources/fixtures. Files with the same names in the directory
+ * passed by -Dbenchmarks.fixtures=dir take precedence, so fresh node dumps are measured without rebuilding.
+ */
+public final class Fixtures {
+    private Fixtures() {
+    }
+
+    /**
+     * @param name path relative to the fixtures directory, e.g. btc/mainnet-1.hex.
+     */
+    public static byte[] load(String name) throws IOException {
+        String directory = System.getProperty("benchmarks.fixtures");
+        if (directory != null) {
+            Path file = Paths.get(directory, name);
+            if (Files.exists(file)) {
+                return Files.readAllBytes(file);
+            }
+        }
+        try (InputStream in = Fixtures.class.getResourceAsStream("/fixtures/" + name)) {
+            if (in == null) {
+                throw new FileNotFoundException("There is no fixture " + name + ".");
+            }
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = in.read(buffer)) >= 0) {
+                out.write(buffer, 0, read);
+            }
+            return out.toByteArray();
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package io.mywish.benchmarks;
+
+import org.ethereum.crypto.HashUtil;
+import org.ethereum.crypto.cryptohash.Keccak256;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class KeccakBenchmark {
+    /**
+     * 32 bytes for a hash of a hash, 64 for a public key, 1024 for a contract input.
+     */
+    @Param({"32", "64", "1024"})
+    private int size;
+
+    private byte[] input;
+
+    @Setup
+    public void setUp() {
+        input = new byte[size];
+        new Random(42).nextBytes(input);
+    }
+
+    /**
+     * Through the JCA provider lookup, as the code hashes now.
+     */
+    @Benchmark
+    public byte[] sha3() {
+        return HashUtil.sha3(input);
+    }
+
+    /**
+     * KeccakCore without the provider lookup.
+     */
+    @Benchmark
+    public byte[] keccakCore() {
+        return new Keccak256().digest(input);
+    }
+}
@@ -0,0 +1,55 @@
+package io.mywish.benchmarks;
+
+import org.ethereum.util.RLP;
+import org.ethereum.util.RLPList;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigInteger;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decodes a list of 200 RLP encoded transactions, about the size of a mainnet block body.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RlpBenchmark {
+    private static final int TRANSACTIONS = 200;
+
+    private byte[] encoded;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        byte[][] transactions = new byte[TRANSACTIONS][];
+        for (int i = 0; i < TRANSACTIONS; i++) {
+            transactions[i] = RLP.encodeList(
+                    RLP.encodeBigInteger(BigInteger.valueOf(random.nextInt(100000))),
+                    RLP.encodeBigInteger(BigInteger.valueOf(20_000_000_000L)),
+                    RLP.encodeBigInteger(BigInteger.valueOf(21000 + random.nextInt(200000))),
+                    RLP.encodeElement(randomBytes(random, 20)),
+                    RLP.encodeBigInteger(new BigInteger(64, random)),
+                    RLP.encodeElement(randomBytes(random, 68)),
+                    RLP.encodeByte((byte) 27),
+                    RLP.encodeElement(randomBytes(random, 32)),
+                    RLP.encodeElement(randomBytes(random, 32))
+            );
+        }
+        encoded = RLP.encodeList(transactions);
+    }
+
+    @Benchmark
+    public RLPList decode2() {
+        return RLP.decode2(encoded);
+    }
+
+    private static byte[] randomBytes(Random random, int length) {
+        byte[] bytes = new byte[length];
+        random.nextBytes(bytes);
+        return bytes;
+    }
+}
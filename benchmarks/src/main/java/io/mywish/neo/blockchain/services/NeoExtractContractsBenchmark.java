@@ -0,0 +1,47 @@
+package io.mywish.neo.blockchain.services;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Scans NEP-5 transfer invocation script for called contracts.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NeoExtractContractsBenchmark {
+    /**
+     * PUSHBYTES4 amount, PUSHBYTES20 to, PUSHBYTES20 from, PUSH3, PACK, PUSHBYTES8 "transfer", APPCALL contract.
+     */
+    private static final String TRANSFER_SCRIPT = "0400e1f505"
+            + "14" + "e3b1e8d4f6a2c1b0d9e8f7a6b5c4d3e2f1a0b9c8"
+            + "14" + "a1b2c3d4e5f60718293a4b5c6d7e8f9012345678"
+            + "53" + "c1"
+            + "08" + "7472616e73666572"
+            + "67" + "dc675afc61a7c0f7b3d2682bf6e1d8ed865bcef2"
+            + "f1";
+
+    @Param({"1", "10"})
+    private int invocations;
+
+    private String script;
+
+    @Setup
+    public void setUp() {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < invocations; i++) {
+            builder.append(TRANSFER_SCRIPT);
+        }
+        script = builder.toString();
+    }
+
+    @Benchmark
+    public List<String> extractContracts() {
+        return WrapperTransactionNeoService.extractContracts(script);
+    }
+}
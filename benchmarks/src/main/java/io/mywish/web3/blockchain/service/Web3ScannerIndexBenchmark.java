@@ -0,0 +1,80 @@
+package io.mywish.web3.blockchain.service;
+
+import io.lastwill.eventscan.model.NetworkType;
+import io.mywish.blockchain.Address;
+import io.mywish.blockchain.WrapperBlock;
+import io.mywish.blockchain.WrapperOutput;
+import io.mywish.blockchain.WrapperTransaction;
+import io.mywish.scanner.services.LastBlockMemoryPersister;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.util.MultiValueMap;
+
+import java.math.BigInteger;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Address indexing step of {@link Web3Scanner#processBlock(WrapperBlock)} on a block of 200 transactions,
+ * a quarter of them goes to the same popular contracts.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class Web3ScannerIndexBenchmark {
+    private static final int TRANSACTIONS = 200;
+
+    private Web3Scanner scanner;
+    private WrapperBlock block;
+
+    @Setup
+    public void setUp() {
+        scanner = new Web3Scanner(
+                new Web3Network(NetworkType.ETHEREUM_MAINNET, null, 0),
+                new LastBlockMemoryPersister(0L),
+                1000,
+                0
+        );
+        Random random = new Random(42);
+        String[] popular = {randomAddress(random), randomAddress(random), randomAddress(random)};
+        List<WrapperTransaction> transactions = new ArrayList<>(TRANSACTIONS);
+        for (int i = 0; i < TRANSACTIONS; i++) {
+            String hash = "0x" + randomHex(random, 32);
+            String to = i % 4 == 0 ? popular[random.nextInt(popular.length)] : randomAddress(random);
+            transactions.add(new WrapperTransaction(
+                    hash,
+                    Collections.singletonList(randomAddress(random)),
+                    Collections.singletonList(new WrapperOutput(hash, 0, to, BigInteger.valueOf(random.nextInt()), new byte[0])),
+                    false
+            ));
+        }
+        block = new WrapperBlock("0x" + randomHex(random, 32), 7_000_000L, Instant.now(), transactions);
+    }
+
+    @Benchmark
+    public MultiValueMap<Address, WrapperTransaction> indexAddresses() {
+        return scanner.indexAddresses(block);
+    }
+
+    /**
+     * Mixed case like checksum addresses, so lower casing is not a no-op.
+     */
+    private static String randomAddress(Random random) {
+        String hex = randomHex(random, 20);
+        return "0x" + hex.substring(0, 20).toUpperCase() + hex.substring(20);
+    }
+
+    private static String randomHex(Random random, int bytes) {
+        StringBuilder result = new StringBuilder(bytes * 2);
+        for (int i = 0; i < bytes; i++) {
+            result.append(String.format("%02x", random.nextInt(256)));
+        }
+        return result.toString();
+    }
+}
@@ -0,0 +1,108 @@
+package io.mywish.web3.blockchain.service;
+
+import io.lastwill.eventscan.events.TypeHelper;
+import io.mywish.blockchain.ContractEvent;
+import io.mywish.web3.blockchain.builders.erc20.TransferERC20EventBuilder;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import io.mywish.benchmarks.Fixtures;
+import org.web3j.protocol.ObjectMapperFactory;
+import org.web3j.protocol.core.methods.response.EthLog;
+import org.web3j.protocol.core.methods.response.Log;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decodes ERC20 Transfer log, the most frequent one in mainnet blocks, and all logs of a block.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WrapperLogWeb3Benchmark {
+    /**
+     * "synthetic" block has only the Transfer log. -p block=&lt;name&gt; measures logs of the
+     * web3/&lt;name&gt;-logs.json fixture, eth_getLogs response (see {@link io.mywish.benchmarks.FixtureDump}).
+     */
+    @Param({"synthetic"})
+    private String block;
+
+    private AnnotationConfigApplicationContext context;
+    private WrapperLogWeb3Service logBuilder;
+    private Log transferLog;
+    private List<Log> blockLogs;
+
+    @Setup
+    public void setUp() throws IOException {
+        context = new AnnotationConfigApplicationContext();
+        context.register(TypeHelper.class, WrapperLogWeb3Service.class);
+        context.scan("io.mywish.web3.blockchain.builders");
+        context.refresh();
+        logBuilder = context.getBean(WrapperLogWeb3Service.class);
+
+        transferLog = new Log();
+        transferLog.setAddress("0xb8c77482e45f1f44de1745f52c74426c631bdd52");
+        transferLog.setTopics(Arrays.asList(
+                context.getBean(TransferERC20EventBuilder.class).getDefinition().getSignature(),
+                "0x000000000000000000000000d8e4f0f7cd1f4ef1a6e3f7e1a4d5e4e1c59b1c7e",
+                "0x0000000000000000000000003f5ce5fbfe3e9af3971dd833d26ba9b5c936f0be"
+        ));
+        transferLog.setData("0x00000000000000000000000000000000000000000000000d8d726b7177a80000");
+
+        blockLogs = "synthetic".equals(block)
+                ? Collections.singletonList(transferLog)
+                : loadLogs(block);
+    }
+
+    /**
+     * @return logs which have an event builder, others are skipped before the contract event is decoded.
+     */
+    private List<Log> loadLogs(String block) throws IOException {
+        EthLog response = ObjectMapperFactory.getObjectMapper()
+                .readValue(Fixtures.load("web3/" + block + "-logs.json"), EthLog.class);
+        List<Log> result = new ArrayList<>();
+        for (EthLog.LogResult<?> item : response.getLogs()) {
+            Log log = (Log) item.get();
+            if (log.getTopics().isEmpty()) {
+                continue;
+            }
+            try {
+                if (logBuilder.build(log) != null) {
+                    result.add(log);
+                }
+            }
+            catch (RuntimeException e) {
+                // the same signature with other indexed parameters, e.g. ERC721 Transfer
+            }
+        }
+        return result;
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public ContractEvent build() {
+        return logBuilder.build(transferLog);
+    }
+
+    @Benchmark
+    public int buildBlock() {
+        int result = 0;
+        for (Log log : blockLogs) {
+            if (logBuilder.build(log) != null) {
+                result++;
+            }
+        }
+        return result;
+    }
+}
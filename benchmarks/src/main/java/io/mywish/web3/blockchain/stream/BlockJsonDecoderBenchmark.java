@@ -0,0 +1,126 @@
+package io.mywish.web3.blockchain.stream;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.mywish.benchmarks.Fixtures;
+import io.mywish.blockchain.WrapperBlock;
+import io.mywish.web3.blockchain.service.WrapperBlockWeb3Service;
+import io.mywish.web3.blockchain.service.WrapperOutputWeb3Service;
+import io.mywish.web3.blockchain.service.WrapperTransactionWeb3Service;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.web3j.protocol.ObjectMapperFactory;
+import org.web3j.protocol.core.methods.response.EthBlock;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decodes eth_getBlockByNumber response via web3j model and via the streaming decoder.
+ * Run with -prof gc to compare allocations.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BlockJsonDecoderBenchmark {
+    /**
+     * "synthetic" is generated: 300 transactions, every third is ERC20 transfer call. -p block=&lt;name&gt; measures
+     * web3/&lt;name&gt;.json fixture, the response with full transactions (see {@link io.mywish.benchmarks.FixtureDump}).
+     */
+    @Param({"synthetic"})
+    private String block;
+
+    private final ObjectMapper objectMapper = ObjectMapperFactory.getObjectMapper();
+    private AnnotationConfigApplicationContext context;
+    private WrapperBlockWeb3Service blockBuilder;
+    private BlockJsonDecoder blockDecoder;
+    private byte[] response;
+
+    @Setup
+    public void setUp() throws IOException {
+        context = new AnnotationConfigApplicationContext();
+        context.register(
+                WrapperOutputWeb3Service.class,
+                WrapperTransactionWeb3Service.class,
+                WrapperBlockWeb3Service.class,
+                BlockJsonDecoder.class
+        );
+        context.refresh();
+        blockBuilder = context.getBean(WrapperBlockWeb3Service.class);
+        blockDecoder = context.getBean(BlockJsonDecoder.class);
+
+        response = "synthetic".equals(block)
+                ? generate()
+                : Fixtures.load("web3/" + block + ".json");
+    }
+
+    private static byte[] generate() {
+        Random random = new Random(42);
+        StringBuilder json = new StringBuilder("{\"jsonrpc\":\"2.0\",\"id\":1,\"result\":{")
+                .append("\"number\":\"0x5bad55\",\"hash\":\"").append(hex(random, 32))
+                .append("\",\"parentHash\":\"").append(hex(random, 32))
+                .append("\",\"logsBloom\":\"").append(hex(random, 256))
+                .append("\",\"miner\":\"").append(hex(random, 20))
+                .append("\",\"difficulty\":\"0xbfabcdbd93dda\",\"gasLimit\":\"0x79f39e\",\"gasUsed\":\"0x79ccd3\"")
+                .append(",\"timestamp\":\"0x5b541449\",\"uncles\":[],\"transactions\":[");
+        for (int i = 0; i < 300; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            // every third is ERC20 transfer call
+            String input = i % 3 == 0 ? "0xa9059cbb" + hex(random, 64).substring(2) : "0x";
+            json.append("{\"blockHash\":\"").append(hex(random, 32))
+                    .append("\",\"blockNumber\":\"0x5bad55\",\"from\":\"").append(hex(random, 20))
+                    .append("\",\"gas\":\"0x5208\",\"gasPrice\":\"0x4a817c800\",\"hash\":\"").append(hex(random, 32))
+                    .append("\",\"input\":\"").append(input)
+                    .append("\",\"nonce\":\"0x").append(Integer.toHexString(i))
+                    .append("\",\"to\":\"").append(hex(random, 20))
+                    .append("\",\"transactionIndex\":\"0x").append(Integer.toHexString(i))
+                    .append("\",\"value\":\"0x").append(Long.toHexString(random.nextLong() >>> 8))
+                    .append("\",\"v\":\"0x25\",\"r\":\"").append(hex(random, 32))
+                    .append("\",\"s\":\"").append(hex(random, 32)).append("\"}");
+        }
+        json.append("]}}");
+        return json.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public WrapperBlock web3j() throws IOException {
+        EthBlock ethBlock = objectMapper.readValue(response, EthBlock.class);
+        return blockBuilder.build(ethBlock.getBlock());
+    }
+
+    @Benchmark
+    public WrapperBlock streaming() throws IOException {
+        try (JsonParser parser = objectMapper.getFactory().createParser(response)) {
+            // skip to the result value
+            while (parser.nextToken() != null) {
+                if ("result".equals(parser.getCurrentName())) {
+                    parser.nextToken();
+                    return blockDecoder.decode(parser);
+                }
+            }
+            return null;
+        }
+    }
+
+    private static String hex(Random random, int size) {
+        byte[] bytes = new byte[size];
+        random.nextBytes(bytes);
+        StringBuilder result = new StringBuilder("0x");
+        for (byte b : bytes) {
+            result.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+        }
+        return result.toString();
+    }
+}
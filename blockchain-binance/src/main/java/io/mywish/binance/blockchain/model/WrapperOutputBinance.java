@@ -13,7 +13,7 @@ public class WrapperOutputBinance extends WrapperOutput {
     private final String memo;
 
     public WrapperOutputBinance(Transaction tx, String from, String to, String symbol, String amount) {
-        super(tx.getHash(), 0, to, new BigInteger(amount), new byte[0]);
+        super(tx.getHash(), 0, to, new BigInteger(amount), EMPTY_SCRIPT);
         this.from = from;
         this.symbol = symbol;
         this.memo = tx.getMemo();
@@ -26,22 +26,22 @@ public class BinanceNetwork extends WrapperNetwork {
     }
 
     @Override
-    public Long getLastBlock() {
-        return binanceClient.getNodeInfo().getSyncInfo().getLatestBlockHeight();
+    public Long getLastBlock() throws Exception {
+        return rpc("node-info", binanceClient::getNodeInfo).getSyncInfo().getLatestBlockHeight();
     }
 
     @Override
-    public WrapperBlock getBlock(String hash) {
-        BlockMeta meta = binanceClient.getBlockMetaByHash(hash);
-        List<Transaction> transactions = binanceClient.getBlockTransactions(meta.getHeader().getHeight());
+    public WrapperBlock getBlock(String hash) throws Exception {
+        BlockMeta meta = rpc("block-meta", () -> binanceClient.getBlockMetaByHash(hash));
+        List<Transaction> transactions = rpc("block-transactions", () -> binanceClient.getBlockTransactions(meta.getHeader().getHeight()));
         return blockBuilder.build(new BinanceBlock(meta, transactions));
     }
 
     @Override
-    public WrapperBlock getBlock(Long number) {
+    public WrapperBlock getBlock(Long number) throws Exception {
         return blockBuilder.build(new BinanceBlock(
-                binanceClient.getBlockMetaByHeight(number),
-                binanceClient.getBlockTransactions(number)
+                rpc("block-meta", () -> binanceClient.getBlockMetaByHeight(number)),
+                rpc("block-transactions", () -> binanceClient.getBlockTransactions(number))
         ));
     }
 
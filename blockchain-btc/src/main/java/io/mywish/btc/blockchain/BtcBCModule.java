@@ -3,6 +3,7 @@ package io.mywish.btc.blockchain;
 import com.neemre.btcdcli4j.core.client.BtcdClientImpl;
 import io.lastwill.eventscan.model.NetworkType;
 import io.lastwill.eventscan.repositories.LastBlockRepository;
+import io.mywish.btc.blockchain.helper.BtcRpcClient;
 import io.mywish.btc.blockchain.services.BtcNetwork;
 import io.mywish.btc.blockchain.services.BtcScanner;
 import io.mywish.scanner.services.LastBlockDbPersister;
@@ -32,6 +33,9 @@ public class BtcBCModule {
     @Value("${etherscanner.bitcoin.treat-testnet-as-mainnet:false}")
     private boolean treatTestnetAsMainnet;
 
+    @Value("${etherscanner.bitcoin.block-hash-batch:100}")
+    private int blockHashBatch;
+
     @ConditionalOnProperty("etherscanner.bitcoin.rpc-url.mainnet")
     @Bean(name = NetworkType.BTC_MAINNET_VALUE)
     public BtcNetwork btcNetMain(
@@ -56,6 +60,8 @@ public class BtcBCModule {
                         user,
                         password
                 ),
+                new BtcRpcClient(closeableHttpClient, rpc),
+                blockHashBatch,
                 treatTestnetAsMainnet ? new TestNet3Params() : new MainNetParams()
         );
     }
@@ -84,7 +90,10 @@ public class BtcBCModule {
                         user,
                         password
                 ),
-                new TestNet3Params());
+                new BtcRpcClient(closeableHttpClient, rpc),
+                blockHashBatch,
+                new TestNet3Params()
+        );
     }
 
     @Configuration
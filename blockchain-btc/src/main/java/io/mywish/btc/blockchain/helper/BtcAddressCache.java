@@ -0,0 +1,117 @@
+package io.mywish.btc.blockchain.helper;
+
+import org.bitcoinj.core.NetworkParameters;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded memo from output script to its base58 address, hot exchange addresses repeat in every block.
+ * The cache is 2-way set associative: a new script replaces the least recently used of two scripts in its set,
+ * so a hot script survives a stream of one-off scripts mapped to the same set.
+ * Entries are immutable, the cache is safe for concurrent use; racy recency marks only make eviction less precise.
+ */
+public class BtcAddressCache {
+    private final Entry[] entries;
+    /**
+     * Way of the most recently used entry of every set.
+     */
+    private final byte[] recentWays;
+    private final int setMask;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * @param size is rounded up to a power of two, but not less than 2, 0 disables the cache.
+     */
+    public BtcAddressCache(int size) {
+        int capacity = size <= 0 ? 0 : size <= 2 ? 2 : Integer.highestOneBit(size - 1) << 1;
+        this.entries = new Entry[capacity];
+        this.recentWays = new byte[capacity / 2];
+        this.setMask = capacity / 2 - 1;
+    }
+
+    /**
+     * @return cached address or null if there is no such script in the cache.
+     */
+    public String get(NetworkParameters parameters, byte[] script, int offset, int length) {
+        if (entries.length == 0) {
+            return null;
+        }
+        int hash = hash(script, offset, length);
+        int set = hash & setMask;
+        for (int way = 0; way < 2; way++) {
+            Entry entry = entries[set * 2 + way];
+            if (entry != null && entry.matches(parameters, hash, script, offset, length)) {
+                if (recentWays[set] != way) {
+                    recentWays[set] = (byte) way;
+                }
+                hits.increment();
+                return entry.address;
+            }
+        }
+        misses.increment();
+        return null;
+    }
+
+    public void put(NetworkParameters parameters, byte[] script, int offset, int length, String address) {
+        if (entries.length == 0) {
+            return;
+        }
+        int hash = hash(script, offset, length);
+        int set = hash & setMask;
+        int way = entries[set * 2] == null ? 0 : 1 - recentWays[set];
+        entries[set * 2 + way] = new Entry(parameters, hash, Arrays.copyOfRange(script, offset, offset + length), address);
+        recentWays[set] = (byte) way;
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * Four bytes from the middle of the script: it is a part of the key hash or the public key for all templates,
+     * so the bytes are already uniformly distributed.
+     */
+    private static int hash(byte[] script, int offset, int length) {
+        if (length < 4) {
+            return length;
+        }
+        int middle = offset + length / 2 - 2;
+        int result = (script[middle] & 0xff) << 24
+                | (script[middle + 1] & 0xff) << 16
+                | (script[middle + 2] & 0xff) << 8
+                | (script[middle + 3] & 0xff);
+        return result ^ length;
+    }
+
+    private static class Entry {
+        private final NetworkParameters parameters;
+        private final int hash;
+        private final byte[] script;
+        private final String address;
+
+        Entry(NetworkParameters parameters, int hash, byte[] script, String address) {
+            this.parameters = parameters;
+            this.hash = hash;
+            this.script = script;
+            this.address = address;
+        }
+
+        boolean matches(NetworkParameters parameters, int hash, byte[] script, int offset, int length) {
+            if (this.hash != hash || this.parameters != parameters || this.script.length != length) {
+                return false;
+            }
+            for (int i = 0; i < length; i++) {
+                if (this.script[i] != script[offset + i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,440 @@
+package io.mywish.btc.blockchain.helper;
+
+import io.mywish.blockchain.WrapperBlock;
+import io.mywish.blockchain.WrapperOutput;
+import io.mywish.blockchain.WrapperTransaction;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.bitcoinj.core.Base58;
+import org.bitcoinj.core.NetworkParameters;
+import org.bitcoinj.core.Sha256Hash;
+import org.bitcoinj.core.Utils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Decodes raw block bytes straight into wrapper objects. Scripts are not parsed, outputs are recognized by
+ * {@link BtcScriptTemplate} and transaction hashes are computed over the block bytes, so neither bitcoinj
+ * objects nor copies of input scripts and witnesses are created.
+ * <p>
+ * Big blocks are decoded in two passes: transaction boundaries are found first, then transactions are decoded
+ * on the bounded pool, keeping the block order.
+ */
+@Slf4j
+@Component
+public class BtcBlockDecoder {
+    private final static long LONG_MASK = 0xffffffffL;
+    private final static long MAX_TRANSACTIONS_COUNT = 0x7fff;
+    // must be less than 2^31
+    private final static long MAX_SCRIPT_SIZE = 10000;
+    private final static int HEADER_SIZE = 80;
+    private final static int OUT_POINT_SIZE = 36;
+    private final static char[] HEX = "0123456789abcdef".toCharArray();
+    /**
+     * Smaller blocks are decoded on the caller thread, task overhead is not worth it.
+     */
+    private final static int MIN_PARALLEL_TRANSACTIONS = 64;
+    private final static ThreadLocal<MessageDigest> digests = ThreadLocal.withInitial(Sha256Hash::newDigest);
+
+    private final ForkJoinPool pool;
+    private final BtcAddressCache addressCache;
+
+    @Autowired(required = false)
+    private MeterRegistry meterRegistry;
+
+    public BtcBlockDecoder() {
+        this(1, 0);
+    }
+
+    /**
+     * @param threads          how many threads decode transactions of one block, 1 means on the caller thread only.
+     * @param addressCacheSize how many script addresses are memoized, 0 disables the cache.
+     */
+    @Autowired
+    public BtcBlockDecoder(
+            @Value("${etherscanner.bitcoin.decode-threads:4}") int threads,
+            @Value("${etherscanner.bitcoin.address-cache-size:16384}") int addressCacheSize
+    ) {
+        this.pool = threads > 1
+                ? new ForkJoinPool(threads, BtcBlockDecoder::newWorker, null, false)
+                : null;
+        this.addressCache = new BtcAddressCache(addressCacheSize);
+    }
+
+    @PostConstruct
+    protected void init() {
+        if (meterRegistry == null) {
+            return;
+        }
+        FunctionCounter.builder("btc.address.cache", addressCache, BtcAddressCache::getHits)
+                .tag("result", "hit")
+                .register(meterRegistry);
+        FunctionCounter.builder("btc.address.cache", addressCache, BtcAddressCache::getMisses)
+                .tag("result", "miss")
+                .register(meterRegistry);
+    }
+
+    public BtcAddressCache getAddressCache() {
+        return addressCache;
+    }
+
+    @PreDestroy
+    public void close() {
+        if (pool != null) {
+            pool.shutdownNow();
+        }
+    }
+
+    public WrapperBlock decode(NetworkParameters parameters, byte[] block, long height) {
+        MessageDigest digest = digests.get();
+        ByteBuffer buffer = ByteBuffer.wrap(block)
+                .order(ByteOrder.LITTLE_ENDIAN);
+        String hash = reversedHex(hashTwice(digest, block, 0, HEADER_SIZE));
+        String prevHash = reversedHex(Arrays.copyOfRange(block, 4, 36));
+        long timestamp = buffer.getInt(68) & LONG_MASK;
+        buffer.position(HEADER_SIZE);
+        long txCount = readVarInt(buffer);
+        if (txCount > MAX_TRANSACTIONS_COUNT) {
+            throw new ArrayIndexOutOfBoundsException("Transactions count is too big: " + txCount + " > " + MAX_TRANSACTIONS_COUNT);
+        }
+        List<WrapperTransaction> transactions;
+        if (pool == null || txCount < MIN_PARALLEL_TRANSACTIONS) {
+            transactions = new ArrayList<>((int) txCount);
+            for (int i = 0; i < txCount; i++) {
+                WrapperTransaction transaction = readTransaction(parameters, digest, buffer, null);
+                if (transaction == null) {
+                    log.warn("Skip transaction {}.", i);
+                    continue;
+                }
+                transactions.add(transaction);
+            }
+        }
+        else {
+            int[] offsets = new int[(int) txCount];
+            for (int i = 0; i < txCount; i++) {
+                offsets[i] = buffer.position();
+                skipTransaction(buffer);
+            }
+            transactions = pool.invoke(ForkJoinTask.adapt(() -> IntStream.range(0, offsets.length)
+                    .parallel()
+                    .mapToObj(i -> {
+                        ByteBuffer slice = ByteBuffer.wrap(block).order(ByteOrder.LITTLE_ENDIAN);
+                        slice.position(offsets[i]);
+                        WrapperTransaction transaction = readTransaction(parameters, digests.get(), slice, null);
+                        if (transaction == null) {
+                            log.warn("Skip transaction {}.", i);
+                        }
+                        return transaction;
+                    })
+                    .filter(Objects::nonNull)
+                    .collect(Collectors.toList())));
+        }
+        return new WrapperBlock(hash, height, Instant.ofEpochSecond(timestamp), transactions, prevHash);
+    }
+
+    /**
+     * Decodes a raw transaction, e.g. from the mempool.
+     *
+     * @param outputFilter only outputs with accepted addresses are built.
+     * @return null if the transaction has no accepted output or can not be decoded.
+     */
+    public WrapperTransaction decodeTransaction(NetworkParameters parameters, byte[] transaction, Predicate<String> outputFilter) {
+        ByteBuffer buffer = ByteBuffer.wrap(transaction)
+                .order(ByteOrder.LITTLE_ENDIAN);
+        return readTransaction(parameters, digests.get(), buffer, outputFilter);
+    }
+
+    /**
+     * Moves the buffer to the next transaction without decoding the current one.
+     */
+    private static void skipTransaction(ByteBuffer buffer) {
+        skip(buffer, 4);
+        long inCount = readVarInt(buffer);
+        boolean hasWitness = false;
+        if (inCount == 0) {
+            hasWitness = (buffer.get() & 0xff) == 1;
+            inCount = readVarInt(buffer);
+        }
+        if (inCount > MAX_TRANSACTIONS_COUNT) {
+            throw new ArrayIndexOutOfBoundsException("Inputs count is too big: " + inCount + " > " + MAX_TRANSACTIONS_COUNT);
+        }
+        for (int i = 0; i < inCount; i++) {
+            skip(buffer, OUT_POINT_SIZE);
+            skip(buffer, readVarInt(buffer) + 4);
+        }
+        long outCount = readVarInt(buffer);
+        if (outCount > MAX_TRANSACTIONS_COUNT) {
+            throw new ArrayIndexOutOfBoundsException("Outputs count is too big: " + outCount + " > " + MAX_TRANSACTIONS_COUNT);
+        }
+        for (int i = 0; i < outCount; i++) {
+            skip(buffer, 8);
+            skip(buffer, readVarInt(buffer));
+        }
+        if (hasWitness) {
+            skipWitnesses(buffer, inCount);
+        }
+        skip(buffer, 4);
+    }
+
+    /**
+     * @param outputFilter null to build all outputs with addresses.
+     */
+    private WrapperTransaction readTransaction(
+            NetworkParameters parameters,
+            MessageDigest digest,
+            ByteBuffer buffer,
+            Predicate<String> outputFilter
+    ) {
+        byte[] bytes = buffer.array();
+        int start = buffer.position();
+        buffer.getInt();
+        int inputsStart = buffer.position();
+        long inCount = readVarInt(buffer);
+        boolean hasWitness = false;
+        if (inCount == 0) {
+            hasWitness = (buffer.get() & 0xff) == 1;
+            inputsStart = buffer.position();
+            inCount = readVarInt(buffer);
+        }
+        if (inCount > MAX_TRANSACTIONS_COUNT) {
+            throw new ArrayIndexOutOfBoundsException("Inputs count is too big: " + inCount + " > " + MAX_TRANSACTIONS_COUNT);
+        }
+
+        boolean skipTransaction = false;
+        for (int i = 0; i < inCount; i++) {
+            skip(buffer, OUT_POINT_SIZE);
+            long scriptSize = readVarInt(buffer);
+            if (scriptSize > MAX_SCRIPT_SIZE) {
+                log.warn("Script size is too big: {} > {}.", scriptSize, MAX_SCRIPT_SIZE);
+                skipTransaction = true;
+            }
+            skip(buffer, scriptSize);
+            // sequence
+            buffer.getInt();
+        }
+
+        int outputsStart = buffer.position();
+        long outCount = readVarInt(buffer);
+        if (outCount > MAX_TRANSACTIONS_COUNT) {
+            throw new ArrayIndexOutOfBoundsException("Outputs count is too big: " + outCount + " > " + MAX_TRANSACTIONS_COUNT);
+        }
+        for (int i = 0; i < outCount; i++) {
+            // value
+            buffer.getLong();
+            long scriptSize = readVarInt(buffer);
+            if (scriptSize > MAX_SCRIPT_SIZE) {
+                log.warn("Output script size is too big: {} > {}.", scriptSize, MAX_SCRIPT_SIZE);
+                skipTransaction = true;
+            }
+            skip(buffer, scriptSize);
+        }
+        int outputsEnd = buffer.position();
+
+        if (hasWitness) {
+            skipWitnesses(buffer, inCount);
+        }
+
+        int lockTimeStart = buffer.position();
+        buffer.getInt();
+        if (skipTransaction) {
+            return null;
+        }
+        if (outputFilter != null && !hasAcceptedOutput(parameters, digest, buffer, outputsStart, outputFilter)) {
+            return null;
+        }
+
+        // transaction id covers the serialization without segwit marker, flag and witnesses
+        digest.update(bytes, start, 4);
+        digest.update(bytes, inputsStart, outputsEnd - inputsStart);
+        digest.update(bytes, lockTimeStart, 4);
+        String hash = reversedHex(digest.digest(digest.digest()));
+
+        int end = buffer.position();
+        buffer.position(outputsStart);
+        List<WrapperOutput> outputs = readOutputs(parameters, digest, hash, buffer, outputFilter);
+        buffer.position(end);
+        return new WrapperTransaction(
+                hash,
+                Collections.emptyList(),
+                outputs,
+                false
+        );
+    }
+
+    private static void skipWitnesses(ByteBuffer buffer, long inCount) {
+        for (int i = 0; i < inCount; i++) {
+            long witnessesCount = readVarInt(buffer);
+            if (witnessesCount > MAX_TRANSACTIONS_COUNT) {
+                throw new ArrayIndexOutOfBoundsException("Witnesses count is too big: " + witnessesCount + " > " + MAX_TRANSACTIONS_COUNT);
+            }
+            for (int j = 0; j < witnessesCount; j++) {
+                skip(buffer, readVarInt(buffer));
+            }
+        }
+    }
+
+    private boolean hasAcceptedOutput(
+            NetworkParameters parameters,
+            MessageDigest digest,
+            ByteBuffer buffer,
+            int outputsStart,
+            Predicate<String> outputFilter
+    ) {
+        ByteBuffer outputs = ByteBuffer.wrap(buffer.array()).order(ByteOrder.LITTLE_ENDIAN);
+        outputs.position(outputsStart);
+        long outCount = readVarInt(outputs);
+        for (int i = 0; i < outCount; i++) {
+            outputs.getLong();
+            int scriptSize = (int) readVarInt(outputs);
+            String address = toAddress(parameters, digest, outputs.array(), outputs.position(), scriptSize);
+            if (address != null && outputFilter.test(address)) {
+                return true;
+            }
+            skip(outputs, scriptSize);
+        }
+        return false;
+    }
+
+    private List<WrapperOutput> readOutputs(
+            NetworkParameters parameters,
+            MessageDigest digest,
+            String hash,
+            ByteBuffer buffer,
+            Predicate<String> outputFilter
+    ) {
+        byte[] bytes = buffer.array();
+        int outCount = (int) readVarInt(buffer);
+        List<WrapperOutput> result = new ArrayList<>(outCount);
+        for (int i = 0; i < outCount; i++) {
+            long value = buffer.getLong();
+            int scriptSize = (int) readVarInt(buffer);
+            int scriptStart = buffer.position();
+            skip(buffer, scriptSize);
+            String address = toAddress(parameters, digest, bytes, scriptStart, scriptSize);
+            if (address == null || outputFilter != null && !outputFilter.test(address)) {
+                continue;
+            }
+            result.add(new WrapperOutput(
+                    hash,
+                    i,
+                    address,
+                    BigInteger.valueOf(value),
+                    Arrays.copyOfRange(bytes, scriptStart, scriptStart + scriptSize)
+            ));
+        }
+        return result;
+    }
+
+    /**
+     * @return base58 address of the output or null if the script has no such address. Witness programs have only
+     * bech32 form, which is not used for addresses in the system, so they are skipped.
+     */
+    private String toAddress(NetworkParameters parameters, MessageDigest digest, byte[] script, int offset, int length) {
+        BtcScriptTemplate template = BtcScriptTemplate.of(script, offset, length);
+        if (template == null || template == BtcScriptTemplate.P2WPKH || template == BtcScriptTemplate.P2WSH) {
+            return null;
+        }
+        String address = addressCache.get(parameters, script, offset, length);
+        if (address == null) {
+            address = encodeAddress(template, parameters, digest, script, offset, length);
+            addressCache.put(parameters, script, offset, length, address);
+        }
+        return address;
+    }
+
+    private static String encodeAddress(
+            BtcScriptTemplate template,
+            NetworkParameters parameters,
+            MessageDigest digest,
+            byte[] script,
+            int offset,
+            int length
+    ) {
+        switch (template) {
+            case P2PKH:
+                return base58Check(digest, parameters.getAddressHeader(), script, offset + 3);
+            case P2SH:
+                return base58Check(digest, parameters.getP2SHHeader(), script, offset + 2);
+            case P2PK:
+                byte[] pubKeyHash = Utils.sha256hash160(Arrays.copyOfRange(script, offset + 1, offset + length - 1));
+                return base58Check(digest, parameters.getAddressHeader(), pubKeyHash, 0);
+            default:
+                throw new IllegalArgumentException("There is no base58 address for " + template + ".");
+        }
+    }
+
+    private static String base58Check(MessageDigest digest, int version, byte[] hash160, int offset) {
+        byte[] address = new byte[25];
+        address[0] = (byte) version;
+        System.arraycopy(hash160, offset, address, 1, 20);
+        byte[] checksum = hashTwice(digest, address, 0, 21);
+        System.arraycopy(checksum, 0, address, 21, 4);
+        return Base58.encode(address);
+    }
+
+    private static byte[] hashTwice(MessageDigest digest, byte[] bytes, int offset, int length) {
+        digest.update(bytes, offset, length);
+        return digest.digest(digest.digest());
+    }
+
+    private static String reversedHex(byte[] bytes) {
+        char[] chars = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            int b = bytes[bytes.length - 1 - i];
+            chars[i * 2] = HEX[(b >> 4) & 0xf];
+            chars[i * 2 + 1] = HEX[b & 0xf];
+        }
+        return new String(chars);
+    }
+
+    private static ForkJoinWorkerThread newWorker(ForkJoinPool pool) {
+        ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+        thread.setName("btc-decoder-" + thread.getPoolIndex());
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    private static void skip(ByteBuffer buffer, long count) {
+        if (count > buffer.remaining()) {
+            throw new ArrayIndexOutOfBoundsException("Unexpected end of block: " + count + " > " + buffer.remaining());
+        }
+        buffer.position(buffer.position() + (int) count);
+    }
+
+    private static long readVarInt(ByteBuffer buffer) {
+        int b = buffer.get() & 0xFF;
+        if (b < 0xFD) {
+            return b;
+        }
+        else if (b == 0xFD) {
+            return buffer.getShort() & 0xffff;
+        }
+        else if (b == 0xFE) {
+            return buffer.getInt() & LONG_MASK;
+        }
+        else {
+            return buffer.getLong();
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package io.mywish.btc.blockchain.helper;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpHeaders;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.entity.ContentType;
+import org.apache.http.impl.client.CloseableHttpClient;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bitcoind JSON-RPC calls which btcd-cli4j does not cover: batches and raw hex results decoded right from
+ * the response stream (a raw block is several megabytes of hex).
+ */
+public class BtcRpcClient {
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final AtomicLong nextId = new AtomicLong();
+    private final CloseableHttpClient httpClient;
+    private final URI uri;
+    private final String authorization;
+
+    public BtcRpcClient(CloseableHttpClient httpClient, URI rpc) throws URISyntaxException {
+        this.httpClient = httpClient;
+        this.uri = new URI(rpc.getScheme(), null, rpc.getHost(), rpc.getPort(), rpc.getPath(), null, null);
+        this.authorization = rpc.getUserInfo() == null
+                ? null
+                : "Basic " + Base64.getEncoder().encodeToString(rpc.getUserInfo().getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    public static class Request {
+        private final String method;
+        private final List<Object> params;
+
+        public Request(String method, Object... params) {
+            this(method, Arrays.asList(params));
+        }
+    }
+
+    public JsonNode call(String method, Object... params) throws IOException {
+        return batch(Collections.singletonList(new Request(method, params))).get(0);
+    }
+
+    /**
+     * Sends requests as one JSON-RPC array.
+     *
+     * @return results in the same order as requests.
+     */
+    public List<JsonNode> batch(List<Request> requests) throws IOException {
+        return batch(requests, false);
+    }
+
+    /**
+     * The same as {@link #batch(List)}, but failed requests have null result instead of failing the whole batch.
+     */
+    public List<JsonNode> batchSkipErrors(List<Request> requests) throws IOException {
+        return batch(requests, true);
+    }
+
+    private List<JsonNode> batch(List<Request> requests, boolean skipErrors) throws IOException {
+        long firstId = nextId.getAndAdd(requests.size());
+        List<Object> payload = new ArrayList<>(requests.size());
+        for (int i = 0; i < requests.size(); i++) {
+            payload.add(toJson(requests.get(i), firstId + i));
+        }
+        try (CloseableHttpResponse response = httpClient.execute(post(payload))) {
+            JsonNode root = objectMapper.readTree(content(response, requests.get(0).getMethod()));
+            if (!root.isArray()) {
+                throw new IOException("Response to " + requests.get(0).getMethod() + " is not an array: " + root);
+            }
+            Map<Long, JsonNode> responsesById = new HashMap<>();
+            for (JsonNode node : root) {
+                responsesById.put(node.path("id").asLong(), node);
+            }
+            List<JsonNode> result = new ArrayList<>(requests.size());
+            for (int i = 0; i < requests.size(); i++) {
+                JsonNode node = responsesById.get(firstId + i);
+                if (node == null) {
+                    throw new IOException("There is no response to " + requests.get(i).getMethod() + " in batch.");
+                }
+                if (!node.path("error").isNull() && !node.path("error").isMissingNode()) {
+                    if (skipErrors) {
+                        result.add(null);
+                        continue;
+                    }
+                    throw new IOException("Request " + requests.get(i).getMethod() + " failed: " + node.get("error"));
+                }
+                result.add(node.get("result"));
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Calls the method which returns hex string (e.g. getblock with verbosity 0) and decodes it from the parser
+     * buffer without creating the string.
+     */
+    public byte[] callHex(String method, Object... params) throws IOException {
+        Object payload = toJson(new Request(method, params), nextId.getAndIncrement());
+        try (CloseableHttpResponse response = httpClient.execute(post(payload));
+             JsonParser parser = objectMapper.getFactory().createParser(content(response, method))) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IOException("Response to " + method + " is not an object.");
+            }
+            byte[] result = null;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                JsonToken token = parser.nextToken();
+                if ("result".equals(field) && token == JsonToken.VALUE_STRING) {
+                    result = decodeHex(parser);
+                }
+                else if ("error".equals(field) && token != JsonToken.VALUE_NULL) {
+                    throw new IOException("Request " + method + " failed: " + objectMapper.readTree(parser));
+                }
+                else {
+                    parser.skipChildren();
+                }
+            }
+            if (result == null) {
+                throw new IOException("There is no result in response to " + method + ".");
+            }
+            return result;
+        }
+    }
+
+    private HttpPost post(Object payload) throws IOException {
+        HttpPost post = new HttpPost(uri);
+        if (authorization != null) {
+            post.setHeader(HttpHeaders.AUTHORIZATION, authorization);
+        }
+        post.setEntity(new ByteArrayEntity(objectMapper.writeValueAsBytes(payload), ContentType.APPLICATION_JSON));
+        return post;
+    }
+
+    private static Map<String, Object> toJson(Request request, long id) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("jsonrpc", "1.0");
+        result.put("id", id);
+        result.put("method", request.getMethod());
+        result.put("params", request.getParams());
+        return result;
+    }
+
+    /**
+     * Bitcoind answers with HTTP 500 and JSON body on request errors, so the body is read regardless of the status.
+     */
+    private static InputStream content(CloseableHttpResponse response, String method) throws IOException {
+        HttpEntity entity = response.getEntity();
+        if (entity == null) {
+            throw new IOException("Empty response to " + method + ", HTTP code " + response.getStatusLine().getStatusCode() + ".");
+        }
+        return entity.getContent();
+    }
+
+    private static byte[] decodeHex(JsonParser parser) throws IOException {
+        char[] chars = parser.getTextCharacters();
+        int offset = parser.getTextOffset();
+        int length = parser.getTextLength();
+        if (length % 2 != 0) {
+            throw new IOException("Odd length of hex result: " + length + ".");
+        }
+        byte[] result = new byte[length / 2];
+        for (int i = 0; i < result.length; i++) {
+            int hi = Character.digit(chars[offset + i * 2], 16);
+            int lo = Character.digit(chars[offset + i * 2 + 1], 16);
+            if (hi < 0 || lo < 0) {
+                throw new IOException("Wrong hex character at " + i * 2 + ".");
+            }
+            result[i] = (byte) (hi << 4 | lo);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,69 @@
+package io.mywish.btc.blockchain.helper;
+
+/**
+ * Standard output script templates, matched by exact byte pattern like bitcoind does.
+ */
+public enum BtcScriptTemplate {
+    /**
+     * OP_DUP OP_HASH160 &lt;20&gt; OP_EQUALVERIFY OP_CHECKSIG
+     */
+    P2PKH,
+    /**
+     * OP_HASH160 &lt;20&gt; OP_EQUAL
+     */
+    P2SH,
+    /**
+     * OP_0 &lt;20&gt;
+     */
+    P2WPKH,
+    /**
+     * OP_0 &lt;32&gt;
+     */
+    P2WSH,
+    /**
+     * &lt;33 or 65 bytes public key&gt; OP_CHECKSIG
+     */
+    P2PK;
+
+    private final static int OP_0 = 0x00;
+    private final static int OP_DUP = 0x76;
+    private final static int OP_EQUAL = 0x87;
+    private final static int OP_EQUALVERIFY = 0x88;
+    private final static int OP_HASH160 = 0xa9;
+    private final static int OP_CHECKSIG = 0xac;
+
+    /**
+     * @return template of the script or null if the script is not standard.
+     */
+    public static BtcScriptTemplate of(byte[] bytes, int offset, int length) {
+        switch (length) {
+            case 25:
+                return at(bytes, offset, OP_DUP)
+                        && at(bytes, offset + 1, OP_HASH160)
+                        && at(bytes, offset + 2, 20)
+                        && at(bytes, offset + 23, OP_EQUALVERIFY)
+                        && at(bytes, offset + 24, OP_CHECKSIG)
+                        ? P2PKH
+                        : null;
+            case 23:
+                return at(bytes, offset, OP_HASH160)
+                        && at(bytes, offset + 1, 20)
+                        && at(bytes, offset + 22, OP_EQUAL)
+                        ? P2SH
+                        : null;
+            case 22:
+                return at(bytes, offset, OP_0) && at(bytes, offset + 1, 20) ? P2WPKH : null;
+            case 34:
+                return at(bytes, offset, OP_0) && at(bytes, offset + 1, 32) ? P2WSH : null;
+            case 35:
+            case 67:
+                return at(bytes, offset, length - 2) && at(bytes, offset + length - 1, OP_CHECKSIG) ? P2PK : null;
+            default:
+                return null;
+        }
+    }
+
+    private static boolean at(byte[] bytes, int index, int value) {
+        return (bytes[index] & 0xff) == value;
+    }
+}
@@ -1,57 +1,183 @@
 package io.mywish.btc.blockchain.services;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.neemre.btcdcli4j.core.client.BtcdClient;
-import io.mywish.btc.blockchain.helper.BtcBlockParser;
+import io.mywish.btc.blockchain.helper.BtcBlockDecoder;
+import io.mywish.btc.blockchain.helper.BtcRpcClient;
 import io.lastwill.eventscan.model.NetworkType;
 import io.mywish.blockchain.WrapperBlock;
 import io.mywish.blockchain.WrapperNetwork;
 import io.mywish.blockchain.WrapperTransaction;
 import io.mywish.blockchain.WrapperTransactionReceipt;
+import lombok.extern.slf4j.Slf4j;
 import org.bitcoinj.core.NetworkParameters;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+
+import javax.xml.bind.DatatypeConverter;
+import java.io.IOException;
 import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
 
+@Slf4j
 public class BtcNetwork extends WrapperNetwork {
-    final private BtcdClient btcdClient;
+    /**
+     * Hashes are prefetched only for blocks with at least so many confirmations, reorganizations are not expected there.
+     */
+    private final static int HASH_BATCH_CONFIRMATIONS = 6;
 
-    @Autowired
-    private WrapperBlockBtcService blockBuilder;
+    final private BtcdClient btcdClient;
+    private final BtcRpcClient rpcClient;
+    private final int hashBatchSize;
+    private final TreeMap<Long, String> hashes = new TreeMap<>();
+    private volatile long lastKnownHeight;
 
     private final NetworkParameters networkParameters;
 
     @Autowired
-    private BtcBlockParser btcBlockParser;
+    private BtcBlockDecoder blockDecoder;
+
+    @Value("${etherscanner.bitcoin.pending-transactions:false}")
+    private boolean pendingTransactions;
+    @Value("${etherscanner.bitcoin.pending-batch:100}")
+    private int pendingBatchSize = 100;
+    @Value("${etherscanner.bitcoin.pending-recheck-size:10000}")
+    private int pendingRecheckSize = 10000;
+    /**
+     * Sorted first 8 bytes of mempool hashes from the previous poll, null before the first poll.
+     */
+    private long[] knownPendingKeys;
+    /**
+     * Reported transactions which are still in the mempool.
+     */
+    private Set<String> reportedPendingHashes = new HashSet<>();
+    private List<String> droppedPendingHashes = new ArrayList<>();
+    /**
+     * Mempool transactions rejected by the pending output filter to the time they were fetched, eldest first.
+     */
+    private final Map<String, Long> rejectedPendingHashes = new LinkedHashMap<String, Long>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+            return size() > pendingRecheckSize;
+        }
+    };
+    private final AtomicLong pendingRecheckSince = new AtomicLong(Long.MAX_VALUE);
 
     public BtcNetwork(NetworkType type, BtcdClient btcdClient, NetworkParameters networkParameters) {
+        this(type, btcdClient, null, 1, networkParameters);
+    }
+
+    /**
+     * @param rpcClient     if specified, blocks are fetched as raw bytes with one getblock request.
+     * @param hashBatchSize how many block hashes are requested in one batch when scanner is behind the chain.
+     */
+    public BtcNetwork(
+            NetworkType type,
+            BtcdClient btcdClient,
+            BtcRpcClient rpcClient,
+            int hashBatchSize,
+            NetworkParameters networkParameters
+    ) {
         super(type);
         this.btcdClient = btcdClient;
+        this.rpcClient = rpcClient;
+        this.hashBatchSize = Math.max(1, hashBatchSize);
         this.networkParameters = networkParameters;
     }
 
     @Override
     public Long getLastBlock() throws Exception {
-        return btcdClient.getBlockCount().longValue();
+        long height = rpc("getblockcount", btcdClient::getBlockCount).longValue();
+        lastKnownHeight = height;
+        return height;
     }
 
     @Override
     public WrapperBlock getBlock(String hash) throws Exception {
-        // TODO optimize
-        long height = btcdClient.getBlock(hash).getHeight();
-        return blockBuilder.build(
-                btcBlockParser.parse(
-                        networkParameters,
-                        (String) btcdClient.getBlock(hash, false)
-                ),
-                height,
-                networkParameters
-        );
+        if (rpcClient != null) {
+            long height = rpc("getblockheader", () -> rpcClient.call("getblockheader", hash, true))
+                    .get("height")
+                    .asLong();
+            return blockDecoder.decode(networkParameters, fetchRawBlock(hash), height);
+        }
+        long height = rpc("getblock", () -> btcdClient.getBlock(hash)).getHeight();
+        String hex = (String) rpc("getblock_raw", () -> btcdClient.getBlock(hash, false));
+        return blockDecoder.decode(networkParameters, DatatypeConverter.parseHexBinary(hex), height);
     }
 
     @Override
     public WrapperBlock getBlock(Long number) throws Exception {
-        String hash = btcdClient.getBlockHash(number.intValue());
-        return getBlock(hash);
+        if (rpcClient == null) {
+            String hash = rpc("getblockhash", () -> btcdClient.getBlockHash(number.intValue()));
+            return getBlock(hash);
+        }
+        String hash = getBlockHash(number);
+        byte[] bytes;
+        try {
+            bytes = fetchRawBlock(hash);
+        }
+        catch (IOException e) {
+            clearHashes();
+            throw e;
+        }
+        WrapperBlock block = blockDecoder.decode(networkParameters, bytes, number);
+        String prevHash;
+        synchronized (hashes) {
+            prevHash = hashes.get(number - 1);
+            hashes.headMap(number - 1).clear();
+        }
+        if (prevHash != null && !prevHash.equals(block.getParentHash())) {
+            log.warn("{}: block {} does not follow cached hash {}, drop hashes cache.", getType(), number, prevHash);
+            clearHashes();
+        }
+        return block;
+    }
+
+    private byte[] fetchRawBlock(String hash) throws Exception {
+        return rpc("getblock_raw", () -> rpcClient.callHex("getblock", hash, 0));
+    }
+
+    /**
+     * Returns the cached hash or requests hashes of the block and the following confirmed blocks in one batch.
+     */
+    private String getBlockHash(long number) throws Exception {
+        synchronized (hashes) {
+            String hash = hashes.get(number);
+            if (hash != null) {
+                return hash;
+            }
+        }
+        long last = Math.min(number + hashBatchSize - 1, lastKnownHeight - HASH_BATCH_CONFIRMATIONS);
+        if (last <= number) {
+            return rpc("getblockhash", () -> rpcClient.call("getblockhash", number)).asText();
+        }
+        List<BtcRpcClient.Request> requests = new ArrayList<>();
+        for (long height = number; height <= last; height++) {
+            requests.add(new BtcRpcClient.Request("getblockhash", height));
+        }
+        List<JsonNode> result = rpc("getblockhash_batch", () -> rpcClient.batch(requests));
+        synchronized (hashes) {
+            for (int i = 0; i < result.size(); i++) {
+                hashes.put(number + i, result.get(i).asText());
+            }
+        }
+        return result.get(0).asText();
+    }
+
+    private void clearHashes() {
+        synchronized (hashes) {
+            hashes.clear();
+        }
     }
 
     @Override
@@ -66,12 +192,118 @@ public class BtcNetwork extends WrapperNetwork {
 
     @Override
     public boolean isPendingTransactionsSupported() {
-        return false;
+        return pendingTransactions && rpcClient != null;
     }
 
+    /**
+     * Compares getrawmempool with the previous poll and fetches only new transactions, in batches. Transactions
+     * are reported only if they have outputs accepted by the pending output filter. Transactions which were
+     * in the mempool at the first poll are not fetched. Rejected transactions are fetched again after
+     * {@link #recheckPendingTransactions(long)}.
+     */
     @Override
-    public List<WrapperTransaction> fetchPendingTransactions() {
-        throw new UnsupportedOperationException("Method not supported");
-//        return Collections.emptyList();
+    public List<WrapperTransaction> fetchPendingTransactions() throws Exception {
+        JsonNode mempool = rpc("getrawmempool", () -> rpcClient.call("getrawmempool", false));
+        long[] keys = new long[mempool.size()];
+        List<String> added = new ArrayList<>();
+        for (int i = 0; i < keys.length; i++) {
+            String hash = mempool.get(i).asText();
+            keys[i] = toKey(hash);
+            if (knownPendingKeys != null && Arrays.binarySearch(knownPendingKeys, keys[i]) < 0) {
+                added.add(hash);
+            }
+        }
+        Arrays.sort(keys);
+        if (knownPendingKeys == null) {
+            log.info("{}: {} transactions in mempool, only new ones will be fetched.", getType(), keys.length);
+        }
+        knownPendingKeys = keys;
+
+        Set<String> reported = new HashSet<>();
+        for (String hash : reportedPendingHashes) {
+            if (Arrays.binarySearch(keys, toKey(hash)) >= 0) {
+                reported.add(hash);
+            }
+            else {
+                droppedPendingHashes.add(hash);
+            }
+        }
+        reportedPendingHashes = reported;
+        rejectedPendingHashes.keySet().removeIf(hash -> Arrays.binarySearch(keys, toKey(hash)) < 0);
+
+        long now = System.currentTimeMillis();
+        List<String> fetched = new ArrayList<>(added);
+        List<Long> fetchedAt = new ArrayList<>(Collections.nCopies(added.size(), now));
+        long recheckSince = pendingRecheckSince.getAndSet(Long.MAX_VALUE);
+        Iterator<Map.Entry<String, Long>> rejected = rejectedPendingHashes.entrySet().iterator();
+        while (rejected.hasNext()) {
+            Map.Entry<String, Long> entry = rejected.next();
+            if (entry.getValue() >= recheckSince) {
+                fetched.add(entry.getKey());
+                fetchedAt.add(entry.getValue());
+                rejected.remove();
+            }
+        }
+
+        List<WrapperTransaction> result = new ArrayList<>();
+        for (int from = 0; from < fetched.size(); from += pendingBatchSize) {
+            int to = Math.min(from + pendingBatchSize, fetched.size());
+            List<BtcRpcClient.Request> requests = new ArrayList<>();
+            for (String hash : fetched.subList(from, to)) {
+                requests.add(new BtcRpcClient.Request("getrawtransaction", hash, false));
+            }
+            // transactions could leave the mempool since getrawmempool, they are not found
+            List<JsonNode> hexes = rpc("getrawtransaction_batch", () -> rpcClient.batchSkipErrors(requests));
+            for (int i = 0; i < hexes.size(); i++) {
+                JsonNode hex = hexes.get(i);
+                if (hex == null || !hex.isTextual()) {
+                    continue;
+                }
+                WrapperTransaction transaction = blockDecoder.decodeTransaction(
+                        networkParameters,
+                        DatatypeConverter.parseHexBinary(hex.asText()),
+                        getPendingOutputFilter()
+                );
+                if (transaction != null) {
+                    result.add(transaction);
+                    reportedPendingHashes.add(transaction.getHash());
+                }
+                else {
+                    countFilteredPending();
+                    rejectedPendingHashes.put(fetched.get(from + i), fetchedAt.get(from + i));
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Transactions paying to an address can be seen only after the address is created, so only transactions
+     * rejected since its creation are fetched again, on the next poll.
+     */
+    @Override
+    public void recheckPendingTransactions(long since) {
+        pendingRecheckSince.accumulateAndGet(since, Math::min);
+    }
+
+    @Override
+    public List<String> fetchDroppedPendingTransactions() {
+        if (droppedPendingHashes.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<String> result = droppedPendingHashes;
+        droppedPendingHashes = new ArrayList<>();
+        return result;
+    }
+
+    /**
+     * First 8 bytes of the hash, collisions only make a transaction look already known.
+     */
+    private static long toKey(String hash) {
+        long result = 0;
+        for (int i = 0; i < 16; i++) {
+            result = result << 4 | Character.digit(hash.charAt(i), 16);
+        }
+        return result;
     }
 }
@@ -1,5 +1,6 @@
 package io.mywish.btc.blockchain.services;
 
+import io.mywish.blockchain.Address;
 import io.mywish.blockchain.WrapperBlock;
 import io.mywish.blockchain.WrapperTransaction;
 import io.mywish.scanner.model.NewBlockEvent;
@@ -21,7 +22,7 @@ public class BtcScanner extends ScannerPolling {
     protected void processBlock(WrapperBlock block) {
         log.info("{}: new block received {} ({})", network.getType(), block.getNumber(), block.getHash());
 
-        MultiValueMap<String, WrapperTransaction> addressTransactions = CollectionUtils.toMultiValueMap(new HashMap<>());
+        MultiValueMap<Address, WrapperTransaction> addressTransactions = CollectionUtils.toMultiValueMap(new HashMap<>());
 
         if (block.getTransactions() == null) {
             log.warn("{}: block {} has not transactions.", network.getType(), block.getNumber());
@@ -31,7 +32,7 @@ public class BtcScanner extends ScannerPolling {
                 .forEach(transaction -> {
                     transaction.getOutputs().forEach(output -> {
                         addressTransactions.add(
-                                output.getAddress(),
+                                output.getCanonicalAddress(),
                                 transaction
                         );
                     });
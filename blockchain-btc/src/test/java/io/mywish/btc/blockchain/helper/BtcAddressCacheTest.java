@@ -0,0 +1,49 @@
+package io.mywish.btc.blockchain.helper;
+
+import org.bitcoinj.core.NetworkParameters;
+import org.bitcoinj.params.MainNetParams;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+public class BtcAddressCacheTest {
+    private final NetworkParameters parameters = MainNetParams.get();
+
+    @Test
+    public void frequentScriptStaysTest() {
+        BtcAddressCache cache = new BtcAddressCache(2);
+        byte[] hot = script(1);
+        cache.put(parameters, hot, 0, hot.length, "hot");
+        for (int i = 2; i < 10; i++) {
+            Assert.assertEquals("hot", cache.get(parameters, hot, 0, hot.length));
+            byte[] rare = script(i);
+            Assert.assertNull(cache.get(parameters, rare, 0, rare.length));
+            cache.put(parameters, rare, 0, rare.length, "rare");
+        }
+        Assert.assertEquals("hot", cache.get(parameters, hot, 0, hot.length));
+
+        byte[] previous = script(9);
+        Assert.assertEquals("The least recently used script is evicted.",
+                "rare", cache.get(parameters, previous, 0, previous.length));
+        byte[] next = script(10);
+        cache.put(parameters, next, 0, next.length, "next");
+        Assert.assertNull(cache.get(parameters, hot, 0, hot.length));
+        Assert.assertEquals("rare", cache.get(parameters, previous, 0, previous.length));
+        Assert.assertEquals(11, cache.getHits());
+    }
+
+    @Test
+    public void disabledTest() {
+        BtcAddressCache cache = new BtcAddressCache(0);
+        byte[] script = script(1);
+        cache.put(parameters, script, 0, script.length, "address");
+        Assert.assertNull(cache.get(parameters, script, 0, script.length));
+    }
+
+    private static byte[] script(int fill) {
+        byte[] script = new byte[25];
+        Arrays.fill(script, (byte) fill);
+        return script;
+    }
+}
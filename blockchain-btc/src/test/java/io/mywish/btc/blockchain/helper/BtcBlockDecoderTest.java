@@ -0,0 +1,222 @@
+package io.mywish.btc.blockchain.helper;
+
+import io.mywish.blockchain.WrapperBlock;
+import io.mywish.blockchain.WrapperOutput;
+import io.mywish.blockchain.WrapperTransaction;
+import org.bitcoinj.core.Address;
+import org.bitcoinj.core.Block;
+import org.bitcoinj.core.Coin;
+import org.bitcoinj.core.NetworkParameters;
+import org.bitcoinj.core.Sha256Hash;
+import org.bitcoinj.core.Transaction;
+import org.bitcoinj.core.TransactionInput;
+import org.bitcoinj.core.TransactionOutPoint;
+import org.bitcoinj.params.MainNetParams;
+import org.bitcoinj.params.TestNet3Params;
+import org.bitcoinj.script.Script;
+import org.bitcoinj.script.ScriptBuilder;
+import org.junit.Assert;
+import org.junit.Test;
+
+import javax.xml.bind.DatatypeConverter;
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+import java.util.List;
+
+public class BtcBlockDecoderTest {
+    private final NetworkParameters parameters = MainNetParams.get();
+    private final BtcBlockDecoder decoder = new BtcBlockDecoder();
+
+    @Test
+    public void genesisTest() {
+        Block genesis = parameters.getGenesisBlock();
+        WrapperBlock block = decoder.decode(parameters, genesis.bitcoinSerialize(), 0);
+        Assert.assertEquals("000000000019d6689c085ae165831e934ff763ae46a2a6c172b3f1b60a8ce26f", block.getHash());
+        Assert.assertEquals(Sha256Hash.ZERO_HASH.toString(), block.getParentHash());
+        Assert.assertEquals(genesis.getTimeSeconds(), block.getTimestamp().getEpochSecond());
+        Assert.assertEquals(1, block.getTransactions().size());
+
+        WrapperTransaction coinbase = block.getTransactions().get(0);
+        Assert.assertEquals(genesis.getTransactions().get(0).getHashAsString(), coinbase.getHash());
+        Assert.assertEquals(1, coinbase.getOutputs().size());
+        WrapperOutput output = coinbase.getOutputs().get(0);
+        Assert.assertEquals("Pay to public key.", "1A1zP1eP5QGefi2DMPTfTL5SLmv7DivfNa", output.getAddress());
+        Assert.assertEquals(5_000_000_000L, output.getValue().longValue());
+    }
+
+    /**
+     * Mainnet block 1 as returned by getblock with verbosity 0.
+     */
+    @Test
+    public void mainnetBlockTest() {
+        WrapperBlock block = decoder.decode(parameters, DatatypeConverter.parseHexBinary(
+                "010000006fe28c0ab6f1b372c1a6a246ae63f74f931e8365e15a089c68d6190000000000982051fd1e4ba744bbbe680e1fee1467"
+                        + "7ba1a3c3540bf7b1cdb606e857233e0e61bc6649ffff001d01e3629901010000000100000000000000000000000000000000"
+                        + "00000000000000000000000000000000ffffffff0704ffff001d0104ffffffff0100f2052a0100000043410496b538e85351"
+                        + "9c726a2c91e61ec11600ae1390813a627c66fb8be7947be63c52da7589379515d4e0a604f8141781e62294721166bf621e73"
+                        + "a82cbf2342c858eeac00000000"), 1);
+        Assert.assertEquals("00000000839a8e6886ab5951d76f411475428afc90947ee320161bbf18eb6048", block.getHash());
+        Assert.assertEquals(parameters.getGenesisBlock().getHashAsString(), block.getParentHash());
+        Assert.assertEquals(1, block.getTransactions().size());
+        WrapperTransaction coinbase = block.getTransactions().get(0);
+        Assert.assertEquals("0e3e2357e806b6cdb1f70b54c3a3a17b6714ee1f0e68bebb44a74b1efd512098", coinbase.getHash());
+        Assert.assertEquals("12c6DSiU4Rq3P4ZxziKxzrL5LmMBrzjrJX", coinbase.getSingleOutputAddress());
+    }
+
+    @Test
+    public void witnessTransactionTest() throws Exception {
+        byte[] pubKeyHash = new byte[20];
+        Arrays.fill(pubKeyHash, (byte) 1);
+        byte[] scriptHash = new byte[20];
+        Arrays.fill(scriptHash, (byte) 2);
+        Address p2pkh = new Address(parameters, pubKeyHash);
+        Address p2sh = Address.fromP2SHHash(parameters, scriptHash);
+
+        Transaction transaction = new Transaction(parameters);
+        transaction.addInput(new TransactionInput(
+                parameters,
+                transaction,
+                new byte[0],
+                new TransactionOutPoint(parameters, 1, Sha256Hash.of(new byte[] {1}))
+        ));
+        transaction.addOutput(Coin.valueOf(1000), ScriptBuilder.createOutputScript(p2pkh));
+        transaction.addOutput(Coin.valueOf(2000), new Script(concat(new byte[] {0, 20}, pubKeyHash)));
+        transaction.addOutput(Coin.valueOf(3000), ScriptBuilder.createOutputScript(p2sh));
+        byte[] legacy = transaction.bitcoinSerialize();
+        WrapperBlock block = decoder.decode(parameters, concat(header(2), toSegwit(legacy), legacy), 1);
+
+        Assert.assertEquals(2, block.getTransactions().size());
+        for (WrapperTransaction decoded : block.getTransactions()) {
+            Assert.assertEquals("Witness is not a part of id.", transaction.getHashAsString(), decoded.getHash());
+            Assert.assertEquals("Witness program has no base58 address.", 2, decoded.getOutputs().size());
+            WrapperOutput first = decoded.getOutputs().get(0);
+            Assert.assertEquals(p2pkh.toBase58(), first.getAddress());
+            Assert.assertEquals(0, first.getIndex().intValue());
+            Assert.assertEquals(1000, first.getValue().longValue());
+            Assert.assertArrayEquals(transaction.getOutput(0).getScriptBytes(), first.getRawOutputScript());
+            WrapperOutput second = decoded.getOutputs().get(1);
+            Assert.assertEquals(p2sh.toBase58(), second.getAddress());
+            Assert.assertEquals(2, second.getIndex().intValue());
+            Assert.assertEquals(3000, second.getValue().longValue());
+        }
+    }
+
+    @Test
+    public void transactionFilterTest() {
+        Address first = new Address(parameters, new byte[20]);
+        byte[] pubKeyHash = new byte[20];
+        Arrays.fill(pubKeyHash, (byte) 1);
+        Address second = new Address(parameters, pubKeyHash);
+        Transaction transaction = new Transaction(parameters);
+        transaction.addInput(new TransactionInput(
+                parameters,
+                transaction,
+                new byte[0],
+                new TransactionOutPoint(parameters, 0, Sha256Hash.of(new byte[] {1}))
+        ));
+        transaction.addOutput(Coin.valueOf(1000), ScriptBuilder.createOutputScript(first));
+        transaction.addOutput(Coin.valueOf(2000), ScriptBuilder.createOutputScript(second));
+        byte[] bytes = toSegwit(transaction.bitcoinSerialize());
+
+        WrapperTransaction decoded = decoder.decodeTransaction(parameters, bytes, second.toBase58()::equals);
+        Assert.assertEquals(transaction.getHashAsString(), decoded.getHash());
+        Assert.assertEquals("Only accepted outputs are built.", 1, decoded.getOutputs().size());
+        Assert.assertEquals(1, decoded.getOutputs().get(0).getIndex().intValue());
+        Assert.assertNull(decoder.decodeTransaction(parameters, bytes, address -> false));
+    }
+
+    @Test
+    public void parallelTest() {
+        BtcBlockDecoder parallelDecoder = new BtcBlockDecoder(4, 0);
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] header = header(200);
+            out.write(header, 0, header.length);
+            for (int i = 0; i < 200; i++) {
+                Transaction transaction = new Transaction(parameters);
+                transaction.addInput(new TransactionInput(
+                        parameters,
+                        transaction,
+                        new byte[] {(byte) i},
+                        new TransactionOutPoint(parameters, i, Sha256Hash.of(new byte[] {(byte) i}))
+                ));
+                byte[] hash = new byte[20];
+                Arrays.fill(hash, (byte) i);
+                transaction.addOutput(Coin.valueOf(i), ScriptBuilder.createOutputScript(new Address(parameters, hash)));
+                byte[] bytes = i % 2 == 0 ? transaction.bitcoinSerialize() : toSegwit(transaction.bitcoinSerialize());
+                out.write(bytes, 0, bytes.length);
+            }
+            byte[] bytes = out.toByteArray();
+
+            List<WrapperTransaction> expected = decoder.decode(parameters, bytes, 1).getTransactions();
+            List<WrapperTransaction> actual = parallelDecoder.decode(parameters, bytes, 1).getTransactions();
+            Assert.assertEquals(200, actual.size());
+            for (int i = 0; i < expected.size(); i++) {
+                Assert.assertEquals("Block order is kept.", expected.get(i).getHash(), actual.get(i).getHash());
+                Assert.assertEquals(expected.get(i).getSingleOutputAddress(), actual.get(i).getSingleOutputAddress());
+            }
+        }
+        finally {
+            parallelDecoder.close();
+        }
+    }
+
+    @Test
+    public void addressCacheTest() {
+        BtcBlockDecoder cachedDecoder = new BtcBlockDecoder(1, 16);
+        byte[] genesis = parameters.getGenesisBlock().bitcoinSerialize();
+        cachedDecoder.decode(parameters, genesis, 0);
+        Assert.assertEquals(0, cachedDecoder.getAddressCache().getHits());
+        Assert.assertEquals(1, cachedDecoder.getAddressCache().getMisses());
+
+        WrapperBlock block = cachedDecoder.decode(parameters, genesis, 0);
+        Assert.assertEquals(1, cachedDecoder.getAddressCache().getHits());
+        Assert.assertEquals("1A1zP1eP5QGefi2DMPTfTL5SLmv7DivfNa", block.getTransactions().get(0).getSingleOutputAddress());
+
+        NetworkParameters testnet = TestNet3Params.get();
+        WrapperBlock testnetBlock = cachedDecoder.decode(testnet, genesis, 0);
+        Assert.assertEquals("Addresses of other network are not taken from the cache.",
+                "mpXwg4jMtRhuSpVq4xS3HFHmCmWp9NyGKt",
+                testnetBlock.getTransactions().get(0).getSingleOutputAddress());
+    }
+
+    @Test
+    public void templateTest() {
+        byte[] p2wpkh = new byte[22];
+        p2wpkh[1] = 20;
+        Assert.assertEquals(BtcScriptTemplate.P2WPKH, BtcScriptTemplate.of(p2wpkh, 0, 22));
+        byte[] p2wsh = new byte[34];
+        p2wsh[1] = 32;
+        Assert.assertEquals(BtcScriptTemplate.P2WSH, BtcScriptTemplate.of(p2wsh, 0, 34));
+        Assert.assertNull("OP_RETURN", BtcScriptTemplate.of(new byte[] {0x6a, 1, 0}, 0, 3));
+        Assert.assertNull("Wrong push size.", BtcScriptTemplate.of(p2wsh, 0, 33));
+    }
+
+    /**
+     * Genesis header with the specified transactions count, which must be less than 0xfd.
+     */
+    private byte[] header(int transactions) {
+        return concat(Arrays.copyOf(parameters.getGenesisBlock().bitcoinSerialize(), 80), new byte[] {(byte) transactions});
+    }
+
+    /**
+     * Adds segwit marker, flag and one witness of two items to the legacy serialization of one input transaction.
+     */
+    private static byte[] toSegwit(byte[] legacy) {
+        return concat(
+                Arrays.copyOfRange(legacy, 0, 4),
+                new byte[] {0, 1},
+                Arrays.copyOfRange(legacy, 4, legacy.length - 4),
+                new byte[] {2, 3, 1, 2, 3, 1, 4},
+                Arrays.copyOfRange(legacy, legacy.length - 4, legacy.length)
+        );
+    }
+
+    private static byte[] concat(byte[]... parts) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (byte[] part : parts) {
+            out.write(part, 0, part.length);
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,188 @@
+package io.mywish.btc.blockchain.services;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.TextNode;
+import io.lastwill.eventscan.model.NetworkType;
+import io.mywish.blockchain.WrapperTransaction;
+import io.mywish.btc.blockchain.helper.BtcBlockDecoder;
+import io.mywish.btc.blockchain.helper.BtcRpcClient;
+import io.mywish.scanner.test.TestFields;
+import org.bitcoinj.core.Address;
+import org.bitcoinj.core.Coin;
+import org.bitcoinj.core.NetworkParameters;
+import org.bitcoinj.core.Sha256Hash;
+import org.bitcoinj.core.Transaction;
+import org.bitcoinj.core.TransactionInput;
+import org.bitcoinj.core.TransactionOutPoint;
+import org.bitcoinj.params.MainNetParams;
+import org.bitcoinj.script.ScriptBuilder;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.xml.bind.DatatypeConverter;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+public class BtcNetworkTest {
+    private final NetworkParameters parameters = MainNetParams.get();
+    private final Address watched = new Address(parameters, new byte[20]);
+    private final Address other = new Address(parameters, filled(1));
+    private final Set<String> watchedAddresses = new HashSet<>();
+    private RpcStub rpc;
+    private BtcNetwork network;
+
+    @Before
+    public void setUp() throws Exception {
+        rpc = new RpcStub();
+        network = new BtcNetwork(NetworkType.BTC_MAINNET, null, rpc, 1, parameters);
+        TestFields.set(network, "blockDecoder", new BtcBlockDecoder());
+        TestFields.set(network, "pendingTransactions", true);
+        network.setPendingOutputFilter(watchedAddresses::contains);
+        watchedAddresses.add(watched.toBase58());
+    }
+
+    @Test
+    public void diffTest() throws Exception {
+        String old = rpc.add(transaction(1, watched));
+        Assert.assertTrue("Transactions already in the mempool are skipped.", network.fetchPendingTransactions().isEmpty());
+        Assert.assertTrue(rpc.requested.isEmpty());
+
+        String paid = rpc.add(transaction(2, watched));
+        String unrelated = rpc.add(transaction(3, other));
+        Assert.assertEquals(Collections.singletonList(paid), hashes(network.fetchPendingTransactions()));
+        Assert.assertEquals("Only new transactions are fetched.", Arrays.asList(paid, unrelated), rpc.requested);
+        Assert.assertEquals("Rejected transaction is counted.", 1, network.fetchFilteredPendingCount());
+        Assert.assertEquals(0, network.fetchFilteredPendingCount());
+
+        rpc.requested.clear();
+        Assert.assertTrue(network.fetchPendingTransactions().isEmpty());
+        Assert.assertTrue("Nothing new.", rpc.requested.isEmpty());
+        Assert.assertTrue(rpc.mempool.containsKey(old));
+    }
+
+    @Test
+    public void recheckTest() throws Exception {
+        network.fetchPendingTransactions();
+        long beforeRejection = System.currentTimeMillis();
+        String unrelated = rpc.add(transaction(3, other));
+        String left = rpc.add(transaction(4, other));
+        Assert.assertTrue(network.fetchPendingTransactions().isEmpty());
+
+        watchedAddresses.add(other.toBase58());
+        rpc.mempool.remove(left);
+        rpc.requested.clear();
+        Assert.assertTrue("Not rechecked until asked.", network.fetchPendingTransactions().isEmpty());
+        Assert.assertTrue(rpc.requested.isEmpty());
+
+        network.recheckPendingTransactions(beforeRejection);
+        Assert.assertEquals(Collections.singletonList(unrelated), hashes(network.fetchPendingTransactions()));
+        Assert.assertEquals("Rejected transaction which left the mempool is not fetched.",
+                Collections.singletonList(unrelated), rpc.requested);
+
+        rpc.requested.clear();
+        network.recheckPendingTransactions(beforeRejection);
+        Assert.assertTrue("Reported transaction is not rechecked.", network.fetchPendingTransactions().isEmpty());
+        Assert.assertTrue(rpc.requested.isEmpty());
+    }
+
+    @Test
+    public void recheckSinceTest() throws Exception {
+        network.fetchPendingTransactions();
+        rpc.add(transaction(3, other));
+        network.fetchPendingTransactions();
+
+        watchedAddresses.add(other.toBase58());
+        rpc.requested.clear();
+        network.recheckPendingTransactions(System.currentTimeMillis() + 1000);
+        Assert.assertTrue("Rejected before the address was created.", network.fetchPendingTransactions().isEmpty());
+        Assert.assertTrue(rpc.requested.isEmpty());
+    }
+
+    @Test
+    public void droppedTest() throws Exception {
+        network.fetchPendingTransactions();
+        String paid = rpc.add(transaction(2, watched));
+        String unrelated = rpc.add(transaction(3, other));
+        network.fetchPendingTransactions();
+        Assert.assertTrue(network.fetchDroppedPendingTransactions().isEmpty());
+
+        rpc.mempool.remove(paid);
+        rpc.mempool.remove(unrelated);
+        network.fetchPendingTransactions();
+        Assert.assertEquals("Only reported transactions are dropped.",
+                Collections.singletonList(paid), network.fetchDroppedPendingTransactions());
+        Assert.assertTrue("Dropped hashes are returned once.", network.fetchDroppedPendingTransactions().isEmpty());
+    }
+
+    private Transaction transaction(int input, Address address) {
+        Transaction transaction = new Transaction(parameters);
+        transaction.addInput(new TransactionInput(
+                parameters,
+                transaction,
+                new byte[0],
+                new TransactionOutPoint(parameters, 0, Sha256Hash.of(new byte[] {(byte) input}))
+        ));
+        transaction.addOutput(Coin.valueOf(1000), ScriptBuilder.createOutputScript(address));
+        return transaction;
+    }
+
+    private static List<String> hashes(List<WrapperTransaction> transactions) {
+        return transactions.stream().map(WrapperTransaction::getHash).collect(Collectors.toList());
+    }
+
+    private static byte[] filled(int value) {
+        byte[] result = new byte[20];
+        Arrays.fill(result, (byte) value);
+        return result;
+    }
+
+    /**
+     * Node with getrawmempool and getrawtransaction only, requested transaction hashes are kept in order.
+     */
+    private static class RpcStub extends BtcRpcClient {
+        private final Map<String, String> mempool = new LinkedHashMap<>();
+        private final List<String> requested = new ArrayList<>();
+
+        RpcStub() throws URISyntaxException {
+            super(null, URI.create("http://localhost:8332"));
+        }
+
+        String add(Transaction transaction) {
+            mempool.put(transaction.getHashAsString(), DatatypeConverter.printHexBinary(transaction.bitcoinSerialize()));
+            return transaction.getHashAsString();
+        }
+
+        @Override
+        public JsonNode call(String method, Object... params) {
+            Assert.assertEquals("getrawmempool", method);
+            ArrayNode result = JsonNodeFactory.instance.arrayNode();
+            mempool.keySet().forEach(result::add);
+            return result;
+        }
+
+        @Override
+        public List<JsonNode> batchSkipErrors(List<Request> requests) {
+            List<JsonNode> result = new ArrayList<>();
+            for (Request request : requests) {
+                Assert.assertEquals("getrawtransaction", request.getMethod());
+                String hash = (String) request.getParams().get(0);
+                requested.add(hash);
+                String hex = mempool.get(hash);
+                result.add(hex == null ? null : TextNode.valueOf(hex));
+            }
+            return result;
+        }
+    }
+}
@@ -12,7 +12,7 @@ public class WrapperOutputEos extends WrapperOutput {
     private final JsonNode actionArguments;
 
     public WrapperOutputEos(String parentTransaction, String account, String name, JsonNode actionArguments) {
-        super(parentTransaction, 0, account, BigInteger.ZERO, new byte[0]);
+        super(parentTransaction, 0, account, BigInteger.ZERO, EMPTY_SCRIPT);
         this.name = name;
         this.actionArguments = actionArguments;
     }
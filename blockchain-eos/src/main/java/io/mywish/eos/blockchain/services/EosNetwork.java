@@ -34,22 +34,22 @@ public class EosNetwork extends WrapperNetwork {
 
     @Override
     public Long getLastBlock() throws Exception {
-        return eosClient.getChainInfo().getLastIrreversibleBlockNum();
+        return rpc("get_info", eosClient::getChainInfo).getLastIrreversibleBlockNum();
     }
 
     @Override
     public BigInteger getBalance(String address, Long blockNo) throws Exception {
-        return eosClient.getBalance("EOS", address).getValue();
+        return rpc("get_currency_balance", () -> eosClient.getBalance("EOS", address)).getValue();
     }
 
     @Override
     public WrapperBlock getBlock(String hash) throws Exception {
-        return blockBuilder.build(eosClient.getBlock(hash));
+        return blockBuilder.build(rpc("get_block", () -> eosClient.getBlock(hash)));
     }
 
     @Override
     public WrapperBlock getBlock(Long number) throws Exception {
-        return blockBuilder.build(eosClient.getBlock(number));
+        return blockBuilder.build(rpc("get_block", () -> eosClient.getBlock(number)));
     }
 
     @Override
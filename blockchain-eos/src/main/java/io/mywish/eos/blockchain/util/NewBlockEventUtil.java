@@ -1,5 +1,6 @@
 package io.mywish.eos.blockchain.util;
 
+import io.mywish.blockchain.Address;
 import io.mywish.blockchain.WrapperBlock;
 import io.mywish.blockchain.WrapperNetwork;
 import io.mywish.blockchain.WrapperOutput;
@@ -18,13 +19,13 @@ import java.util.stream.Stream;
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 public class NewBlockEventUtil {
     public static NewBlockEvent createBlockEvent(WrapperNetwork network, WrapperBlock block) {
-        MultiValueMap<String, WrapperTransaction> addressTransactions = CollectionUtils.toMultiValueMap(new HashMap<>());
+        MultiValueMap<Address, WrapperTransaction> addressTransactions = CollectionUtils.toMultiValueMap(new HashMap<>());
 
         block.getTransactions().forEach(tx -> {
             Stream.concat(
-                    tx.getInputs().stream(),
+                    tx.getInputAddresses().stream(),
                     tx.getOutputs().stream()
-                            .map(WrapperOutput::getAddress))
+                            .map(WrapperOutput::getCanonicalAddress))
                     .filter(address -> !contains(addressTransactions, address, tx))
                     .forEach(address -> addressTransactions.add(address, tx));
         });
@@ -30,29 +30,29 @@ public class NeoNetwork extends WrapperNetwork {
 
     @Override
     public Long getLastBlock() throws Exception {
-        return (long)neoClient.getBlockCount();
+        return (long) rpc("getblockcount", neoClient::getBlockCount);
     }
 
     @Override
     public WrapperBlock getBlock(String hash) throws Exception {
-        return blockBuilder.build(neoClient.getBlock(hash));
+        return blockBuilder.build(rpc("getblock", () -> neoClient.getBlock(hash)));
     }
 
     @Override
     public WrapperBlock getBlock(Long number) throws Exception {
-        return blockBuilder.build(neoClient.getBlock(number));
+        return blockBuilder.build(rpc("getblock", () -> neoClient.getBlock(number)));
     }
 
     @Override
     public BigInteger getBalance(String address, Long blockNo) throws Exception {
-        return neoClient.getBalance(address);
+        return rpc("getbalance", () -> neoClient.getBalance(address));
     }
 
     @Override
     public WrapperTransactionReceipt getTxReceipt(WrapperTransaction transaction) throws Exception {
         return transactionReceiptBuilder.build(
                 (WrapperTransactionNeo) transaction,
-                neoClient.getEvents(transaction.getHash())
+                rpc("getevents", () -> neoClient.getEvents(transaction.getHash()))
         );
     }
 
@@ -1,5 +1,6 @@
 package io.mywish.neo.blockchain.services;
 
+import io.mywish.blockchain.Address;
 import io.mywish.blockchain.WrapperBlock;
 import io.mywish.blockchain.WrapperTransaction;
 import io.mywish.neo.blockchain.model.WrapperTransactionNeo;
@@ -22,7 +23,7 @@ public class NeoScanner extends ScannerPolling {
     protected void processBlock(WrapperBlock block) {
         log.info("{}: new block received {} ({})", network.getType(), block.getNumber(), block.getHash());
 
-        MultiValueMap<String, WrapperTransaction> addressTransactions = CollectionUtils.toMultiValueMap(new HashMap<>());
+        MultiValueMap<Address, WrapperTransaction> addressTransactions = CollectionUtils.toMultiValueMap(new HashMap<>());
 
         if (block.getTransactions() == null) {
             log.warn("{}: block {} has no transactions.", network.getType(), block.getNumber());
@@ -44,14 +45,14 @@ public class NeoScanner extends ScannerPolling {
 //                            return;
 //                        }
                         addressTransactions.add(
-                                output.getAddress(),
+                                output.getCanonicalAddress(),
                                 transaction
                         );
                         ((WrapperTransactionNeo) transaction)
                                 .getContracts()
                                 .forEach(contract ->
                                         addressTransactions.add(
-                                                contract,
+                                                Address.of(contract),
                                                 transaction
                                         )
                                 );
@@ -14,6 +14,6 @@ public class WrapperOutputNeoService {
                 output.getAddress(),
                 output.getValue(),
                 // TODO: add to neo raw output if needed
-                new byte[0]);
+                WrapperOutput.EMPTY_SCRIPT);
     }
 }
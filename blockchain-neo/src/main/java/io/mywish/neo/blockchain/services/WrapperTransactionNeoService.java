@@ -62,7 +62,7 @@ public class WrapperTransactionNeoService implements WrapperTransactionService<T
         return res;
     }
 
-    private List<String> extractContracts(final String scriptHex) {
+    static List<String> extractContracts(final String scriptHex) {
         if (scriptHex == null) {
             return Collections.emptyList();
         }
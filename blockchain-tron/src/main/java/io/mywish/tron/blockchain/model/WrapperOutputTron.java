@@ -11,7 +11,7 @@ public class WrapperOutputTron extends WrapperOutput {
     private final JsonNode contract;
 
     public WrapperOutputTron(String parentTransaction, String address, BigInteger value, JsonNode contract) {
-        super(parentTransaction, 0, address, value, new byte[0]);
+        super(parentTransaction, 0, address, value, EMPTY_SCRIPT);
         this.contract = contract;
     }
 }
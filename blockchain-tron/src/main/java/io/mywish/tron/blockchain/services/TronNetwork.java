@@ -28,29 +28,29 @@ public class TronNetwork extends WrapperNetwork {
 
     @Override
     public Long getLastBlock() throws Exception {
-        return tronClient.getNodeInfo().getBlock().getNum();
+        return rpc("getnodeinfo", tronClient::getNodeInfo).getBlock().getNum();
     }
 
     @Override
     public WrapperBlock getBlock(String hash) throws Exception {
-        return blockBuilder.build(tronClient.getBlock(hash));
+        return blockBuilder.build(rpc("getblockbyid", () -> tronClient.getBlock(hash)));
     }
 
     @Override
     public WrapperBlock getBlock(Long number) throws Exception {
-        return blockBuilder.build(tronClient.getBlock(number));
+        return blockBuilder.build(rpc("getblockbynum", () -> tronClient.getBlock(number)));
     }
 
     @Override
     public BigInteger getBalance(String address, Long blockNo) throws Exception {
-        return tronClient.getAccount(address).getBalance();
+        return rpc("getaccount", () -> tronClient.getAccount(address)).getBalance();
     }
 
     @Override
     public WrapperTransactionReceipt getTxReceipt(WrapperTransaction transaction) throws Exception {
         return transactionReceiptBuilder.build(
                 (WrapperTransactionTron) transaction,
-                tronClient.getEventResult(transaction.getHash())
+                rpc("event", () -> tronClient.getEventResult(transaction.getHash()))
         );
     }
 
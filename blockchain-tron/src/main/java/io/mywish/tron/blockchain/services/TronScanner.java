@@ -1,5 +1,6 @@
 package io.mywish.tron.blockchain.services;
 
+import io.mywish.blockchain.Address;
 import io.mywish.blockchain.WrapperBlock;
 import io.mywish.blockchain.WrapperTransaction;
 import io.mywish.scanner.model.NewBlockEvent;
@@ -27,7 +28,7 @@ public class TronScanner extends ScannerPolling {
             counter.set(0);
         }
 
-        MultiValueMap<String, WrapperTransaction> addressTransactions = CollectionUtils.toMultiValueMap(new HashMap<>());
+        MultiValueMap<Address, WrapperTransaction> addressTransactions = CollectionUtils.toMultiValueMap(new HashMap<>());
 
         if (block.getTransactions() == null) {
             log.warn("{}: block {} has no transactions.", network.getType(), block.getNumber());
@@ -35,8 +36,8 @@ public class TronScanner extends ScannerPolling {
         }
         block.getTransactions()
                 .forEach(transaction -> {
-                    transaction.getInputs().forEach(input -> addressTransactions.add(input, transaction));
-                    transaction.getOutputs().forEach(output -> addressTransactions.add(output.getAddress(), transaction));
+                    transaction.getInputAddresses().forEach(input -> addressTransactions.add(input, transaction));
+                    transaction.getOutputs().forEach(output -> addressTransactions.add(output.getCanonicalAddress(), transaction));
 //                    eventPublisher.publish(new NewTransactionEvent(networkType, block, output));
                 });
         eventPublisher.publish(new NewBlockEvent(network.getType(), block, addressTransactions));
@@ -11,7 +11,7 @@ public class WrapperOutputWaves extends WrapperOutput {
     private final JsonNode transaction;
 
     public WrapperOutputWaves(String parentTransaction, String address, BigInteger value, JsonNode transaction) {
-        super(parentTransaction, 0, address, value, new byte[0]);
+        super(parentTransaction, 0, address, value, EMPTY_SCRIPT);
         this.transaction = transaction;
     }
 }
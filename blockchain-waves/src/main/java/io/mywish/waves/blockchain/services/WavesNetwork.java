@@ -28,7 +28,7 @@ public class WavesNetwork extends WrapperNetwork {
 
     @Override
     public Long getLastBlock() throws Exception {
-        return wavesClient.getHeight().getHeight();
+        return rpc("blocks/height", wavesClient::getHeight).getHeight();
     }
 
     @Override
@@ -38,7 +38,7 @@ public class WavesNetwork extends WrapperNetwork {
 
     @Override
     public WrapperBlock getBlock(Long number) throws Exception {
-        return blockBuilder.build(wavesClient.getBlock(number));
+        return blockBuilder.build(rpc("blocks/at", () -> wavesClient.getBlock(number)));
     }
 
     @Override
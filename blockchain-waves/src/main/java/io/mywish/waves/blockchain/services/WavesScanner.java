@@ -1,5 +1,6 @@
 package io.mywish.waves.blockchain.services;
 
+import io.mywish.blockchain.Address;
 import io.mywish.blockchain.WrapperBlock;
 import io.mywish.blockchain.WrapperTransaction;
 import io.mywish.scanner.model.NewBlockEvent;
@@ -28,7 +29,7 @@ public class WavesScanner extends ScannerPolling {
     protected void processBlock(WrapperBlock block) {
         log.info("{}: new block received {} ({})", network.getType(), block.getNumber(), block.getHash());
 
-        MultiValueMap<String, WrapperTransaction> addressTransactions = CollectionUtils.toMultiValueMap(new HashMap<>());
+        MultiValueMap<Address, WrapperTransaction> addressTransactions = CollectionUtils.toMultiValueMap(new HashMap<>());
 
         if (block.getTransactions() == null) {
             log.warn("{}: block {} has no transactions.", network.getType(), block.getNumber());
@@ -36,8 +37,8 @@ public class WavesScanner extends ScannerPolling {
         }
         block.getTransactions()
                 .forEach(transaction -> {
-                    transaction.getInputs().forEach(input -> addressTransactions.add(input.toLowerCase(), transaction));
-                    transaction.getOutputs().forEach(output -> addressTransactions.add(output.getAddress().toLowerCase(), transaction));
+                    transaction.getInputs().forEach(input -> addressTransactions.add(Address.of(input.toLowerCase()), transaction));
+                    transaction.getOutputs().forEach(output -> addressTransactions.add(Address.of(output.getAddress().toLowerCase()), transaction));
 //                    eventPublisher.publish(new NewTransactionEvent(networkType, block, output));
                 });
         eventPublisher.publish(new NewBlockEvent(network.getType(), block, addressTransactions));
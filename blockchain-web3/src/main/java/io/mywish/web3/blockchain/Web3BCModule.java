@@ -5,9 +5,11 @@ import io.lastwill.eventscan.repositories.LastBlockRepository;
 import io.mywish.scanner.services.LastBlockDbPersister;
 import io.mywish.scanner.services.LastBlockFilePersister;
 import io.mywish.scanner.services.LastBlockPersister;
+import io.mywish.web3.blockchain.batch.JsonRpcBatchService;
 import io.mywish.web3.blockchain.parity.Web3jEx;
 import io.mywish.web3.blockchain.service.Web3Network;
 import io.mywish.web3.blockchain.service.Web3Scanner;
+import io.mywish.web3.blockchain.stream.JsonRpcStreamService;
 import okhttp3.OkHttpClient;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
@@ -28,10 +30,14 @@ public class Web3BCModule {
     public Web3Network ethNetMain(
             OkHttpClient client,
             @Value("${io.lastwill.eventscan.web3-url.ethereum}") String web3Url,
-            @Value("${etherscanner.pending-transactions-threshold}") int pendingThreshold) {
+            @Value("${etherscanner.pending-transactions-threshold}") int pendingThreshold,
+            @Value("${etherscanner.web3.max-batch-size}") int maxBatchSize,
+            @Value("${etherscanner.web3.stream-blocks:true}") boolean streamBlocks) {
         return new Web3Network(
                 NetworkType.ETHEREUM_MAINNET,
                 Web3jEx.build(new HttpService(web3Url, client, false)),
+                new JsonRpcBatchService(web3Url, client, maxBatchSize),
+                streamBlocks ? new JsonRpcStreamService(web3Url, client) : null,
                 pendingThreshold);
     }
 
@@ -40,28 +46,44 @@ public class Web3BCModule {
     public Web3Network ethNetRopsten(
             OkHttpClient client,
             @Value("${io.lastwill.eventscan.web3-url.ropsten}") String web3Url,
-            @Value("${etherscanner.pending-transactions-threshold}") int pendingThreshold) {
+            @Value("${etherscanner.pending-transactions-threshold}") int pendingThreshold,
+            @Value("${etherscanner.web3.max-batch-size}") int maxBatchSize,
+            @Value("${etherscanner.web3.stream-blocks:true}") boolean streamBlocks) {
         return new Web3Network(
                 NetworkType.ETHEREUM_ROPSTEN,
                 Web3jEx.build(new HttpService(web3Url, client, false)),
+                new JsonRpcBatchService(web3Url, client, maxBatchSize),
+                streamBlocks ? new JsonRpcStreamService(web3Url, client) : null,
                 pendingThreshold);
     }
 
     @ConditionalOnProperty(name = "io.lastwill.eventscan.web3-url.rsk-mainnet")
     @Bean(name = NetworkType.RSK_MAINNET_VALUE)
-    public Web3Network rskNetMain(@Value("${io.lastwill.eventscan.web3-url.rsk-mainnet}") String web3Url) {
+    public Web3Network rskNetMain(
+            OkHttpClient client,
+            @Value("${io.lastwill.eventscan.web3-url.rsk-mainnet}") String web3Url,
+            @Value("${etherscanner.web3.max-batch-size}") int maxBatchSize,
+            @Value("${etherscanner.web3.stream-blocks:true}") boolean streamBlocks) {
         return new Web3Network(
                 NetworkType.RSK_MAINNET,
                 Web3j.build(new HttpService(web3Url)),
+                new JsonRpcBatchService(web3Url, client, maxBatchSize),
+                streamBlocks ? new JsonRpcStreamService(web3Url, client) : null,
                 0);
     }
 
     @ConditionalOnProperty(name = "io.lastwill.eventscan.web3-url.rsk-testnet")
     @Bean(name = NetworkType.RSK_TESTNET_VALUE)
-    public Web3Network rskNetTest(@Value("${io.lastwill.eventscan.web3-url.rsk-testnet}") String web3Url) {
+    public Web3Network rskNetTest(
+            OkHttpClient client,
+            @Value("${io.lastwill.eventscan.web3-url.rsk-testnet}") String web3Url,
+            @Value("${etherscanner.web3.max-batch-size}") int maxBatchSize,
+            @Value("${etherscanner.web3.stream-blocks:true}") boolean streamBlocks) {
         return new Web3Network(
                 NetworkType.RSK_TESTNET,
                 Web3j.build(new HttpService(web3Url)),
+                new JsonRpcBatchService(web3Url, client, maxBatchSize),
+                streamBlocks ? new JsonRpcStreamService(web3Url, client) : null,
                 0);
     }
 
@@ -143,13 +165,19 @@ public class Web3BCModule {
             final @Qualifier(NetworkType.ETHEREUM_MAINNET_VALUE) Web3Network network,
             final @Qualifier("ethMainnetLastBlockPersister") LastBlockPersister lastBlockPersister,
             final @Value("${etherscanner.polling-interval-ms:5000}") Long pollingInterval,
-            final @Value("${etherscanner.commit-chain-length:5}") Integer commitmentChainLength
+            final @Value("${etherscanner.commit-chain-length:5}") Integer commitmentChainLength,
+            final OkHttpClient client,
+            final @Value("${io.lastwill.eventscan.web3-ws-url.ethereum:}") String wsUrl,
+            final @Value("${etherscanner.web3.ws-reconnect-interval-ms:10000}") Long reconnectInterval
     ) {
         return new Web3Scanner(
                 network,
                 lastBlockPersister,
                 pollingInterval,
-                commitmentChainLength
+                commitmentChainLength,
+                client,
+                wsUrl,
+                reconnectInterval
         );
     }
 
@@ -159,13 +187,19 @@ public class Web3BCModule {
             final @Qualifier(NetworkType.ETHEREUM_ROPSTEN_VALUE) Web3Network network,
             final @Qualifier("ethRopstenLastBlockPersister") LastBlockPersister lastBlockPersister,
             final @Value("${etherscanner.polling-interval-ms:5000}") Long pollingInterval,
-            final @Value("${etherscanner.commit-chain-length:5}") Integer commitmentChainLength
+            final @Value("${etherscanner.commit-chain-length:5}") Integer commitmentChainLength,
+            final OkHttpClient client,
+            final @Value("${io.lastwill.eventscan.web3-ws-url.ropsten:}") String wsUrl,
+            final @Value("${etherscanner.web3.ws-reconnect-interval-ms:10000}") Long reconnectInterval
     ) {
         return new Web3Scanner(
                 network,
                 lastBlockPersister,
                 pollingInterval,
-                commitmentChainLength
+                commitmentChainLength,
+                client,
+                wsUrl,
+                reconnectInterval
         );
     }
 
@@ -175,13 +209,19 @@ public class Web3BCModule {
             final @Qualifier(NetworkType.RSK_MAINNET_VALUE) Web3Network network,
             final @Qualifier("rskMainnetLastBlockPersister") LastBlockPersister lastBlockPersister,
             final @Value("${etherscanner.polling-interval-ms:5000}") Long pollingInterval,
-            final @Value("${etherscanner.commit-chain-length:5}") Integer commitmentChainLength
+            final @Value("${etherscanner.commit-chain-length:5}") Integer commitmentChainLength,
+            final OkHttpClient client,
+            final @Value("${io.lastwill.eventscan.web3-ws-url.rsk-mainnet:}") String wsUrl,
+            final @Value("${etherscanner.web3.ws-reconnect-interval-ms:10000}") Long reconnectInterval
     ) {
         return new Web3Scanner(
                 network,
                 lastBlockPersister,
                 pollingInterval,
-                commitmentChainLength
+                commitmentChainLength,
+                client,
+                wsUrl,
+                reconnectInterval
         );
     }
 
@@ -191,13 +231,19 @@ public class Web3BCModule {
             final @Qualifier(NetworkType.RSK_TESTNET_VALUE) Web3Network network,
             final @Qualifier("rskTestnetLastBlockPersister") LastBlockPersister lastBlockPersister,
             final @Value("${etherscanner.polling-interval-ms:5000}") Long pollingInterval,
-            final @Value("${etherscanner.commit-chain-length:5}") Integer commitmentChainLength
+            final @Value("${etherscanner.commit-chain-length:5}") Integer commitmentChainLength,
+            final OkHttpClient client,
+            final @Value("${io.lastwill.eventscan.web3-ws-url.rsk-testnet:}") String wsUrl,
+            final @Value("${etherscanner.web3.ws-reconnect-interval-ms:10000}") Long reconnectInterval
     ) {
         return new Web3Scanner(
                 network,
                 lastBlockPersister,
                 pollingInterval,
-                commitmentChainLength
+                commitmentChainLength,
+                client,
+                wsUrl,
+                reconnectInterval
         );
     }
 }
@@ -0,0 +1,92 @@
+package io.mywish.web3.blockchain.batch;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import okhttp3.OkHttpClient;
+import okhttp3.RequestBody;
+import okhttp3.ResponseBody;
+import org.web3j.protocol.ObjectMapperFactory;
+import org.web3j.protocol.core.Request;
+import org.web3j.protocol.core.Response;
+import org.web3j.protocol.http.HttpService;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Sends several web3j requests as one JSON-RPC batch (array) over the same OkHttp client.
+ * web3j 3.x has no batch support, so requests are serialized and responses are matched by id here.
+ */
+@Slf4j
+public class JsonRpcBatchService {
+    private final ObjectMapper objectMapper = ObjectMapperFactory.getObjectMapper();
+    private final String url;
+    private final OkHttpClient httpClient;
+    private final int maxBatchSize;
+
+    public JsonRpcBatchService(String url, OkHttpClient httpClient, int maxBatchSize) {
+        this.url = url;
+        this.httpClient = httpClient;
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    /**
+     * Sends requests and returns responses in the same order. If there are more than maxBatchSize requests,
+     * several batches are sent one after another.
+     */
+    public <T extends Response<?>> List<T> send(List<Request<?, T>> requests, Class<T> responseType) throws IOException {
+        List<T> result = new ArrayList<>(requests.size());
+        for (int from = 0; from < requests.size(); from += maxBatchSize) {
+            result.addAll(sendBatch(
+                    requests.subList(from, Math.min(from + maxBatchSize, requests.size())),
+                    responseType
+            ));
+        }
+        return result;
+    }
+
+    private <T extends Response<?>> List<T> sendBatch(List<Request<?, T>> requests, Class<T> responseType) throws IOException {
+        long start = System.currentTimeMillis();
+        byte[] payload = objectMapper.writeValueAsBytes(requests);
+        okhttp3.Request httpRequest = new okhttp3.Request.Builder()
+                .url(url)
+                .post(RequestBody.create(HttpService.JSON_MEDIA_TYPE, payload))
+                .build();
+
+        JsonNode root;
+        try (okhttp3.Response httpResponse = httpClient.newCall(httpRequest).execute()) {
+            ResponseBody body = httpResponse.body();
+            if (!httpResponse.isSuccessful() || body == null) {
+                throw new IOException("Batch of " + requests.size() + " requests failed with HTTP code " + httpResponse.code() + ".");
+            }
+            root = objectMapper.readTree(body.byteStream());
+        }
+        if (!root.isArray()) {
+            // node does not support batches or rejected the whole batch
+            throw new IOException("Batch response is not an array: " + root);
+        }
+
+        Map<Long, JsonNode> responsesById = new HashMap<>();
+        for (JsonNode node : root) {
+            responsesById.put(node.path("id").asLong(), node);
+        }
+
+        List<T> result = new ArrayList<>(requests.size());
+        for (Request<?, T> request : requests) {
+            JsonNode node = responsesById.get(request.getId());
+            if (node == null) {
+                throw new IOException("There is no response for request " + request.getMethod() + " with id " + request.getId() + " in batch.");
+            }
+            result.add(objectMapper.treeToValue(node, responseType));
+        }
+
+        if (log.isDebugEnabled()) {
+            log.debug("Batch of {} {} requests: {} ms.", requests.size(), requests.get(0).getMethod(), System.currentTimeMillis() - start);
+        }
+        return result;
+    }
+}
@@ -5,31 +5,54 @@ import io.mywish.blockchain.WrapperBlock;
 import io.mywish.blockchain.WrapperNetwork;
 import io.mywish.blockchain.WrapperTransaction;
 import io.mywish.blockchain.WrapperTransactionReceipt;
+import io.mywish.web3.blockchain.batch.JsonRpcBatchService;
 import io.mywish.web3.blockchain.parity.Web3jEx;
+import io.mywish.web3.blockchain.stream.BlockJsonDecoder;
+import io.mywish.web3.blockchain.stream.JsonRpcStreamService;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.web3j.protocol.Web3j;
 import org.web3j.protocol.core.DefaultBlockParameterNumber;
+import org.web3j.protocol.core.Request;
+import org.web3j.protocol.core.Response;
+import org.web3j.protocol.core.methods.response.EthGetTransactionReceipt;
 import org.web3j.protocol.core.methods.response.Transaction;
+import org.web3j.utils.Numeric;
 import rx.Subscription;
 
 import javax.annotation.PostConstruct;
 import javax.annotation.PreDestroy;
 import java.math.BigInteger;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
 @Slf4j
 public class Web3Network extends WrapperNetwork {
     private final Web3j web3j;
+    /**
+     * Optional, if it is null all requests are sent one by one.
+     */
+    private final JsonRpcBatchService batchService;
+    /**
+     * Optional, if it is not null blocks are decoded from the response stream instead of web3j model.
+     */
+    private final JsonRpcStreamService streamService;
 
     @Autowired
     private WrapperBlockWeb3Service blockBuilder;
 
+    @Autowired
+    private BlockJsonDecoder blockDecoder;
+
     @Autowired
     private WrapperTransactionWeb3Service transactionBuilder;
 
@@ -38,20 +61,48 @@ public class Web3Network extends WrapperNetwork {
 
     private final int pendingThreshold;
 
-    private final BlockingQueue<Transaction> pendingTransactions = new LinkedBlockingQueue<>();
+    /**
+     * Subscription buffer for non-parity nodes: transactions are filtered and wrapped on arrival, the eldest one
+     * is dropped when the buffer is full.
+     */
+    @Value("${etherscanner.web3.pending-queue-size:10000}")
+    private int pendingQueueSize;
+    private BlockingQueue<PendingEntry> pendingTransactions;
+    private final AtomicLong pendingDroppedCount = new AtomicLong();
+    private final AtomicLong pendingFilteredCount = new AtomicLong();
+    private volatile long pendingLag;
     private Subscription subscription;
+    /**
+     * Parity pending hashes from the previous poll, value is true if the transaction was reported.
+     */
+    private Map<String, Boolean> knownPendingHashes = new HashMap<>();
+    private List<String> droppedPendingHashes = new ArrayList<>();
 
     public Web3Network(NetworkType type, Web3j web3j, int pendingThreshold) {
+        this(type, web3j, null, pendingThreshold);
+    }
+
+    public Web3Network(NetworkType type, Web3j web3j, JsonRpcBatchService batchService, int pendingThreshold) {
+        this(type, web3j, batchService, null, pendingThreshold);
+    }
+
+    public Web3Network(NetworkType type, Web3j web3j, JsonRpcBatchService batchService, JsonRpcStreamService streamService, int pendingThreshold) {
         super(type);
         this.web3j = web3j;
+        this.batchService = batchService;
+        this.streamService = streamService;
         this.pendingThreshold = pendingThreshold;
     }
 
     @PostConstruct
     private void init() {
         if (pendingThreshold > 0 && !(web3j instanceof Web3jEx)) {
-            log.info("Subscribe to pending transactions.");
-            subscription = web3j.pendingTransactionObservable().subscribe(pendingTransactions::add);
+            log.info("Subscribe to pending transactions, buffer size is {}.", pendingQueueSize);
+            pendingTransactions = new ArrayBlockingQueue<>(pendingQueueSize);
+            subscription = web3j.pendingTransactionObservable().subscribe(
+                    this::onPendingTransaction,
+                    throwable -> log.warn("{}: pending transactions subscription failed.", getType(), throwable)
+            );
         }
     }
 
@@ -69,37 +120,79 @@ public class Web3Network extends WrapperNetwork {
 
     @Override
     public Long getLastBlock() throws Exception {
-        return web3j.ethBlockNumber().send().getBlockNumber().longValue();
+        return rpc("eth_blockNumber", () -> web3j.ethBlockNumber().send()).getBlockNumber().longValue();
     }
 
     @Override
     public WrapperBlock getBlock(String hash) throws Exception {
-        return blockBuilder.build(web3j.ethGetBlockByHash(hash, false).send().getBlock());
+        return blockBuilder.build(rpc("eth_getBlockByHash", () -> web3j.ethGetBlockByHash(hash, false).send()).getBlock());
     }
 
     @Override
     public WrapperBlock getBlock(Long number) throws Exception {
-        return blockBuilder.build(web3j.ethGetBlockByNumber(new DefaultBlockParameterNumber(number), true).send().getBlock());
+        if (streamService != null) {
+            return rpc("eth_getBlockByNumber", () -> streamService.send(
+                    "eth_getBlockByNumber",
+                    Arrays.asList(Numeric.encodeQuantity(BigInteger.valueOf(number)), true),
+                    blockDecoder::decode
+            ));
+        }
+        return blockBuilder.build(rpc("eth_getBlockByNumber", () -> web3j.ethGetBlockByNumber(new DefaultBlockParameterNumber(number), true).send()).getBlock());
     }
 
     @Override
     public BigInteger getBalance(String address, Long blockNo) throws Exception {
-        return web3j
+        return rpc("eth_getBalance", () -> web3j
                 .ethGetBalance(address, new DefaultBlockParameterNumber(blockNo))
-                .send()
+                .send())
                 .getBalance();
     }
 
     @Override
     public WrapperTransactionReceipt getTxReceipt(WrapperTransaction transaction) throws Exception {
         return transactionReceiptBuilder.build(
-                web3j
+                rpc("eth_getTransactionReceipt", () -> web3j
                         .ethGetTransactionReceipt(transaction.getHash())
-                        .send()
+                        .send())
                         .getResult()
         );
     }
 
+    @Override
+    public List<WrapperTransactionReceipt> getTxReceipts(List<WrapperTransaction> transactions) throws Exception {
+        if (batchService == null || transactions.size() < 2) {
+            return super.getTxReceipts(transactions);
+        }
+        List<Request<?, EthGetTransactionReceipt>> requests = transactions
+                .stream()
+                .map(transaction -> web3j.ethGetTransactionReceipt(transaction.getHash()))
+                .collect(Collectors.toList());
+        List<WrapperTransactionReceipt> result = new ArrayList<>(transactions.size());
+        List<EthGetTransactionReceipt> responses = rpc("eth_getTransactionReceipt_batch",
+                () -> batchService.send(requests, EthGetTransactionReceipt.class));
+        for (EthGetTransactionReceipt response : responses) {
+            if (response.hasError()) {
+                throw new Exception("Getting receipt failed: " + response.getError().getMessage());
+            }
+            result.add(transactionReceiptBuilder.build(response.getResult()));
+        }
+        return result;
+    }
+
+    /**
+     * web3j does not throw on JSON-RPC errors, the error is a part of the response.
+     */
+    @Override
+    protected boolean isErrorResult(Object result) {
+        if (result instanceof Response) {
+            return ((Response<?>) result).hasError();
+        }
+        if (result instanceof List) {
+            return ((List<?>) result).stream().anyMatch(this::isErrorResult);
+        }
+        return false;
+    }
+
     @Override
     public boolean isPendingTransactionsSupported() {
         return true;
@@ -108,26 +201,113 @@ public class Web3Network extends WrapperNetwork {
     @Override
     public List<WrapperTransaction> fetchPendingTransactions() throws Exception {
         if (web3j instanceof Web3jEx) {
-            List<Transaction> result = ((Web3jEx) web3j).parityGetPendingTransactions().send()
+            List<Transaction> result = rpc("parity_pendingTransactions", () -> ((Web3jEx) web3j).parityGetPendingTransactions().send())
                     .getResult();
 
             if (result == null) {
                 return Collections.emptyList();
             }
 
-            return result
-                    .stream()
-                    .map(transactionBuilder::build)
-                    .collect(Collectors.toList());
+            return diffPendingTransactions(result);
         }
-        if (pendingTransactions.isEmpty()) {
+        if (pendingTransactions == null || pendingTransactions.isEmpty()) {
             return Collections.emptyList();
         }
-        ArrayList<WrapperTransaction> result = new ArrayList<>(pendingTransactions.size() + 3);
-        while (!pendingTransactions.isEmpty()) {
-            Transaction transaction = pendingTransactions.remove();
-            result.add(transactionBuilder.build(transaction));
+        List<PendingEntry> entries = new ArrayList<>(pendingTransactions.size() + 3);
+        pendingTransactions.drainTo(entries);
+        if (entries.isEmpty()) {
+            return Collections.emptyList();
         }
+        pendingLag = System.currentTimeMillis() - entries.get(0).receivedAt;
+        return entries
+                .stream()
+                .map(entry -> entry.transaction)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public List<String> fetchDroppedPendingTransactions() {
+        if (droppedPendingHashes.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<String> result = droppedPendingHashes;
+        droppedPendingHashes = new ArrayList<>();
         return result;
     }
+
+    /**
+     * Builds wrappers only for transactions which were not in the previous pending list and pass the output filter.
+     * Reported transactions which are absent in the list are collected as dropped.
+     */
+    private List<WrapperTransaction> diffPendingTransactions(List<Transaction> pending) {
+        Map<String, Boolean> current = new HashMap<>(pending.size() * 4 / 3 + 1);
+        List<WrapperTransaction> result = new ArrayList<>();
+        for (Transaction transaction : pending) {
+            Boolean reported = knownPendingHashes.get(transaction.getHash());
+            if (reported == null) {
+                reported = isAcceptedPending(transaction);
+                if (reported) {
+                    result.add(transactionBuilder.build(transaction));
+                }
+                else {
+                    countFilteredPending();
+                }
+            }
+            current.put(transaction.getHash(), reported);
+        }
+        knownPendingHashes.forEach((hash, reported) -> {
+            if (reported && !current.containsKey(hash)) {
+                droppedPendingHashes.add(hash);
+            }
+        });
+        knownPendingHashes = current;
+        return result;
+    }
+
+    private void onPendingTransaction(Transaction transaction) {
+        if (!isAcceptedPending(transaction)) {
+            pendingFilteredCount.incrementAndGet();
+            countFilteredPending();
+            return;
+        }
+        PendingEntry entry = new PendingEntry(transactionBuilder.build(transaction), System.currentTimeMillis());
+        while (!pendingTransactions.offer(entry)) {
+            if (pendingTransactions.poll() != null) {
+                pendingDroppedCount.incrementAndGet();
+            }
+        }
+    }
+
+    public int getPendingQueueSize() {
+        return pendingTransactions == null ? 0 : pendingTransactions.size();
+    }
+
+    public long getPendingDroppedCount() {
+        return pendingDroppedCount.get();
+    }
+
+    public long getPendingFilteredCount() {
+        return pendingFilteredCount.get();
+    }
+
+    /**
+     * @return how long the eldest transaction waited in the buffer at the last fetch, ms.
+     */
+    public long getPendingLag() {
+        return pendingLag;
+    }
+
+    private boolean isAcceptedPending(Transaction transaction) {
+        return getPendingOutputFilter().test(transaction.getTo());
+    }
+
+    private static class PendingEntry {
+        private final WrapperTransaction transaction;
+        private final long receivedAt;
+
+        PendingEntry(WrapperTransaction transaction, long receivedAt) {
+            this.transaction = transaction;
+            this.receivedAt = receivedAt;
+        }
+    }
 }
@@ -1,5 +1,6 @@
 package io.mywish.web3.blockchain.service;
 
+import io.mywish.blockchain.Address;
 import io.mywish.blockchain.WrapperBlock;
 import io.mywish.blockchain.WrapperOutput;
 import io.mywish.blockchain.WrapperTransaction;
@@ -7,48 +8,106 @@ import io.mywish.blockchain.WrapperTransactionReceipt;
 import io.mywish.scanner.model.NewBlockEvent;
 import io.mywish.scanner.services.LastBlockPersister;
 import io.mywish.scanner.services.ScannerPolling;
+import io.mywish.web3.blockchain.subscription.NewHeadsSubscription;
 import lombok.extern.slf4j.Slf4j;
+import okhttp3.OkHttpClient;
 import org.springframework.util.CollectionUtils;
 import org.springframework.util.MultiValueMap;
 
 import java.util.HashMap;
+import java.util.List;
+import java.util.stream.Collectors;
 
 @Slf4j
 public class Web3Scanner extends ScannerPolling {
+    private final NewHeadsSubscription subscription;
+
     public Web3Scanner(Web3Network network, LastBlockPersister lastBlockPersister, long pollingInterval, int commitmentChainLength) {
         super(network, lastBlockPersister, pollingInterval, commitmentChainLength);
+        this.subscription = null;
+    }
+
+    /**
+     * Scanner which is woken up by newHeads subscription over WebSocket. Polling remains as is, so when the socket is
+     * lost blocks are still loaded every polling interval, and missed blocks are loaded from the last processed one.
+     */
+    public Web3Scanner(
+            Web3Network network,
+            LastBlockPersister lastBlockPersister,
+            long pollingInterval,
+            int commitmentChainLength,
+            OkHttpClient client,
+            String wsUrl,
+            long reconnectInterval
+    ) {
+        super(network, lastBlockPersister, pollingInterval, commitmentChainLength);
+        this.subscription = wsUrl == null || wsUrl.isEmpty()
+                ? null
+                : new NewHeadsSubscription(
+                        network.getType().toString(),
+                        client,
+                        wsUrl,
+                        reconnectInterval,
+                        blockNo -> {
+                            log.debug("{}: new head {} notified.", network.getType(), blockNo);
+                            wakeUp();
+                        });
+    }
+
+    @Override
+    protected void open() throws Exception {
+        super.open();
+        if (subscription != null) {
+            subscription.open();
+        }
+    }
+
+    @Override
+    protected void close() {
+        if (subscription != null) {
+            subscription.close();
+        }
+        super.close();
     }
 
     @Override
     protected void processBlock(WrapperBlock block) {
         log.info("{}: new block received {} ({})", network.getType(), block.getNumber(), block.getHash());
 
-        MultiValueMap<String, WrapperTransaction> addressTransactions = CollectionUtils.toMultiValueMap(new HashMap<>());
+        resolveCreatedContracts(block);
+
+        eventPublisher.publish(new NewBlockEvent(network.getType(), block, indexAddresses(block)));
+    }
+
+    /**
+     * @return block transactions by from, to or created contract address.
+     */
+    MultiValueMap<Address, WrapperTransaction> indexAddresses(WrapperBlock block) {
+        MultiValueMap<Address, WrapperTransaction> addressTransactions = CollectionUtils.toMultiValueMap(new HashMap<>());
 
         block.getTransactions()
                 .forEach(transaction -> {
-                    String from = transaction.getInputs().get(0);
+                    Address from = transaction.getInputAddresses().get(0);
                     WrapperOutput to = transaction.getOutputs().get(0);
                     if (from != null) {
-                        addressTransactions.add(from.toLowerCase(), transaction);
+                        addressTransactions.add(from, transaction);
                     }
                     else {
                         log.warn("Empty from field for transaction {}. Skip it.", transaction.getHash());
                     }
-                    if (to != null && to.getAddress() != null) {
-                        addressTransactions.add(to.getAddress().toLowerCase(), transaction);
+                    if (to != null && to.getCanonicalAddress() != null) {
+                        addressTransactions.add(to.getCanonicalAddress(), transaction);
                     }
                     else {
-                        if (transaction.getCreates() != null) {
-                            addressTransactions.add(transaction.getCreates().toLowerCase(), transaction);
+                        if (transaction.getCreatedAddress() != null) {
+                            addressTransactions.add(transaction.getCreatedAddress(), transaction);
                         }
                         else {
                             try {
                                 WrapperTransactionReceipt receipt = network.getTxReceipt(transaction);
-                                String contract = receipt.getContracts().get(0);
-                                transaction.setCreates(contract);
+                                transaction.setCreates(receipt.getContracts().get(0));
                                 addressTransactions.add(
-                                        contract.toLowerCase(),
+                                        transaction.getCreatedAddress(),
                                         transaction
                                 );
                             }
@@ -62,6 +121,30 @@ public class Web3Scanner extends ScannerPolling {
 //                    eventPublisher.publish(new NewTransactionEvent(network.getType(), block, transaction));
                 });
 
-        eventPublisher.publish(new NewBlockEvent(network.getType(), block, addressTransactions));
+        return addressTransactions;
+    }
+
+    /**
+     * Fills creates field for contract creation transactions without it by receipts loaded in one batch.
+     * If it fails, receipts will be requested one by one during block processing.
+     */
+    private void resolveCreatedContracts(WrapperBlock block) {
+        List<WrapperTransaction> transactions = block.getTransactions()
+                .stream()
+                .filter(transaction -> transaction.getCreatedAddress() == null)
+                .filter(transaction -> transaction.getOutputs().get(0) == null || transaction.getOutputs().get(0).getAddress() == null)
+                .collect(Collectors.toList());
+        if (transactions.isEmpty()) {
+            return;
+        }
+        try {
+            List<WrapperTransactionReceipt> receipts = network.getTxReceipts(transactions);
+            for (int i = 0; i < transactions.size(); i++) {
+                transactions.get(i).setCreates(receipts.get(i).getContracts().get(0));
+            }
+        }
+        catch (Exception e) {
+            log.warn("{}: getting {} receipts of block {} failed.", network.getType(), transactions.size(), block.getNumber(), e);
+        }
     }
 }
\ No newline at end of file
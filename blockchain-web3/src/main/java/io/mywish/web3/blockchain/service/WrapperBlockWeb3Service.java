@@ -29,6 +29,6 @@ public class WrapperBlockWeb3Service implements WrapperBlockService<EthBlock.Blo
                     Transaction transaction = ((EthBlock.TransactionObject) tx).get();
                     return transactionBuilder.build(transaction);
                 }).collect(Collectors.toList());
-        return new WrapperBlock(hash, number, timestamp, transactions);
+        return new WrapperBlock(hash, number, timestamp, transactions, block.getParentHash());
     }
 }
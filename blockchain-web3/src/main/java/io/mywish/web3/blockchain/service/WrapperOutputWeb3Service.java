@@ -5,19 +5,38 @@ import io.mywish.blockchain.service.WrapperOutputService;
 import org.springframework.stereotype.Component;
 import org.web3j.protocol.core.methods.response.Transaction;
 
-import javax.xml.bind.DatatypeConverter;
 import java.math.BigInteger;
 
 @Component
 public class WrapperOutputWeb3Service implements WrapperOutputService<Transaction> {
     @Override
     public WrapperOutput build(Transaction transaction) {
-        return new WrapperOutput(
+        return build(
                 transaction.getHash(),
-                0,
                 transaction.getTo(),
                 "0".equals(transaction.getValueRaw()) ? BigInteger.ZERO : transaction.getValue(),
-                DatatypeConverter.parseHexBinary(transaction.getInput().substring(2))
+                // few monitors read calldata, so it is decoded on demand
+                transaction.getInput()
+        );
+    }
+
+    public WrapperOutput build(String transactionHash, String to, BigInteger value, String inputHex) {
+        return new WrapperOutput(
+                transactionHash,
+                0,
+                to,
+                value,
+                inputHex
+        );
+    }
+
+    public WrapperOutput build(String transactionHash, String to, BigInteger value, byte[] input) {
+        return new WrapperOutput(
+                transactionHash,
+                0,
+                to,
+                value,
+                input
         );
     }
 }
@@ -7,6 +7,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 import org.web3j.protocol.core.methods.response.Transaction;
 
+import java.math.BigInteger;
 import java.util.Collections;
 import java.util.List;
 
@@ -19,17 +20,33 @@ public class WrapperTransactionWeb3Service implements WrapperTransactionService<
 
     @Override
     public WrapperTransaction build(Transaction transaction) {
-        String hash = transaction.getHash();
-        List<String> inputs = Collections.singletonList(transaction.getFrom());
-        List<WrapperOutput> outputs = Collections.singletonList(outputBuilder.build(transaction));
-        boolean contractCreation = transaction.getTo() == null || ZERO_ADDRESS.equalsIgnoreCase(transaction.getTo());
+        return build(
+                transaction.getHash(),
+                transaction.getFrom(),
+                transaction.getTo(),
+                outputBuilder.build(transaction),
+                transaction.getCreates()
+        );
+    }
+
+    /**
+     * Builds the transaction from raw fields, used by the streaming block decoder.
+     */
+    public WrapperTransaction build(String hash, String from, String to, BigInteger value, byte[] input, String creates) {
+        return build(hash, from, to, outputBuilder.build(hash, to, value, input), creates);
+    }
+
+    private WrapperTransaction build(String hash, String from, String to, WrapperOutput output, String creates) {
+        List<String> inputs = Collections.singletonList(from);
+        List<WrapperOutput> outputs = Collections.singletonList(output);
+        boolean contractCreation = to == null || ZERO_ADDRESS.equalsIgnoreCase(to);
         WrapperTransaction wrapper = new WrapperTransaction(
                 hash,
                 inputs,
                 outputs,
                 contractCreation
         );
-        wrapper.setCreates(transaction.getCreates());
+        wrapper.setCreates(creates);
         return wrapper;
     }
 }
@@ -0,0 +1,164 @@
+package io.mywish.web3.blockchain.stream;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import io.mywish.blockchain.WrapperBlock;
+import io.mywish.blockchain.WrapperTransaction;
+import io.mywish.web3.blockchain.service.WrapperTransactionWeb3Service;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Reads eth_getBlockByNumber result (with full transactions) directly into the wrapper model.
+ * Only fields used by wrappers are read, all the others are skipped without creating values.
+ */
+@Component
+public class BlockJsonDecoder {
+    private static final byte[] EMPTY = new byte[0];
+
+    @Autowired
+    private WrapperTransactionWeb3Service transactionBuilder;
+
+    /**
+     * @return block or null if the node returned null.
+     */
+    public WrapperBlock decode(JsonParser parser) throws IOException {
+        if (parser.getCurrentToken() == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        expect(parser, JsonToken.START_OBJECT);
+        String hash = null;
+        String parentHash = null;
+        Long number = null;
+        Instant timestamp = null;
+        List<WrapperTransaction> transactions = Collections.emptyList();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            parser.nextToken();
+            switch (field) {
+                case "hash":
+                    hash = parser.getValueAsString();
+                    break;
+                case "parentHash":
+                    parentHash = parser.getValueAsString();
+                    break;
+                case "number":
+                    number = decodeLong(parser.getValueAsString());
+                    break;
+                case "timestamp":
+                    timestamp = Instant.ofEpochSecond(decodeLong(parser.getValueAsString()));
+                    break;
+                case "transactions":
+                    transactions = decodeTransactions(parser);
+                    break;
+                default:
+                    parser.skipChildren();
+            }
+        }
+        return new WrapperBlock(hash, number, timestamp, transactions, parentHash);
+    }
+
+    private List<WrapperTransaction> decodeTransactions(JsonParser parser) throws IOException {
+        expect(parser, JsonToken.START_ARRAY);
+        List<WrapperTransaction> result = new ArrayList<>();
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            if (parser.getCurrentToken() != JsonToken.START_OBJECT) {
+                throw new IOException("Full transaction object expected, but got " + parser.getCurrentToken() + ".");
+            }
+            result.add(decodeTransaction(parser));
+        }
+        return result;
+    }
+
+    private WrapperTransaction decodeTransaction(JsonParser parser) throws IOException {
+        String hash = null;
+        String from = null;
+        String to = null;
+        String creates = null;
+        BigInteger value = BigInteger.ZERO;
+        byte[] input = EMPTY;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            parser.nextToken();
+            switch (field) {
+                case "hash":
+                    hash = parser.getValueAsString();
+                    break;
+                case "from":
+                    from = parser.getValueAsString();
+                    break;
+                case "to":
+                    to = parser.getValueAsString();
+                    break;
+                case "creates":
+                    creates = parser.getValueAsString();
+                    break;
+                case "value":
+                    value = decodeQuantity(parser.getValueAsString());
+                    break;
+                case "input":
+                    input = decodeHex(parser);
+                    break;
+                default:
+                    parser.skipChildren();
+            }
+        }
+        return transactionBuilder.build(hash, from, to, value, input, creates);
+    }
+
+    private static void expect(JsonParser parser, JsonToken token) throws IOException {
+        if (parser.getCurrentToken() != token) {
+            throw new IOException("Expected " + token + ", but got " + parser.getCurrentToken() + ".");
+        }
+    }
+
+    private static long decodeLong(String quantity) {
+        return Long.parseLong(quantity.substring(2), 16);
+    }
+
+    private static BigInteger decodeQuantity(String quantity) {
+        if (quantity == null || "0x0".equals(quantity)) {
+            return BigInteger.ZERO;
+        }
+        String digits = quantity.substring(2);
+        // most of values fit into long, it is cheaper than BigInteger parsing
+        return digits.length() < 16
+                ? BigInteger.valueOf(Long.parseLong(digits, 16))
+                : new BigInteger(digits, 16);
+    }
+
+    /**
+     * Decodes 0x-prefixed hex string from the parser buffer without creating the string.
+     */
+    private static byte[] decodeHex(JsonParser parser) throws IOException {
+        if (parser.getCurrentToken() == JsonToken.VALUE_NULL) {
+            return EMPTY;
+        }
+        char[] chars = parser.getTextCharacters();
+        int offset = parser.getTextOffset() + 2;
+        int length = parser.getTextLength() - 2;
+        if (length <= 0) {
+            return EMPTY;
+        }
+        if (length % 2 != 0) {
+            throw new IOException("Odd length of hex value: " + parser.getText() + ".");
+        }
+        byte[] result = new byte[length / 2];
+        for (int i = 0; i < result.length; i++) {
+            int hi = Character.digit(chars[offset + i * 2], 16);
+            int lo = Character.digit(chars[offset + i * 2 + 1], 16);
+            if (hi < 0 || lo < 0) {
+                throw new IOException("Wrong hex value: " + parser.getText() + ".");
+            }
+            result[i] = (byte) (hi << 4 | lo);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,90 @@
+package io.mywish.web3.blockchain.stream;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import okhttp3.OkHttpClient;
+import okhttp3.RequestBody;
+import okhttp3.ResponseBody;
+import org.web3j.protocol.ObjectMapperFactory;
+import org.web3j.protocol.http.HttpService;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sends a JSON-RPC request over the same OkHttp client as web3j and reads the result straight from the response
+ * stream, so large results (blocks) are not materialized into web3j response objects.
+ */
+public class JsonRpcStreamService {
+    private final ObjectMapper objectMapper = ObjectMapperFactory.getObjectMapper();
+    private final AtomicLong nextId = new AtomicLong();
+    private final String url;
+    private final OkHttpClient httpClient;
+
+    public JsonRpcStreamService(String url, OkHttpClient httpClient) {
+        this.url = url;
+        this.httpClient = httpClient;
+    }
+
+    /**
+     * Reads a JSON value, the parser is positioned on its first token and must be left on its last one.
+     */
+    public interface ResultReader<T> {
+        T read(JsonParser parser) throws IOException;
+    }
+
+    public <T> T send(String method, List<?> params, ResultReader<T> reader) throws IOException {
+        Map<String, Object> request = new LinkedHashMap<>();
+        request.put("jsonrpc", "2.0");
+        request.put("method", method);
+        request.put("params", params);
+        request.put("id", nextId.incrementAndGet());
+
+        okhttp3.Request httpRequest = new okhttp3.Request.Builder()
+                .url(url)
+                .post(RequestBody.create(HttpService.JSON_MEDIA_TYPE, objectMapper.writeValueAsBytes(request)))
+                .build();
+
+        try (okhttp3.Response httpResponse = httpClient.newCall(httpRequest).execute()) {
+            ResponseBody body = httpResponse.body();
+            if (!httpResponse.isSuccessful() || body == null) {
+                throw new IOException("Request " + method + " failed with HTTP code " + httpResponse.code() + ".");
+            }
+            try (JsonParser parser = objectMapper.getFactory().createParser(body.byteStream())) {
+                return readResponse(parser, method, reader);
+            }
+        }
+    }
+
+    private <T> T readResponse(JsonParser parser, String method, ResultReader<T> reader) throws IOException {
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            throw new IOException("Response to " + method + " is not an object.");
+        }
+        T result = null;
+        boolean hasResult = false;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            parser.nextToken();
+            if ("result".equals(field)) {
+                result = reader.read(parser);
+                hasResult = true;
+            }
+            else if ("error".equals(field)) {
+                JsonNode error = objectMapper.readTree(parser);
+                throw new IOException("Request " + method + " failed: " + error);
+            }
+            else {
+                parser.skipChildren();
+            }
+        }
+        if (!hasResult) {
+            throw new IOException("There is no result in response to " + method + ".");
+        }
+        return result;
+    }
+}
@@ -0,0 +1,150 @@
+package io.mywish.web3.blockchain.subscription;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.WebSocket;
+import okhttp3.WebSocketListener;
+import org.web3j.protocol.ObjectMapperFactory;
+import org.web3j.utils.Numeric;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongConsumer;
+
+/**
+ * Subscription to newHeads of web3 node over WebSocket. Reconnects when the socket is lost,
+ * the listener receives number of each new head.
+ */
+@Slf4j
+public class NewHeadsSubscription {
+    private static final String SUBSCRIBE_REQUEST = "{\"jsonrpc\":\"2.0\",\"id\":1,\"method\":\"eth_subscribe\",\"params\":[\"newHeads\"]}";
+    private static final long PING_INTERVAL_SEC = 30;
+
+    private final String name;
+    private final OkHttpClient client;
+    private final String url;
+    private final long reconnectInterval;
+    private final LongConsumer listener;
+    private final ObjectMapper objectMapper = ObjectMapperFactory.getObjectMapper();
+    private final ScheduledExecutorService reconnectExecutor;
+
+    private volatile WebSocket webSocket;
+    /**
+     * Incremented on each connection, so callbacks of the previous sockets are ignored.
+     */
+    private volatile int connection;
+    private volatile boolean subscribed;
+    private volatile boolean closed;
+
+    public NewHeadsSubscription(String name, OkHttpClient client, String url, long reconnectInterval, LongConsumer listener) {
+        this.name = name;
+        this.client = client.newBuilder()
+                .readTimeout(0, TimeUnit.MILLISECONDS)
+                .pingInterval(PING_INTERVAL_SEC, TimeUnit.SECONDS)
+                .build();
+        this.url = url;
+        this.reconnectInterval = reconnectInterval;
+        this.listener = listener;
+        this.reconnectExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, name + "-ws-reconnect");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public void open() {
+        connect();
+    }
+
+    public void close() {
+        closed = true;
+        reconnectExecutor.shutdownNow();
+        WebSocket webSocket = this.webSocket;
+        if (webSocket != null) {
+            webSocket.close(1000, "closed");
+        }
+    }
+
+    public boolean isSubscribed() {
+        return subscribed;
+    }
+
+    private synchronized void connect() {
+        if (closed) {
+            return;
+        }
+        log.info("{}: subscribe to new heads on {}.", name, url);
+        webSocket = client.newWebSocket(new Request.Builder().url(url).build(), new Listener(++connection));
+    }
+
+    private void onDisconnected(int connection, String reason) {
+        if (connection != this.connection) {
+            return;
+        }
+        subscribed = false;
+        if (closed) {
+            return;
+        }
+        log.warn("{}: new heads subscription lost ({}), reconnect in {} ms.", name, reason, reconnectInterval);
+        reconnectExecutor.schedule(this::connect, reconnectInterval, TimeUnit.MILLISECONDS);
+    }
+
+    private class Listener extends WebSocketListener {
+        private final int connection;
+
+        Listener(int connection) {
+            this.connection = connection;
+        }
+
+        @Override
+        public void onOpen(WebSocket webSocket, Response response) {
+            webSocket.send(SUBSCRIBE_REQUEST);
+        }
+
+        @Override
+        public void onMessage(WebSocket webSocket, String text) {
+            JsonNode message;
+            try {
+                message = objectMapper.readTree(text);
+            }
+            catch (Exception e) {
+                log.warn("{}: wrong message from node: {}.", name, text, e);
+                return;
+            }
+            if (message.has("error")) {
+                log.warn("{}: subscription rejected by node: {}.", name, message.get("error"));
+                webSocket.close(1000, "subscription rejected");
+                return;
+            }
+            if (message.has("id")) {
+                subscribed = true;
+                log.info("{}: subscribed to new heads, id {}.", name, message.path("result").asText());
+                return;
+            }
+            JsonNode number = message.path("params").path("result").path("number");
+            if (number.isTextual()) {
+                listener.accept(Numeric.decodeQuantity(number.asText()).longValue());
+            }
+        }
+
+        @Override
+        public void onClosing(WebSocket webSocket, int code, String reason) {
+            webSocket.close(code, null);
+        }
+
+        @Override
+        public void onClosed(WebSocket webSocket, int code, String reason) {
+            onDisconnected(connection, "closed with " + code);
+        }
+
+        @Override
+        public void onFailure(WebSocket webSocket, Throwable t, Response response) {
+            onDisconnected(connection, t.getMessage());
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package io.mywish.web3.blockchain.stream;
+
+import io.mywish.blockchain.WrapperBlock;
+import io.mywish.blockchain.WrapperOutput;
+import io.mywish.blockchain.WrapperTransaction;
+import io.mywish.web3.blockchain.service.WrapperBlockWeb3Service;
+import io.mywish.web3.blockchain.service.WrapperOutputWeb3Service;
+import io.mywish.web3.blockchain.service.WrapperTransactionWeb3Service;
+import okhttp3.OkHttpClient;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.web3j.protocol.ObjectMapperFactory;
+import org.web3j.protocol.core.methods.response.EthBlock;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+public class BlockJsonDecoderTest {
+    private static final String BLOCK = "{"
+            + "\"number\":\"0x5bad55\",\"hash\":\"0xb3b20624f8f0f86eb50dd04688409e5cea4bd02d700bf6e79e9384d47d6a5a35\","
+            + "\"parentHash\":\"0x61a8ad530a8a43e3583f8ec163f773ad370329b2375d66433eb82f005e1d6202\","
+            + "\"logsBloom\":\"0x00\",\"timestamp\":\"0x5b541449\",\"uncles\":[\"0x01\"],\"sealFields\":[],"
+            + "\"transactions\":["
+            + "{\"hash\":\"0x01\",\"from\":\"0xA7A7899D944FE658C4B0A1803BAB2F490BD3849E\","
+            + "\"to\":\"0x4f7bc4e95b6bdf3c4a30a08d2dcd3bb6d6bd4b9c\",\"value\":\"0xde0b6b3a7640000\","
+            + "\"gas\":\"0x5208\",\"gasPrice\":\"0x1\",\"nonce\":\"0x0\",\"input\":\"0xa9059cbb\",\"v\":\"0x25\",\"r\":\"0x1\",\"s\":\"0x1\"},"
+            + "{\"hash\":\"0x02\",\"from\":\"0xa7a7899d944fe658c4b0a1803bab2f490bd3849e\",\"to\":null,"
+            + "\"creates\":\"0x5e72914535f202659083db3a02c984188fa26e9f\",\"value\":\"0x0\","
+            + "\"gas\":\"0x5208\",\"input\":\"0x\"},"
+            + "{\"hash\":\"0x03\",\"from\":\"0xa7a7899d944fe658c4b0a1803bab2f490bd3849e\","
+            + "\"to\":\"0x4f7bc4e95b6bdf3c4a30a08d2dcd3bb6d6bd4b9c\",\"value\":\"0x1000000000000000000000\",\"input\":\"0x\"}"
+            + "]}";
+
+    private final MockWebServer node = new MockWebServer();
+    private final AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+    private JsonRpcStreamService streamService;
+
+    @Before
+    public void setUp() {
+        context.register(
+                WrapperOutputWeb3Service.class,
+                WrapperTransactionWeb3Service.class,
+                WrapperBlockWeb3Service.class,
+                BlockJsonDecoder.class
+        );
+        context.refresh();
+        streamService = new JsonRpcStreamService(node.url("/").toString(), new OkHttpClient());
+    }
+
+    @After
+    public void close() throws Exception {
+        context.close();
+        node.shutdown();
+    }
+
+    @Test
+    public void sameAsWeb3jTest() throws Exception {
+        node.enqueue(new MockResponse().setBody("{\"jsonrpc\":\"2.0\",\"id\":1,\"result\":" + BLOCK + "}"));
+
+        WrapperBlock streamed = streamService.send(
+                "eth_getBlockByNumber",
+                Arrays.asList("0x5bad55", true),
+                context.getBean(BlockJsonDecoder.class)::decode
+        );
+        WrapperBlock expected = context.getBean(WrapperBlockWeb3Service.class)
+                .build(ObjectMapperFactory.getObjectMapper().readValue(BLOCK, EthBlock.Block.class));
+
+        Assert.assertEquals(expected.getHash(), streamed.getHash());
+        Assert.assertEquals(expected.getNumber(), streamed.getNumber());
+        Assert.assertEquals(expected.getTimestamp(), streamed.getTimestamp());
+        Assert.assertEquals(expected.getParentHash(), streamed.getParentHash());
+        Assert.assertEquals(expected.getTransactions().size(), streamed.getTransactions().size());
+        for (int i = 0; i < expected.getTransactions().size(); i++) {
+            WrapperTransaction expectedTx = expected.getTransactions().get(i);
+            WrapperTransaction streamedTx = streamed.getTransactions().get(i);
+            Assert.assertEquals(expectedTx.getHash(), streamedTx.getHash());
+            Assert.assertEquals(expectedTx.getInputs(), streamedTx.getInputs());
+            Assert.assertEquals(expectedTx.isContractCreation(), streamedTx.isContractCreation());
+            Assert.assertEquals(expectedTx.getCreates(), streamedTx.getCreates());
+            WrapperOutput expectedOutput = expectedTx.getOutputs().get(0);
+            WrapperOutput streamedOutput = streamedTx.getOutputs().get(0);
+            Assert.assertEquals(expectedOutput.getAddress(), streamedOutput.getAddress());
+            Assert.assertEquals(expectedOutput.getValue(), streamedOutput.getValue());
+            Assert.assertArrayEquals(expectedOutput.getRawOutputScript(), streamedOutput.getRawOutputScript());
+        }
+    }
+
+    @Test
+    public void nullBlockTest() throws Exception {
+        node.enqueue(new MockResponse().setBody("{\"jsonrpc\":\"2.0\",\"id\":1,\"result\":null}"));
+
+        Assert.assertNull(streamService.send(
+                "eth_getBlockByNumber",
+                Arrays.asList("0xffffff", true),
+                context.getBean(BlockJsonDecoder.class)::decode
+        ));
+    }
+
+    @Test(expected = IOException.class)
+    public void errorTest() throws Exception {
+        node.enqueue(new MockResponse().setBody("{\"jsonrpc\":\"2.0\",\"id\":1,\"error\":{\"code\":-32000,\"message\":\"header not found\"}}"));
+
+        streamService.send(
+                "eth_getBlockByNumber",
+                Arrays.asList("0xffffff", true),
+                context.getBean(BlockJsonDecoder.class)::decode
+        );
+    }
+}
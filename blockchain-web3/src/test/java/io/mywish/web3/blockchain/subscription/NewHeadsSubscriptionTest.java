@@ -0,0 +1,81 @@
+package io.mywish.web3.blockchain.subscription;
+
+import okhttp3.OkHttpClient;
+import okhttp3.Response;
+import okhttp3.WebSocket;
+import okhttp3.WebSocketListener;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+public class NewHeadsSubscriptionTest {
+    private final MockWebServer node = new MockWebServer();
+    private final BlockingQueue<Long> heads = new LinkedBlockingQueue<>();
+    private NewHeadsSubscription subscription;
+
+    @After
+    public void close() throws Exception {
+        if (subscription != null) {
+            subscription.close();
+        }
+        node.shutdown();
+    }
+
+    @Test
+    public void newHeadTest() throws Exception {
+        node.enqueue(subscribingNode(0x10));
+        open();
+
+        Assert.assertEquals("head number", Long.valueOf(0x10), heads.poll(5, TimeUnit.SECONDS));
+        Assert.assertTrue("subscribed", subscription.isSubscribed());
+    }
+
+    @Test
+    public void reconnectTest() throws Exception {
+        node.enqueue(new MockResponse().withWebSocketUpgrade(new WebSocketListener() {
+            @Override
+            public void onOpen(WebSocket webSocket, Response response) {
+                webSocket.close(1001, "restart");
+            }
+        }));
+        node.enqueue(subscribingNode(0x11));
+        open();
+
+        Assert.assertEquals("head number after reconnect", Long.valueOf(0x11), heads.poll(5, TimeUnit.SECONDS));
+        Assert.assertEquals("connections", 2, node.getRequestCount());
+    }
+
+    private void open() {
+        subscription = new NewHeadsSubscription(
+                "test",
+                new OkHttpClient(),
+                "ws://" + node.getHostName() + ":" + node.getPort(),
+                100,
+                heads::add
+        );
+        subscription.open();
+    }
+
+    private static MockResponse subscribingNode(long head) {
+        return new MockResponse().withWebSocketUpgrade(new WebSocketListener() {
+            @Override
+            public void onMessage(WebSocket webSocket, String text) {
+                webSocket.send("{\"jsonrpc\":\"2.0\",\"id\":1,\"result\":\"0x9cef478923ff08bf67fde6c64013158d\"}");
+                webSocket.send("{\"jsonrpc\":\"2.0\",\"method\":\"eth_subscription\",\"params\":{"
+                        + "\"subscription\":\"0x9cef478923ff08bf67fde6c64013158d\","
+                        + "\"result\":{\"number\":\"0x" + Long.toHexString(head) + "\",\"hash\":\"0x1\",\"parentHash\":\"0x0\"}}}");
+            }
+
+            @Override
+            public void onClosing(WebSocket webSocket, int code, String reason) {
+                webSocket.close(code, null);
+            }
+        });
+    }
+}
@@ -0,0 +1,158 @@
+package io.mywish.blockchain;
+
+import java.util.Arrays;
+
+/**
+ * Canonical address value. Hex addresses ("0x...") are kept as bytes, so any case of the same address is equal,
+ * and are printed in lower case. Other formats (base58, EOS accounts) are case sensitive and kept as is.
+ */
+public final class Address {
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private final byte[] bytes;
+    private final int hash;
+    private String value;
+
+    private Address(byte[] bytes, String value) {
+        this.bytes = bytes;
+        this.value = value;
+        this.hash = bytes != null ? Arrays.hashCode(bytes) : value.hashCode();
+    }
+
+    /**
+     * @return canonical address or null if the address is null.
+     */
+    public static Address of(String address) {
+        if (address == null) {
+            return null;
+        }
+        byte[] bytes = parseHex(address);
+        if (bytes == null) {
+            return new Address(null, address);
+        }
+        // nodes usually return lower case, then the source string is already canonical
+        return new Address(bytes, isLowerCase(address) ? address : null);
+    }
+
+    public static Address of(byte[] bytes) {
+        return new Address(bytes.clone(), null);
+    }
+
+    public boolean isHex() {
+        return bytes != null;
+    }
+
+    /**
+     * @return copy of the address bytes, or null if the address is not hex.
+     */
+    public byte[] toBytes() {
+        return bytes == null ? null : bytes.clone();
+    }
+
+    /**
+     * Compares with the address in the specified string without creating the canonical value.
+     */
+    public boolean matches(String address) {
+        if (address == null) {
+            return false;
+        }
+        if (bytes == null) {
+            return value.equals(address);
+        }
+        if (address.length() != 2 + bytes.length * 2 || !hasHexPrefix(address)) {
+            return false;
+        }
+        for (int i = 0; i < bytes.length; i++) {
+            int hi = digit(address.charAt(2 + i * 2));
+            int lo = digit(address.charAt(3 + i * 2));
+            if (hi < 0 || lo < 0 || (byte) (hi << 4 | lo) != bytes[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Address)) {
+            return false;
+        }
+        Address other = (Address) o;
+        if (hash != other.hash) {
+            return false;
+        }
+        return bytes != null
+                ? Arrays.equals(bytes, other.bytes)
+                : other.bytes == null && value.equals(other.value);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        // racy single-check is fine: the value is always the same
+        String result = value;
+        if (result == null) {
+            char[] chars = new char[2 + bytes.length * 2];
+            chars[0] = '0';
+            chars[1] = 'x';
+            for (int i = 0; i < bytes.length; i++) {
+                chars[2 + i * 2] = HEX[(bytes[i] >> 4) & 0xf];
+                chars[3 + i * 2] = HEX[bytes[i] & 0xf];
+            }
+            result = new String(chars);
+            value = result;
+        }
+        return result;
+    }
+
+    private static boolean hasHexPrefix(String address) {
+        return address.charAt(0) == '0' && (address.charAt(1) == 'x' || address.charAt(1) == 'X');
+    }
+
+    private static byte[] parseHex(String address) {
+        int length = address.length();
+        if (length <= 2 || length % 2 != 0 || !hasHexPrefix(address)) {
+            return null;
+        }
+        byte[] bytes = new byte[(length - 2) / 2];
+        for (int i = 0; i < bytes.length; i++) {
+            int hi = digit(address.charAt(2 + i * 2));
+            int lo = digit(address.charAt(3 + i * 2));
+            if (hi < 0 || lo < 0) {
+                return null;
+            }
+            bytes[i] = (byte) (hi << 4 | lo);
+        }
+        return bytes;
+    }
+
+    private static boolean isLowerCase(String address) {
+        for (int i = 1; i < address.length(); i++) {
+            char c = address.charAt(i);
+            if (c >= 'A' && c <= 'F' || c == 'X') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int digit(char c) {
+        if (c >= '0' && c <= '9') {
+            return c - '0';
+        }
+        if (c >= 'a' && c <= 'f') {
+            return c - 'a' + 10;
+        }
+        if (c >= 'A' && c <= 'F') {
+            return c - 'A' + 10;
+        }
+        return -1;
+    }
+}
@@ -11,11 +11,20 @@ public class WrapperBlock {
     private final Long number;
     private final Instant timestamp;
     private final List<WrapperTransaction> transactions;
+    /**
+     * Null if the network does not provide it.
+     */
+    private final String parentHash;
 
     public WrapperBlock(String hash, Long number, Instant timestamp, List<WrapperTransaction> transactions) {
+        this(hash, number, timestamp, transactions, null);
+    }
+
+    public WrapperBlock(String hash, Long number, Instant timestamp, List<WrapperTransaction> transactions, String parentHash) {
         this.hash = hash;
         this.number = number;
         this.timestamp = timestamp;
         this.transactions = transactions;
+        this.parentHash = parentHash;
     }
 }
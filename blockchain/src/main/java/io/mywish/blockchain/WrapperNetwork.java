@@ -1,14 +1,49 @@
 package io.mywish.blockchain;
 
 import io.lastwill.eventscan.model.NetworkType;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 
+import javax.annotation.PreDestroy;
 import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
 
+@Slf4j
 public abstract class WrapperNetwork {
     private final NetworkType type;
 
+    /**
+     * Async calls of each network are executed on its own bounded pool, so a slow node does not affect others.
+     * When the queue is full the task is executed by the calling thread.
+     */
+    @Value("${etherscanner.network.async-threads:4}")
+    private int asyncThreads = 4;
+    @Value("${etherscanner.network.async-queue-size:1000}")
+    private int asyncQueueSize = 1000;
+    private volatile ThreadPoolExecutor asyncExecutor;
+    private final AtomicLong asyncRejectedCount = new AtomicLong();
+
+    /**
+     * Pending transactions without any output address accepted by the filter are dropped at ingress.
+     */
+    private volatile Predicate<String> pendingOutputFilter = address -> true;
+    private final AtomicLong filteredPendingCount = new AtomicLong();
+
+    @Autowired(required = false)
+    private MeterRegistry meterRegistry;
+
     public WrapperNetwork(NetworkType type) {
         this.type = type;
     }
@@ -23,6 +58,18 @@ public abstract class WrapperNetwork {
     abstract public WrapperBlock getBlock(Long number) throws Exception;
     abstract public WrapperTransactionReceipt getTxReceipt(WrapperTransaction transaction) throws Exception;
 
+    /**
+     * Returns receipts in the same order as transactions. Networks which can get several receipts by one request
+     * should override it.
+     */
+    public List<WrapperTransactionReceipt> getTxReceipts(List<WrapperTransaction> transactions) throws Exception {
+        List<WrapperTransactionReceipt> result = new ArrayList<>(transactions.size());
+        for (WrapperTransaction transaction : transactions) {
+            result.add(getTxReceipt(transaction));
+        }
+        return result;
+    }
+
     public CompletableFuture<BigInteger> getBalanceAsync(String address, Long blockNo) {
         return CompletableFuture.supplyAsync(() -> {
             try {
@@ -30,7 +77,7 @@ public abstract class WrapperNetwork {
             } catch (Exception e) {
                 throw new RuntimeException(e);
             }
-        });
+        }, getAsyncExecutor());
     }
 
     public CompletableFuture<WrapperTransactionReceipt> getTxReceiptAsync(WrapperTransaction transaction) {
@@ -40,10 +87,127 @@ public abstract class WrapperNetwork {
             } catch (Exception e) {
                 throw new RuntimeException(e);
             }
-        });
+        }, getAsyncExecutor());
+    }
+
+    protected ThreadPoolExecutor getAsyncExecutor() {
+        if (asyncExecutor == null) {
+            synchronized (this) {
+                if (asyncExecutor == null) {
+                    final AtomicInteger threadCounter = new AtomicInteger(0);
+                    asyncExecutor = new ThreadPoolExecutor(
+                            asyncThreads,
+                            asyncThreads,
+                            0L,
+                            TimeUnit.MILLISECONDS,
+                            new ArrayBlockingQueue<>(asyncQueueSize),
+                            runnable -> {
+                                Thread thread = new Thread(runnable, type + "-async-" + threadCounter.incrementAndGet());
+                                thread.setDaemon(true);
+                                return thread;
+                            },
+                            (runnable, executor) -> {
+                                asyncRejectedCount.incrementAndGet();
+                                if (executor.isShutdown()) {
+                                    throw new IllegalStateException(type + " network is closed.");
+                                }
+                                log.warn("{}: async queue is full ({} tasks), execute in caller thread.", type, asyncQueueSize);
+                                runnable.run();
+                            }
+                    );
+                }
+            }
+        }
+        return asyncExecutor;
+    }
+
+    public int getAsyncQueueSize() {
+        return asyncExecutor == null ? 0 : asyncExecutor.getQueue().size();
+    }
+
+    public int getAsyncActiveCount() {
+        return asyncExecutor == null ? 0 : asyncExecutor.getActiveCount();
+    }
+
+    public long getAsyncRejectedCount() {
+        return asyncRejectedCount.get();
+    }
+
+    @PreDestroy
+    protected void shutdownAsyncExecutor() {
+        if (asyncExecutor != null) {
+            asyncExecutor.shutdown();
+        }
+    }
+
+    /**
+     * Sends the node request and records its latency to network.rpc timer by method and outcome.
+     */
+    protected <T> T rpc(String method, RpcCall<T> call) throws Exception {
+        if (meterRegistry == null) {
+            return call.call();
+        }
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "error";
+        try {
+            T result = call.call();
+            outcome = isErrorResult(result) ? "error" : "success";
+            return result;
+        }
+        finally {
+            sample.stop(meterRegistry.timer("network.rpc",
+                    "network", type.name(),
+                    "method", method,
+                    "outcome", outcome));
+        }
+    }
+
+    /**
+     * @return true if the client returned the node error as the result instead of throwing it.
+     */
+    protected boolean isErrorResult(Object result) {
+        return false;
+    }
+
+    @FunctionalInterface
+    protected interface RpcCall<T> {
+        T call() throws Exception;
     }
 
     public abstract boolean isPendingTransactionsSupported();
     public abstract List<WrapperTransaction> fetchPendingTransactions() throws Exception;
+
+    /**
+     * @return hashes of transactions which left the pending list since the previous call, if the network tracks it.
+     */
+    public List<String> fetchDroppedPendingTransactions() {
+        return Collections.emptyList();
+    }
+
+    /**
+     * The pending output filter accepts more addresses now. Networks which fetch every pending transaction only once
+     * check again the ones rejected since the specified time.
+     */
+    public void recheckPendingTransactions(long since) {
+    }
+
+    /**
+     * @return how many pending transactions were rejected by the pending output filter since the previous call.
+     */
+    public long fetchFilteredPendingCount() {
+        return filteredPendingCount.getAndSet(0);
+    }
+
+    protected void countFilteredPending() {
+        filteredPendingCount.incrementAndGet();
+    }
+
+    public Predicate<String> getPendingOutputFilter() {
+        return pendingOutputFilter;
+    }
+
+    public void setPendingOutputFilter(Predicate<String> pendingOutputFilter) {
+        this.pendingOutputFilter = pendingOutputFilter;
+    }
 //    public abstract boolean getExternalId(String address);
 }
@@ -1,22 +1,78 @@
 package io.mywish.blockchain;
 
+import lombok.AccessLevel;
 import lombok.Getter;
 
+import javax.xml.bind.DatatypeConverter;
 import java.math.BigInteger;
 
 @Getter
 public class WrapperOutput {
+    /**
+     * Shared script of outputs without script, must not be modified.
+     */
+    public static final byte[] EMPTY_SCRIPT = new byte[0];
+
     private final String parentTransaction;
-    private final String address;
+    private final Address canonicalAddress;
     private final Integer index;
     private final BigInteger value;
-    private final byte[] rawOutputScript;
+    private byte[] rawOutputScript;
+    /**
+     * Hex script as it was received, it is decoded to rawOutputScript on the first access.
+     */
+    @Getter(AccessLevel.NONE)
+    private String rawOutputScriptHex;
 
     public WrapperOutput(String parentTransaction, Integer index, String address, BigInteger value, byte[] rawOutputScript) {
         this.parentTransaction = parentTransaction;
         this.index = index;
-        this.address = address;
+        this.canonicalAddress = Address.of(address);
         this.value = value;
         this.rawOutputScript = rawOutputScript;
     }
+
+    /**
+     * @param rawOutputScriptHex hex (0x-prefixed or not) script, decoded only if somebody asks for it.
+     */
+    public WrapperOutput(String parentTransaction, Integer index, String address, BigInteger value, String rawOutputScriptHex) {
+        this(parentTransaction, index, address, value, (byte[]) null);
+        this.rawOutputScriptHex = rawOutputScriptHex;
+    }
+
+    /**
+     * @return address in canonical form, hex addresses are in lower case.
+     */
+    public String getAddress() {
+        return canonicalAddress == null ? null : canonicalAddress.toString();
+    }
+
+    public synchronized byte[] getRawOutputScript() {
+        if (rawOutputScriptHex != null) {
+            String hex = rawOutputScriptHex.startsWith("0x") ? rawOutputScriptHex.substring(2) : rawOutputScriptHex;
+            rawOutputScript = hex.isEmpty() ? EMPTY_SCRIPT : DatatypeConverter.parseHexBinary(hex);
+            rawOutputScriptHex = null;
+        }
+        return rawOutputScript;
+    }
+
+    /**
+     * @return script length in bytes, does not decode the script.
+     */
+    public synchronized int getRawOutputScriptLength() {
+        if (rawOutputScriptHex != null) {
+            return (rawOutputScriptHex.startsWith("0x") ? rawOutputScriptHex.length() - 2 : rawOutputScriptHex.length()) / 2;
+        }
+        return rawOutputScript == null ? 0 : rawOutputScript.length;
+    }
+
+    /**
+     * @return approximate heap bytes taken by the script: the hex string until it is decoded, then the byte array.
+     */
+    public synchronized int getRetainedScriptSize() {
+        if (rawOutputScriptHex != null) {
+            return 40 + 2 * rawOutputScriptHex.length();
+        }
+        return rawOutputScript == null || rawOutputScript == EMPTY_SCRIPT ? 0 : 16 + rawOutputScript.length;
+    }
 }
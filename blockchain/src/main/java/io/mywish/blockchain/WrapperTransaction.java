@@ -1,18 +1,20 @@
 package io.mywish.blockchain;
 
 import lombok.Getter;
-import lombok.Setter;
 
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 @Getter
 public class WrapperTransaction {
     private final String hash;
+    private final List<Address> inputAddresses;
     private final List<String> inputs;
     private final List<WrapperOutput> outputs;
     private final boolean contractCreation;
-    @Setter
-    private String creates = null;
+    private Address createdAddress = null;
 
     public WrapperTransaction(
             final String txHash,
@@ -20,11 +22,20 @@ public class WrapperTransaction {
             final List<WrapperOutput> outputs,
             boolean contractCreation) {
         this.hash = txHash;
-        this.inputs = inputs;
+        this.inputAddresses = toAddresses(inputs);
+        this.inputs = inputAddresses == null ? null : new AddressStrings(inputAddresses);
         this.outputs = outputs;
         this.contractCreation = contractCreation;
     }
 
+    public String getCreates() {
+        return createdAddress == null ? null : createdAddress.toString();
+    }
+
+    public void setCreates(String creates) {
+        this.createdAddress = Address.of(creates);
+    }
+
     public boolean isSingleOutput() {
         return outputs.size() == 1;
     }
@@ -40,4 +51,40 @@ public class WrapperTransaction {
     public String getSingleInputAddress() {
         return inputs.get(0);
     }
+
+    private static List<Address> toAddresses(List<String> inputs) {
+        if (inputs == null) {
+            return null;
+        }
+        if (inputs.size() == 1) {
+            return Collections.singletonList(Address.of(inputs.get(0)));
+        }
+        List<Address> result = new ArrayList<>(inputs.size());
+        for (String input : inputs) {
+            result.add(Address.of(input));
+        }
+        return Collections.unmodifiableList(result);
+    }
+
+    /**
+     * Inputs as canonical strings, backed by the parsed addresses.
+     */
+    private static class AddressStrings extends AbstractList<String> {
+        private final List<Address> addresses;
+
+        AddressStrings(List<Address> addresses) {
+            this.addresses = addresses;
+        }
+
+        @Override
+        public String get(int index) {
+            Address address = addresses.get(index);
+            return address == null ? null : address.toString();
+        }
+
+        @Override
+        public int size() {
+            return addresses.size();
+        }
+    }
 }
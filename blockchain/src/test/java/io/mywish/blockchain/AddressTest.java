@@ -0,0 +1,42 @@
+package io.mywish.blockchain;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class AddressTest {
+    private static final String LOWER = "0x52908400098527886e0f7030069857d2e4169ee7";
+    private static final String CHECKSUM = "0x52908400098527886E0F7030069857D2E4169EE7";
+
+    @Test
+    public void hexTest() {
+        Address lower = Address.of(LOWER);
+        Address checksum = Address.of(CHECKSUM);
+        Assert.assertTrue(lower.isHex());
+        Assert.assertEquals(lower, checksum);
+        Assert.assertEquals(lower.hashCode(), checksum.hashCode());
+        Assert.assertEquals(LOWER, checksum.toString());
+        Assert.assertSame("Lower case source is kept.", LOWER, lower.toString());
+        Assert.assertEquals(lower, Address.of(lower.toBytes()));
+    }
+
+    @Test
+    public void matchesTest() {
+        Address address = Address.of(LOWER);
+        Assert.assertTrue(address.matches(CHECKSUM));
+        Assert.assertTrue(address.matches(LOWER));
+        Assert.assertFalse(address.matches(LOWER.substring(0, 40)));
+        Assert.assertFalse(address.matches("0x52908400098527886e0f7030069857d2e4169ee8"));
+        Assert.assertFalse(address.matches(null));
+    }
+
+    @Test
+    public void caseSensitiveTest() {
+        Address base58 = Address.of("1BoatSLRHtKNngkdXEeobR76b53LETtpyT");
+        Assert.assertFalse(base58.isHex());
+        Assert.assertNotEquals(base58, Address.of("1boatslrhtknngkdxeeobr76b53lettpyt"));
+        Assert.assertEquals("1BoatSLRHtKNngkdXEeobR76b53LETtpyT", base58.toString());
+        Assert.assertFalse("Odd length is not hex.", Address.of("0xabc").isHex());
+        Assert.assertNotEquals(Address.of("0xab"), Address.of("ab"));
+        Assert.assertNull(Address.of((String) null));
+    }
+}
@@ -0,0 +1,28 @@
+package io.mywish.blockchain;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.math.BigInteger;
+
+public class WrapperOutputTest {
+    private static final String SCRIPT = "0x76a914000000000000000000000000000000000000000188ac";
+
+    @Test
+    public void lazyScriptTest() {
+        WrapperOutput output = new WrapperOutput("0x1", 0, null, BigInteger.ONE, SCRIPT);
+        Assert.assertEquals(25, output.getRawOutputScriptLength());
+        Assert.assertEquals("Hex string is kept until decoded.", 40 + 2 * SCRIPT.length(), output.getRetainedScriptSize());
+
+        Assert.assertEquals(25, output.getRawOutputScript().length);
+        Assert.assertEquals(25, output.getRawOutputScriptLength());
+        Assert.assertEquals(16 + 25, output.getRetainedScriptSize());
+    }
+
+    @Test
+    public void emptyScriptTest() {
+        WrapperOutput output = new WrapperOutput("0x1", 0, null, BigInteger.ONE, "0x");
+        Assert.assertSame(WrapperOutput.EMPTY_SCRIPT, output.getRawOutputScript());
+        Assert.assertEquals("Shared empty script is not counted.", 0, output.getRetainedScriptSize());
+    }
+}
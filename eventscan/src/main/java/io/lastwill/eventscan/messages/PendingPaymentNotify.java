@@ -0,0 +1,21 @@
+package io.lastwill.eventscan.messages;
+
+import io.lastwill.eventscan.model.CryptoCurrency;
+import lombok.ToString;
+
+import java.math.BigInteger;
+
+/**
+ * Payment which is not confirmed yet, PENDING or REJECTED. The balance is credited only by {@link PaymentNotify}.
+ */
+@ToString(callSuper = true)
+public class PendingPaymentNotify extends PaymentNotify {
+    public PendingPaymentNotify(int userId, BigInteger amount, PaymentStatus status, String txHash, CryptoCurrency currency, boolean isSuccess, Integer siteId) {
+        super(userId, amount, status, txHash, currency, isSuccess, siteId);
+    }
+
+    @Override
+    public String getType() {
+        return "pendingPayment";
+    }
+}
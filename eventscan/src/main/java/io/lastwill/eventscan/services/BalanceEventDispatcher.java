@@ -1,7 +1,9 @@
 package io.lastwill.eventscan.services;
 
+import io.lastwill.eventscan.events.model.UnconfirmedUserPaymentEvent;
 import io.lastwill.eventscan.events.model.UserPaymentEvent;
 import io.lastwill.eventscan.messages.PaymentNotify;
+import io.lastwill.eventscan.messages.PendingPaymentNotify;
 import io.lastwill.eventscan.messages.PaymentStatus;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -35,4 +37,24 @@ public class BalanceEventDispatcher {
             log.error("Sending notification about new balance failed.", e);
         }
     }
+
+    @EventListener
+    private void unconfirmedPaymentHandler(final UnconfirmedUserPaymentEvent event) {
+        try {
+            externalNotifier.send(
+                    event.getNetworkType(),
+                    new PendingPaymentNotify(
+                            event.getUserSiteBalance().getUser().getId(),
+                            event.getAmount(),
+                            event.isRejected() ? PaymentStatus.REJECTED : PaymentStatus.PENDING,
+                            event.getTransaction().getHash(),
+                            event.getCurrency(),
+                            event.isSuccess(),
+                            event.getUserSiteBalance().getSite().getId())
+            );
+        }
+        catch (Throwable e) {
+            log.error("Sending notification about unconfirmed payment failed.", e);
+        }
+    }
 }
@@ -0,0 +1,153 @@
+package io.lastwill.eventscan.services;
+
+import io.lastwill.eventscan.model.Contract;
+import io.lastwill.eventscan.model.NetworkType;
+import io.lastwill.eventscan.model.UserSiteBalance;
+import io.lastwill.eventscan.repositories.ContractRepository;
+import io.lastwill.eventscan.repositories.UserSiteBalanceRepository;
+import io.mywish.blockchain.Address;
+import io.mywish.blockchain.WrapperTransaction;
+import io.mywish.scanner.model.NewBlockEvent;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Resolves DB entities of a block once for all monitors and keeps them in the {@link NewBlockEvent} context.
+ * Contracts matched by address and by deploy transaction hash are selected with one query.
+ */
+@Component
+public class BlockContextResolver {
+    private static final String DEPLOY_TRANSACTIONS = "deployTransactions";
+    private static final String CONTRACTS = "contracts";
+    private static final String USER_SITE_BALANCES = "userSiteBalances";
+
+    @Autowired
+    private ContractRepository contractRepository;
+
+    @Autowired
+    private UserSiteBalanceRepository userSiteBalanceRepository;
+
+    @Autowired
+    private WatchedAddressIndex watchedAddressIndex;
+
+    /**
+     * @return contract creation transactions of the block by lower-cased hash.
+     */
+    public Map<String, WrapperTransaction> getDeployTransactions(NewBlockEvent event) {
+        return event.getContextValue(DEPLOY_TRANSACTIONS, () -> event.getTransactionsByAddress()
+                .values()
+                .stream()
+                .flatMap(Collection::stream)
+                .filter(WrapperTransaction::isContractCreation)
+                .collect(Collectors.toMap(
+                        tr -> tr.getHash().toLowerCase(),
+                        Function.identity(),
+                        (hash1, hash2) -> hash1
+                )));
+    }
+
+    /**
+     * @return contracts which addresses are in the block, as they were in DB when the block was handled.
+     */
+    public List<Contract> getAddressContracts(NewBlockEvent event) {
+        return getContracts(event).addressContracts;
+    }
+
+    /**
+     * @return contracts deployed by transactions of the block.
+     */
+    public List<Contract> getDeployedContracts(NewBlockEvent event) {
+        return getContracts(event).deployedContracts;
+    }
+
+    /**
+     * @return user balances which addresses are in the block, only for networks where payments are accepted.
+     */
+    public List<UserSiteBalance> getUserSiteBalances(NewBlockEvent event) {
+        return event.getContextValue(
+                USER_SITE_BALANCES,
+                () -> getUserSiteBalances(event.getNetworkType(), event.getAddresses())
+        );
+    }
+
+    /**
+     * @param addresses canonical address strings, as {@link NewBlockEvent#getAddresses()} returns.
+     * @return user balances with the addresses, only for networks where payments are accepted.
+     */
+    public List<UserSiteBalance> getUserSiteBalances(NetworkType networkType, Set<String> addresses) {
+        switch (networkType) {
+            case ETHEREUM_MAINNET:
+                addresses = watchedAddressIndex.filterEthBalanceAddresses(addresses);
+                return addresses.isEmpty()
+                        ? Collections.emptyList()
+                        : userSiteBalanceRepository.findByEthAddressesList(addresses);
+            case TRON_MAINNET:
+                addresses = watchedAddressIndex.filterTronBalanceAddresses(addresses);
+                return addresses.isEmpty()
+                        ? Collections.emptyList()
+                        : userSiteBalanceRepository.findByTronAddressesList(addresses);
+            case BTC_MAINNET:
+            case BTC_TESTNET_3:
+                addresses = watchedAddressIndex.filterBtcBalanceAddresses(addresses);
+                return addresses.isEmpty()
+                        ? Collections.emptyList()
+                        : userSiteBalanceRepository.findByBtcAddressesList(addresses);
+            default:
+                return Collections.emptyList();
+        }
+    }
+
+    private Set<String> getContractAddresses(NewBlockEvent event) {
+        return watchedAddressIndex.filterContractAddresses(
+                event.getNetworkType(),
+                event.getAddresses()
+        );
+    }
+
+    private BlockContracts getContracts(NewBlockEvent event) {
+        return event.getContextValue(CONTRACTS, () -> {
+            NetworkType networkType = event.getNetworkType();
+            Set<String> addresses = getContractAddresses(event);
+            Set<String> hashes = getDeployTransactions(event).keySet();
+            List<Contract> contracts;
+            if (addresses.isEmpty() && hashes.isEmpty()) {
+                contracts = Collections.emptyList();
+            }
+            else if (hashes.isEmpty()) {
+                contracts = contractRepository.findByAddressesList(addresses, networkType);
+            }
+            else if (addresses.isEmpty()) {
+                contracts = contractRepository.findByTxHashes(hashes, networkType);
+            }
+            else {
+                contracts = contractRepository.findByAddressesOrTxHashes(addresses, hashes, networkType);
+            }
+            // split right away, monitors may change contract addresses later
+            return new BlockContracts(
+                    contracts.stream()
+                            .filter(contract -> contract.getAddress() != null)
+                            .filter(contract -> addresses.contains(Address.of(contract.getAddress()).toString()))
+                            .collect(Collectors.toList()),
+                    contracts.stream()
+                            .filter(contract -> contract.getTxHash() != null)
+                            .filter(contract -> hashes.contains(contract.getTxHash().toLowerCase()))
+                            .collect(Collectors.toList())
+            );
+        });
+    }
+
+    @RequiredArgsConstructor
+    private static class BlockContracts {
+        private final List<Contract> addressContracts;
+        private final List<Contract> deployedContracts;
+    }
+}
@@ -0,0 +1,76 @@
+package io.lastwill.eventscan.services;
+
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.Clock;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+import io.micrometer.jmx.JmxConfig;
+import io.micrometer.jmx.JmxMeterRegistry;
+import io.micrometer.prometheus.PrometheusConfig;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Exports the application metrics over JMX and as Prometheus text on http://host:port/metrics.
+ */
+@Slf4j
+@Component
+public class MetricsExporter {
+    @Autowired
+    private CompositeMeterRegistry meterRegistry;
+
+    @Value("${io.lastwill.eventscan.metrics.jmx.enabled:true}")
+    private boolean jmxEnabled;
+
+    /**
+     * 0 means Prometheus endpoint is disabled.
+     */
+    @Value("${io.lastwill.eventscan.metrics.prometheus.port:0}")
+    private int prometheusPort;
+
+    private JmxMeterRegistry jmxRegistry;
+    private HttpServer prometheusServer;
+
+    @PostConstruct
+    protected void init() throws IOException {
+        if (jmxEnabled) {
+            jmxRegistry = new JmxMeterRegistry(JmxConfig.DEFAULT, Clock.SYSTEM);
+            meterRegistry.add(jmxRegistry);
+            log.info("Metrics are exported over JMX.");
+        }
+        if (prometheusPort > 0) {
+            PrometheusMeterRegistry prometheusRegistry = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+            meterRegistry.add(prometheusRegistry);
+            prometheusServer = HttpServer.create(new InetSocketAddress(prometheusPort), 0);
+            prometheusServer.createContext("/metrics", exchange -> {
+                byte[] response = prometheusRegistry.scrape().getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().add("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+                exchange.sendResponseHeaders(200, response.length);
+                try (OutputStream body = exchange.getResponseBody()) {
+                    body.write(response);
+                }
+            });
+            prometheusServer.start();
+            log.info("Metrics are exported for Prometheus on port {}.", prometheusPort);
+        }
+    }
+
+    @PreDestroy
+    protected void close() {
+        if (prometheusServer != null) {
+            prometheusServer.stop(0);
+        }
+        if (jmxRegistry != null) {
+            jmxRegistry.close();
+        }
+    }
+}
@@ -1,24 +1,67 @@
 package io.lastwill.eventscan.services;
 
+import io.mywish.blockchain.WrapperBlock;
 import io.mywish.blockchain.WrapperTransaction;
 import io.mywish.blockchain.WrapperTransactionReceipt;
 import io.lastwill.eventscan.model.NetworkType;
+import io.mywish.scanner.model.BlockRollbackEvent;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Component;
 
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
+/**
+ * Receipts are cached per network by transaction hash, so all monitors handling the same block share one request.
+ * Concurrent requests for the same transaction wait for the same future. Failed requests are not cached.
+ */
+@Slf4j
 @Component
 public class TransactionProvider {
     @Autowired
     private NetworkProvider networkProvider;
 
+    @Value("${io.lastwill.eventscan.receipt-cache.size:10000}")
+    private int cacheSize;
+
+    private final Map<NetworkType, Map<String, CompletableFuture<WrapperTransactionReceipt>>> receiptsByNetwork = new ConcurrentHashMap<>();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
     public WrapperTransactionReceipt getTransactionReceipt(final NetworkType networkType, final WrapperTransaction transaction) throws Exception {
-        return networkProvider.get(networkType).getTxReceipt(transaction);
+        final CompletableFuture<WrapperTransactionReceipt> newFuture = new CompletableFuture<>();
+        final CompletableFuture<WrapperTransactionReceipt> future = getOrRegister(networkType, transaction.getHash(), newFuture);
+        if (future != newFuture) {
+            try {
+                return future.get();
+            }
+            catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                throw cause instanceof Exception ? (Exception) cause : e;
+            }
+        }
+
+        try {
+            WrapperTransactionReceipt receipt = networkProvider.get(networkType).getTxReceipt(transaction);
+            newFuture.complete(receipt);
+            return receipt;
+        }
+        catch (Exception e) {
+            evict(networkType, transaction.getHash(), newFuture);
+            newFuture.completeExceptionally(e);
+            throw e;
+        }
     }
 
     private static <T> CompletableFuture<List<T>> sequence(List<CompletableFuture<T>> futures) {
@@ -33,7 +76,86 @@ public class TransactionProvider {
     }
 
     public CompletionStage<WrapperTransactionReceipt> getTransactionReceiptAsync(NetworkType networkType, WrapperTransaction transaction) {
-        return networkProvider.get(networkType).getTxReceiptAsync(transaction);
+        final CompletableFuture<WrapperTransactionReceipt> newFuture = new CompletableFuture<>();
+        final CompletableFuture<WrapperTransactionReceipt> future = getOrRegister(networkType, transaction.getHash(), newFuture);
+        if (future != newFuture) {
+            return future;
+        }
+
+        networkProvider.get(networkType)
+                .getTxReceiptAsync(transaction)
+                .whenComplete((receipt, throwable) -> {
+                    if (throwable != null) {
+                        evict(networkType, transaction.getHash(), newFuture);
+                        newFuture.completeExceptionally(throwable);
+                    }
+                    else {
+                        newFuture.complete(receipt);
+                    }
+                });
+        return newFuture;
+    }
+
+    /**
+     * Drops cached receipts of all transactions from the block, must be called when the block left the chain.
+     */
+    public void evictBlock(NetworkType networkType, WrapperBlock block) {
+        Map<String, CompletableFuture<WrapperTransactionReceipt>> receipts = receiptsByNetwork.get(networkType);
+        if (receipts == null || block.getTransactions() == null) {
+            return;
+        }
+        synchronized (receipts) {
+            block.getTransactions().forEach(transaction -> receipts.remove(transaction.getHash()));
+        }
+    }
+
+    @EventListener
+    private void onBlockRollback(final BlockRollbackEvent event) {
+        evictBlock(event.getNetworkType(), event.getBlock());
+    }
+
+    public long getCacheHits() {
+        return hits.get();
+    }
+
+    public long getCacheMisses() {
+        return misses.get();
+    }
+
+    /**
+     * @return the cached future or the specified one if there was not any.
+     */
+    private CompletableFuture<WrapperTransactionReceipt> getOrRegister(
+            NetworkType networkType,
+            String hash,
+            CompletableFuture<WrapperTransactionReceipt> newFuture
+    ) {
+        Map<String, CompletableFuture<WrapperTransactionReceipt>> receipts = receiptsByNetwork.computeIfAbsent(
+                networkType,
+                type -> new LinkedHashMap<String, CompletableFuture<WrapperTransactionReceipt>>(16, 0.75f, true) {
+                    @Override
+                    protected boolean removeEldestEntry(Map.Entry<String, CompletableFuture<WrapperTransactionReceipt>> eldest) {
+                        return size() > cacheSize;
+                    }
+                }
+        );
+        synchronized (receipts) {
+            CompletableFuture<WrapperTransactionReceipt> future = receipts.get(hash);
+            if (future != null) {
+                hits.incrementAndGet();
+                return future;
+            }
+            misses.incrementAndGet();
+            receipts.put(hash, newFuture);
+            return newFuture;
+        }
+    }
+
+    private void evict(NetworkType networkType, String hash, CompletableFuture<WrapperTransactionReceipt> future) {
+        Map<String, CompletableFuture<WrapperTransactionReceipt>> receipts = receiptsByNetwork.get(networkType);
+        synchronized (receipts) {
+            receipts.remove(hash, future);
+        }
     }
 //
 //    public CompletionStage<List<TransactionReceipt>> getTransactionReceiptsAsync(Collection<String> hashes) {
@@ -0,0 +1,323 @@
+package io.lastwill.eventscan.services;
+
+import io.lastwill.eventscan.events.model.ContractCreatedEvent;
+import io.lastwill.eventscan.model.NetworkProviderType;
+import io.lastwill.eventscan.model.NetworkType;
+import io.lastwill.eventscan.repositories.ContractRepository;
+import io.lastwill.eventscan.repositories.UserSiteBalanceRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory index of addresses we have in DB: contracts per network and user balances.
+ * Monitors ask the index first and query DB only for the addresses it reports, so blocks without our addresses
+ * cost no DB round trip. Until the index is loaded (or if it is disabled) every address is reported.
+ * The index is reloaded periodically; contracts deployed in between are added by {@link ContractCreatedEvent},
+ * balances created in between are picked up by id every few seconds.
+ */
+@Slf4j
+@Component
+public class WatchedAddressIndex {
+    @Autowired
+    private ContractRepository contractRepository;
+
+    @Autowired
+    private UserSiteBalanceRepository userSiteBalanceRepository;
+
+    @Autowired
+    private NetworkProvider networkProvider;
+
+    @Value("${io.lastwill.eventscan.address-index.enabled:true}")
+    private boolean enabled;
+
+    /**
+     * Keep Bloom filters instead of address sets: less memory, but false positives go to DB.
+     */
+    @Value("${io.lastwill.eventscan.address-index.bloom-filter:false}")
+    private boolean bloomFilter;
+
+    @Value("${io.lastwill.eventscan.address-index.bloom-filter-fpp:0.01}")
+    private double bloomFilterFpp;
+
+    /**
+     * Drop pending transactions not addressed to our Web3 contracts or BTC balances right in the network,
+     * before wrappers are built. Listeners of pending transactions see only these ones then, other transactions
+     * are only counted by {@link io.mywish.scanner.model.NewPendingTransactionsEvent#getFilteredCount()}.
+     * Web3 contract deployments have no recipient and are kept. The filter is installed only if the index
+     * is enabled.
+     */
+    @Value("${io.lastwill.eventscan.address-index.pending-filter:false}")
+    private boolean pendingFilter;
+
+    /**
+     * How many ids below the greatest synced one are scanned again on every sync: rows committed later
+     * with a lower id and addresses filled in by a later update are picked up while they are in the window,
+     * older ones by the next full reload.
+     */
+    @Value("${io.lastwill.eventscan.address-index.sync-id-window:1000}")
+    private int syncIdWindow;
+
+    private volatile Map<NetworkType, Predicate<String>> contractAddresses;
+    private volatile Predicate<String> ethBalanceAddresses;
+    private volatile Predicate<String> btcBalanceAddresses;
+    private volatile Predicate<String> tronBalanceAddresses;
+    private volatile Set<String> addedEthBalanceAddresses = ConcurrentHashMap.newKeySet();
+    private volatile Set<String> addedBtcBalanceAddresses = ConcurrentHashMap.newKeySet();
+    private volatile Set<String> addedTronBalanceAddresses = ConcurrentHashMap.newKeySet();
+    /**
+     * The greatest balance id already in the index.
+     */
+    private int lastBalanceId;
+    /**
+     * When the greatest balance id was read: balances added later were not visible to users before.
+     */
+    private long lastBalanceLoadTime;
+    private final Map<NetworkType, Set<String>> createdContractAddresses = new ConcurrentHashMap<>();
+
+    private final AtomicLong passedLookups = new AtomicLong();
+    private final AtomicLong skippedLookups = new AtomicLong();
+
+    @PostConstruct
+    protected void init() {
+        if (enabled) {
+            reload();
+            if (pendingFilter) {
+                networkProvider.getAvailableNetworkTypes()
+                        .stream()
+                        .filter(type -> type.getNetworkProviderType() == NetworkProviderType.WEB3)
+                        .forEach(type -> networkProvider.get(type)
+                                .setPendingOutputFilter(address -> address == null || mightBeContractAddress(type, address)));
+                networkProvider.getAvailableNetworkTypes()
+                        .stream()
+                        .filter(type -> type.getNetworkProviderType() == NetworkProviderType.BTC)
+                        .forEach(type -> networkProvider.get(type)
+                                .setPendingOutputFilter(this::mightBeBtcBalanceAddress));
+            }
+        }
+        else {
+            log.info("Watched address index is disabled.");
+        }
+    }
+
+    @Scheduled(
+            fixedDelayString = "${io.lastwill.eventscan.address-index.refresh-interval-ms:60000}",
+            initialDelayString = "${io.lastwill.eventscan.address-index.refresh-interval-ms:60000}"
+    )
+    public synchronized void reload() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            long start = System.currentTimeMillis();
+            long loadTime = System.currentTimeMillis();
+            // taken before the addresses, so balances inserted during the load are synced again
+            Integer maxBalanceId = userSiteBalanceRepository.findMaxId();
+            Map<NetworkType, Predicate<String>> contracts = new EnumMap<>(NetworkType.class);
+            int contractCount = 0;
+            for (NetworkType networkType : networkProvider.getAvailableNetworkTypes()) {
+                List<String> addresses = contractRepository.findAddressesByNetwork(networkType);
+                contracts.put(networkType, build(addresses));
+                contractCount += addresses.size();
+            }
+            List<String> ethAddresses = userSiteBalanceRepository.findAllEthAddresses();
+            List<String> btcAddresses = userSiteBalanceRepository.findAllBtcAddresses();
+            List<String> tronAddresses = userSiteBalanceRepository.findAllTronAddresses();
+
+            ethBalanceAddresses = build(ethAddresses);
+            btcBalanceAddresses = build(btcAddresses);
+            tronBalanceAddresses = build(tronAddresses);
+            addedEthBalanceAddresses = ConcurrentHashMap.newKeySet();
+            addedBtcBalanceAddresses = ConcurrentHashMap.newKeySet();
+            addedTronBalanceAddresses = ConcurrentHashMap.newKeySet();
+            lastBalanceId = maxBalanceId == null ? 0 : maxBalanceId;
+            contractAddresses = contracts;
+            recheckBtcPending(lastBalanceLoadTime);
+            lastBalanceLoadTime = loadTime;
+            log.info("Watched address index loaded in {} ms: {} contracts, {} ETH, {} BTC, {} TRON balances.",
+                    System.currentTimeMillis() - start,
+                    contractCount,
+                    ethAddresses.size(),
+                    btcAddresses.size(),
+                    tronAddresses.size());
+        }
+        catch (Exception e) {
+            log.warn("Watched address index reloading failed, previous state is used.", e);
+        }
+    }
+
+    /**
+     * Adds balances created since the previous load, so payments to new deposit addresses are not skipped
+     * until the next full reload.
+     */
+    @Scheduled(
+            fixedDelayString = "${io.lastwill.eventscan.address-index.sync-interval-ms:5000}",
+            initialDelayString = "${io.lastwill.eventscan.address-index.sync-interval-ms:5000}"
+    )
+    public synchronized void syncBalances() {
+        if (!enabled || ethBalanceAddresses == null) {
+            return;
+        }
+        try {
+            long loadTime = System.currentTimeMillis();
+            Integer maxBalanceId = userSiteBalanceRepository.findMaxId();
+            int toId = Math.max(lastBalanceId, maxBalanceId == null ? 0 : maxBalanceId);
+            int fromId = Math.max(0, lastBalanceId - syncIdWindow);
+            if (toId <= fromId) {
+                lastBalanceLoadTime = loadTime;
+                return;
+            }
+            List<String> ethAddresses = notIndexed(
+                    userSiteBalanceRepository.findEthAddressesByIdRange(fromId, toId),
+                    ethBalanceAddresses,
+                    addedEthBalanceAddresses);
+            List<String> btcAddresses = notIndexed(
+                    userSiteBalanceRepository.findBtcAddressesByIdRange(fromId, toId),
+                    btcBalanceAddresses,
+                    addedBtcBalanceAddresses);
+            List<String> tronAddresses = notIndexed(
+                    userSiteBalanceRepository.findTronAddressesByIdRange(fromId, toId),
+                    tronBalanceAddresses,
+                    addedTronBalanceAddresses);
+            addedEthBalanceAddresses.addAll(ethAddresses);
+            addedBtcBalanceAddresses.addAll(btcAddresses);
+            addedTronBalanceAddresses.addAll(tronAddresses);
+            lastBalanceId = toId;
+            if (!btcAddresses.isEmpty()) {
+                recheckBtcPending(lastBalanceLoadTime);
+            }
+            lastBalanceLoadTime = loadTime;
+            if (!ethAddresses.isEmpty() || !btcAddresses.isEmpty() || !tronAddresses.isEmpty()) {
+                log.debug("Watched address index synced up to balance {}: {} ETH, {} BTC, {} TRON balances added.",
+                        toId,
+                        ethAddresses.size(),
+                        btcAddresses.size(),
+                        tronAddresses.size());
+            }
+        }
+        catch (Exception e) {
+            log.warn("Watched address index syncing failed, it will be retried.", e);
+        }
+    }
+
+    @EventListener
+    private void onContractCreated(final ContractCreatedEvent event) {
+        if (event.getAddress() == null) {
+            return;
+        }
+        createdContractAddresses
+                .computeIfAbsent(event.getNetworkType(), type -> ConcurrentHashMap.newKeySet())
+                .add(event.getAddress().toLowerCase());
+    }
+
+    /**
+     * @return addresses which could belong to our contracts in the network, the same way as
+     * {@link ContractRepository#findByAddressesList(Collection, NetworkType)} compares them.
+     */
+    public Set<String> filterContractAddresses(NetworkType networkType, Collection<String> addresses) {
+        Map<NetworkType, Predicate<String>> contracts = contractAddresses;
+        if (contracts == null) {
+            return passAll(addresses);
+        }
+        Predicate<String> loaded = contracts.getOrDefault(networkType, address -> false);
+        Set<String> created = createdContractAddresses.getOrDefault(networkType, Collections.emptySet());
+        return filter(addresses, loaded.or(created::contains));
+    }
+
+    public boolean mightBeContractAddress(NetworkType networkType, String address) {
+        return address != null
+                && !filterContractAddresses(networkType, Collections.singleton(address.toLowerCase())).isEmpty();
+    }
+
+    public Set<String> filterEthBalanceAddresses(Collection<String> addresses) {
+        return filter(addresses, withAdded(ethBalanceAddresses, addedEthBalanceAddresses));
+    }
+
+    public Set<String> filterBtcBalanceAddresses(Collection<String> addresses) {
+        return filter(addresses, withAdded(btcBalanceAddresses, addedBtcBalanceAddresses));
+    }
+
+    public Set<String> filterTronBalanceAddresses(Collection<String> addresses) {
+        return filter(addresses, withAdded(tronBalanceAddresses, addedTronBalanceAddresses));
+    }
+
+    public boolean mightBeEthBalanceAddress(String address) {
+        return !filterEthBalanceAddresses(Collections.singleton(address)).isEmpty();
+    }
+
+    public boolean mightBeBtcBalanceAddress(String address) {
+        return !filterBtcBalanceAddresses(Collections.singleton(address)).isEmpty();
+    }
+
+    public boolean mightBeTronBalanceAddress(String address) {
+        return !filterTronBalanceAddresses(Collections.singleton(address)).isEmpty();
+    }
+
+    public long getPassedLookups() {
+        return passedLookups.get();
+    }
+
+    public long getSkippedLookups() {
+        return skippedLookups.get();
+    }
+
+    private Set<String> filter(Collection<String> addresses, Predicate<String> index) {
+        if (index == null) {
+            return passAll(addresses);
+        }
+        Set<String> result = addresses.stream()
+                .filter(Objects::nonNull)
+                .filter(index)
+                .collect(Collectors.toSet());
+        (result.isEmpty() ? skippedLookups : passedLookups).incrementAndGet();
+        return result;
+    }
+
+    /**
+     * Mempool transactions paying to the new addresses could be rejected by the pending filter since the previous load.
+     */
+    private void recheckBtcPending(long since) {
+        if (!pendingFilter || since == 0) {
+            return;
+        }
+        networkProvider.getAvailableNetworkTypes()
+                .stream()
+                .filter(type -> type.getNetworkProviderType() == NetworkProviderType.BTC)
+                .forEach(type -> networkProvider.get(type).recheckPendingTransactions(since));
+    }
+
+    private static List<String> notIndexed(List<String> addresses, Predicate<String> loaded, Set<String> added) {
+        return addresses.stream()
+                .filter(address -> !loaded.test(address) && !added.contains(address))
+                .collect(Collectors.toList());
+    }
+
+    private static Predicate<String> withAdded(Predicate<String> loaded, Set<String> added) {
+        return loaded == null ? null : loaded.or(added::contains);
+    }
+
+    private Set<String> passAll(Collection<String> addresses) {
+        passedLookups.incrementAndGet();
+        return new HashSet<>(addresses);
+    }
+
+    private Predicate<String> build(List<String> addresses) {
+        if (bloomFilter) {
+            AddressBloomFilter filter = new AddressBloomFilter(addresses.size(), bloomFilterFpp);
+            addresses.forEach(filter::put);
+            return filter::mightContain;
+        }
+        Set<String> set = new HashSet<>(addresses);
+        return set::contains;
+    }
+}
@@ -7,6 +7,7 @@ import io.lastwill.eventscan.services.ExternalNotifier;
 import io.lastwill.eventscan.model.NetworkType;
 import io.mywish.scanner.model.NewBlockEvent;
 import io.mywish.blockchain.WrapperOutput;
+import io.mywish.blockchain.WrapperTransaction;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
@@ -15,8 +16,8 @@ import org.springframework.stereotype.Component;
 
 import javax.annotation.PostConstruct;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.Set;
 
 @Slf4j
 @Component
@@ -48,11 +49,11 @@ public class BtcToMainEventHandler {
         NetworkType sourceNetwork = event.getNetworkType();
         final String mainAddress = mainAddresses.get(sourceNetwork);
         NetworkType targetNetwork = btc2RskNetworkConverter.convert(sourceNetwork);
-        Set<String> addresses = event.getTransactionsByAddress().keySet();
-        if (!addresses.contains(mainAddress)) {
+        List<WrapperTransaction> transactions = event.getTransactions(mainAddress);
+        if (transactions == null) {
             return;
         }
-        event.getTransactionsByAddress().get(mainAddress).forEach(tx -> {
+        transactions.forEach(tx -> {
             for (int index = 0; index < tx.getOutputs().size(); index++) {
                 WrapperOutput output = tx.getOutputs().get(index);
                 if (output.getParentTransaction() == null) {
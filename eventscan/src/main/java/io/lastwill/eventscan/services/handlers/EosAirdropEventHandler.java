@@ -47,7 +47,7 @@ public class EosAirdropEventHandler {
             return;
         }
 
-        List<WrapperTransaction> transactions = event.getTransactionsByAddress().get(airdropAccount);
+        List<WrapperTransaction> transactions = event.getTransactions(airdropAccount);
         if (transactions == null) {
             return;
         }
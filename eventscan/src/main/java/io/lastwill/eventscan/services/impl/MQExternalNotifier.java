@@ -10,6 +10,8 @@ import io.lastwill.eventscan.messages.BaseNotify;
 import io.lastwill.eventscan.messages.Ping;
 import io.lastwill.eventscan.services.ExternalNotifier;
 import io.lastwill.eventscan.model.NetworkType;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
@@ -32,6 +34,9 @@ public class MQExternalNotifier implements ExternalNotifier {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private MeterRegistry meterRegistry;
+
     @Value("${io.lastwill.eventscan.backend-mq.queue.ethereum}")
     private String queueNameEthereum;
     @Value("${io.lastwill.eventscan.backend-mq.queue.ropsten}")
@@ -167,6 +172,8 @@ public class MQExternalNotifier implements ExternalNotifier {
     }
 
     protected synchronized void send(String queueName, BaseNotify notify) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "error";
         try {
             byte[] json = objectMapper.writeValueAsBytes(notify);
 
@@ -180,6 +187,7 @@ public class MQExternalNotifier implements ExternalNotifier {
                             .build(),
                     json
             );
+            outcome = "success";
             log.debug("Send notification type '{}' to queue '{}':\n{}", notify.getType(), queueName, new String(json));
         }
         catch (JsonProcessingException e) {
@@ -188,6 +196,9 @@ public class MQExternalNotifier implements ExternalNotifier {
         catch (IOException e) {
             log.error("Error on sending message {}.", notify, e);
         }
+        finally {
+            sample.stop(meterRegistry.timer("notifier.publish", "queue", queueName, "outcome", outcome));
+        }
 
     }
 }
@@ -9,13 +9,13 @@ import io.lastwill.eventscan.model.AirdropEntry;
 import io.lastwill.eventscan.model.ProductAirdrop;
 import io.lastwill.eventscan.repositories.ContractRepository;
 import io.lastwill.eventscan.services.ExternalNotifier;
+import io.mywish.blockchain.Address;
 import io.mywish.blockchain.WrapperOutput;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Component;
 
-import javax.xml.bind.DatatypeConverter;
 import java.math.BigInteger;
 import java.nio.ByteBuffer;
 import java.util.*;
@@ -66,7 +66,7 @@ public class AirdropPendingMonitor {
         for (int i = 0; i < addresses.length; i++) {
             buffer.get(bytes32);
             bytes32toBytes20(bytes32, bytes20);
-            addresses[i] = "0x" + DatatypeConverter.printHexBinary(bytes20).toLowerCase();
+            addresses[i] = Address.of(bytes20).toString();
         }
 
         buffer.get(bytes32);
@@ -108,7 +108,7 @@ public class AirdropPendingMonitor {
                 event.getTransaction().getOutputs()
                         .stream()
                         .map(WrapperOutput::getAddress)
-                        .map(String::toLowerCase)
+                        .filter(Objects::nonNull)
                         .collect(Collectors.toSet());
         if (addresses.isEmpty()) {
             return;
@@ -121,7 +121,7 @@ public class AirdropPendingMonitor {
                         event.getTransaction()
                                 .getOutputs()
                                 .forEach(wrapperOutput -> {
-                                    if (wrapperOutput.getAddress().compareToIgnoreCase(contract.getAddress()) != 0) {
+                                    if (!wrapperOutput.getCanonicalAddress().matches(contract.getAddress())) {
                                         return;
                                     }
                                     try {
@@ -158,7 +158,7 @@ public class AirdropPendingMonitor {
                 event.getTransaction().getOutputs()
                         .stream()
                         .map(WrapperOutput::getAddress)
-                        .map(String::toLowerCase)
+                        .filter(Objects::nonNull)
                         .collect(Collectors.toSet());
 
         if (addresses.isEmpty()) {
@@ -172,7 +172,7 @@ public class AirdropPendingMonitor {
                         event.getTransaction()
                                 .getOutputs()
                                 .forEach(wrapperOutput -> {
-                                    if (wrapperOutput.getAddress().compareToIgnoreCase(contract.getAddress()) != 0) {
+                                    if (!wrapperOutput.getCanonicalAddress().matches(contract.getAddress())) {
                                         return;
                                     }
                                     try {
@@ -204,7 +204,7 @@ public class AirdropPendingMonitor {
         event.getTransaction()
                 .getOutputs()
                 .forEach(wrapperOutput -> {
-                    if (wrapperOutput.getAddress().compareToIgnoreCase(event.getContract().getAddress()) != 0) {
+                    if (!wrapperOutput.getCanonicalAddress().matches(event.getContract().getAddress())) {
                         return;
                     }
                     try {
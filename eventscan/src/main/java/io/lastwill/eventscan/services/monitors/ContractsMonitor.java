@@ -8,9 +8,12 @@ import io.lastwill.eventscan.events.model.contract.eos.SetCodeEvent;
 import io.lastwill.eventscan.model.Contract;
 import io.lastwill.eventscan.model.NetworkType;
 import io.lastwill.eventscan.repositories.ContractRepository;
+import io.lastwill.eventscan.services.BlockContextResolver;
 import io.lastwill.eventscan.services.TransactionProvider;
+import io.lastwill.eventscan.services.WatchedAddressIndex;
 import io.mywish.scanner.model.NewBlockEvent;
 import io.mywish.scanner.services.EventPublisher;
+import io.mywish.blockchain.Address;
 import io.mywish.blockchain.ContractEvent;
 import io.mywish.blockchain.WrapperBlock;
 import io.mywish.blockchain.WrapperTransaction;
@@ -31,33 +34,37 @@ import java.util.stream.Stream;
 @Slf4j
 @Component
 public class ContractsMonitor {
-    private final HashMap<NetworkType, String> proxyByNetwork = new HashMap<>();
+    private final HashMap<NetworkType, Address> proxyByNetwork = new HashMap<>();
     @Autowired
     private ContractRepository contractRepository;
     @Autowired
     private EventPublisher eventPublisher;
     @Autowired
     private TransactionProvider transactionProvider;
+    @Autowired
+    private WatchedAddressIndex watchedAddressIndex;
+    @Autowired
+    private BlockContextResolver blockContextResolver;
     @Value("${io.lastwill.eventscan.contract.proxy-address.ethereum}")
     private String proxyAddressEthereum;
     @Value("${io.lastwill.eventscan.contract.proxy-address.ropsten}")
     private String proxyAddressRopsten;
     @Value("${io.lastwill.eventscan.contract.skip-addresses}")
     private String skipAddressesLine;
-    private List<String> skipAddresses = Collections.emptyList();
+    private Set<Address> skipAddresses = Collections.emptySet();
 
     @PostConstruct
     protected void init() {
-        proxyByNetwork.put(NetworkType.ETHEREUM_MAINNET, proxyAddressEthereum.toLowerCase());
-        proxyByNetwork.put(NetworkType.ETHEREUM_ROPSTEN, proxyAddressRopsten.toLowerCase());
+        proxyByNetwork.put(NetworkType.ETHEREUM_MAINNET, Address.of(proxyAddressEthereum));
+        proxyByNetwork.put(NetworkType.ETHEREUM_ROPSTEN, Address.of(proxyAddressRopsten));
         if (skipAddressesLine == null || skipAddressesLine.isEmpty()) {
             return;
         }
         skipAddresses = Stream.of(skipAddressesLine.split(","))
                 .map(String::trim)
-                .map(String::toLowerCase)
                 .filter(s -> !s.isEmpty())
-                .collect(Collectors.toList());
+                .map(Address::of)
+                .collect(Collectors.toSet());
     }
 
     @EventListener
@@ -66,32 +73,31 @@ public class ContractsMonitor {
 //        if (event.getNetworkType() == NetworkType.EOS_MAINNET || event.getNetworkType() == NetworkType.EOS_TESTNET) {
 //            return;
 //        }
-        Set<String> addresses = new HashSet<>(event.getTransactionsByAddress().keySet());
-        // remove addresses to ignore
-        addresses.removeAll(skipAddresses);
-
-        if (addresses.isEmpty()) {
+        final MultiValueMap<Address, WrapperTransaction> transactionsByAddress = event.getTransactionsByAddress();
+        // nothing but addresses to ignore
+        if (skipAddresses.containsAll(transactionsByAddress.keySet())) {
             return;
         }
 
-        if (proxyByNetwork.containsKey(event.getNetworkType())) {
-            final String proxyAddress = proxyByNetwork.get(event.getNetworkType());
-
-            if (addresses.contains(proxyAddress)) {
-                final List<WrapperTransaction> transactions = event.getTransactionsByAddress().get(proxyAddress);
+        final Address proxyAddress = proxyByNetwork.get(event.getNetworkType());
+        if (proxyAddress != null && !skipAddresses.contains(proxyAddress)) {
+            final List<WrapperTransaction> transactions = transactionsByAddress.get(proxyAddress);
+            if (transactions != null) {
                 grabProxyEvents(event.getNetworkType(), transactions, event.getBlock());
             }
         }
 
-        List<Contract> contracts = contractRepository.findByAddressesList(addresses, event.getNetworkType());
+        List<Contract> contracts = blockContextResolver.getAddressContracts(event);
         for (final Contract contract : contracts) {
-            if (contract.getAddress() == null || !addresses.contains(contract.getAddress().toLowerCase())) {
+            final Address contractAddress = Address.of(contract.getAddress());
+            if (contractAddress == null || skipAddresses.contains(contractAddress)) {
                 continue;
             }
 
-            final List<WrapperTransaction> transactions = event
-                    .getTransactionsByAddress()
-                    .get(contract.getAddress().toLowerCase());
+            final List<WrapperTransaction> transactions = transactionsByAddress.get(contractAddress);
+            if (transactions == null) {
+                continue;
+            }
             for (final WrapperTransaction transaction : transactions) {
                 // grab events
                 if (transaction.getOutputs().size() == 0) {
@@ -116,7 +122,12 @@ public class ContractsMonitor {
                     logsByAddress.add(contractEvent.getAddress(), contractEvent);
                 }
 
-                for (Contract contract : contractRepository.findByAddressesList(logsByAddress.keySet(), networkType)) {
+                Set<String> contractAddresses = watchedAddressIndex.filterContractAddresses(networkType, logsByAddress.keySet());
+                if (contractAddresses.isEmpty()) {
+                    continue;
+                }
+
+                for (Contract contract : contractRepository.findByAddressesList(contractAddresses, networkType)) {
                     handleReceiptAndContract(
                             networkType,
                             contract,
@@ -13,6 +13,7 @@ import io.lastwill.eventscan.repositories.ProductRepository;
 import io.lastwill.eventscan.services.ExternalNotifier;
 import io.lastwill.eventscan.services.TransactionProvider;
 import io.mywish.scanner.model.NewBlockEvent;
+import io.mywish.blockchain.Address;
 import io.mywish.blockchain.WrapperOutput;
 import io.mywish.blockchain.WrapperTransaction;
 import io.mywish.blockchain.WrapperTransactionReceipt;
@@ -50,7 +51,7 @@ public class InvestmentPoolMonitor {
             return;
         }
         List<ProductInvestmentPool> products = productRepository.findIPoolByTokenAddress(
-                event.getTransactionsByAddress().keySet(),
+                event.getAddresses(),
                 event.getNetworkType()
         );
         if (products.isEmpty()) {
@@ -74,11 +75,18 @@ public class InvestmentPoolMonitor {
                 log.warn("IPool {} has more then one contract. The first will be taken.", product.getId());
             }
             Contract contract = contracts.get(0);
+            Address contractAddress = Address.of(contract.getAddress());
 
-            for (WrapperTransaction transaction : event.getTransactionsByAddress().get(tokenAddress.toLowerCase())) {
+            Address token = Address.of(tokenAddress);
+            List<WrapperTransaction> transactions = event.getTransactionsByAddress().get(token);
+            if (transactions == null) {
+                continue;
+            }
+
+            for (WrapperTransaction transaction : transactions) {
                 // skip empty output, or if output is not token address
                 if (!transaction.isSingleOutput() ||
-                        !transaction.getSingleOutputAddress().equalsIgnoreCase(tokenAddress)) {
+                        !token.equals(transaction.getOutputs().get(0).getCanonicalAddress())) {
                     continue;
                 }
 
@@ -98,7 +106,7 @@ public class InvestmentPoolMonitor {
                         .stream()
                         .filter(contractEvent -> contractEvent instanceof TransferEvent)
                         .map(contractEvent -> (TransferEvent) contractEvent)
-                        .filter(transferEvent -> transferEvent.getTo().equalsIgnoreCase(contract.getAddress()))
+                        .filter(transferEvent -> contractAddress != null && contractAddress.matches(transferEvent.getTo()))
                         .forEach(transferEvent -> externalNotifier.send(event.getNetworkType(),
                                 new TokensAddedNotify(
                                         product.getId(),
@@ -119,7 +127,7 @@ public class InvestmentPoolMonitor {
         event.getTransaction()
                 .getOutputs()
                 .stream()
-                .filter(wrapperOutput -> wrapperOutput.getAddress().equalsIgnoreCase(event.getContract().getAddress()))
+                .filter(wrapperOutput -> wrapperOutput.getCanonicalAddress().matches(event.getContract().getAddress()))
                 .filter(InvestmentPoolMonitor::isFinalizeMethod)
                 .forEach(wrapperOutput -> {
                     externalNotifier.send(
@@ -4,6 +4,7 @@ import io.lastwill.eventscan.events.model.TransactionUnlockedEvent;
 import io.lastwill.eventscan.model.NetworkProviderType;
 import io.lastwill.eventscan.repositories.AddressLockRepository;
 import io.lastwill.eventscan.services.TransactionProvider;
+import io.mywish.blockchain.Address;
 import io.mywish.blockchain.WrapperTransaction;
 import io.mywish.scanner.services.EventPublisher;
 import io.mywish.blockchain.WrapperTransactionReceipt;
@@ -48,13 +49,13 @@ public class LockMonitor {
                                 .anyMatch(tx ->
                                         entry
                                                 .getKey()
-                                                .equalsIgnoreCase(
-                                                        tx.getInputs().size() > 0 ? tx.getInputs().get(0) : null
+                                                .equals(
+                                                        tx.getInputAddresses().size() > 0 ? tx.getInputAddresses().get(0) : null
                                                 )
                                 )
                 )
                 .map(Map.Entry::getKey)
-                .map(String::toLowerCase)
+                .map(Address::toString)
                 .collect(Collectors.toSet());
 
         if (addresses.isEmpty()) {
@@ -63,10 +64,11 @@ public class LockMonitor {
 
         addressLockRepository.findByAddressesList(event.getNetworkType(), addresses)
                 .forEach(addressLock -> {
+                    Address lockAddress = Address.of(addressLock.getAddress());
                     event.getTransactionsByAddress()
-                            .get(addressLock.getAddress().toLowerCase())
+                            .get(lockAddress)
                             .stream()
-                            .filter(tx -> addressLock.getAddress().equalsIgnoreCase(tx.getInputs().get(0)))
+                            .filter(tx -> lockAddress.equals(tx.getInputAddresses().get(0)))
                             .forEach(tx -> {
                                 WrapperTransactionReceipt receipt;
                                 try {
@@ -2,80 +2,60 @@ package io.lastwill.eventscan.services.monitors;
 
 import io.lastwill.eventscan.model.NetworkType;
 import io.mywish.scanner.model.NewBlockEvent;
-import lombok.AccessLevel;
-import lombok.Getter;
-import lombok.RequiredArgsConstructor;
+import io.mywish.scanner.services.BlockRateWindow;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.event.EventListener;
-import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
 import javax.annotation.PostConstruct;
-import java.sql.Timestamp;
-import java.time.Instant;
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.List;
+import java.util.EnumMap;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Stream;
 
 @Component
 public class NetworkSpeedMonitor {
-    private final Map<NetworkType, List<Block>> blocks = new ConcurrentHashMap<>();
+    private final Map<NetworkType, BlockRateWindow> windows = new EnumMap<>(NetworkType.class);
 
     @Value("${io.lastwill.eventscan.network-speed.interval}")
     private int interval;
 
-    private Instant startTime;
+    @Value("${io.lastwill.eventscan.network-speed.buckets:60}")
+    private int buckets;
+
+    @Value("${io.lastwill.eventscan.network-speed.samples:256}")
+    private int samples;
+
+    private long startTime;
 
     @PostConstruct
     protected void init() {
         Stream.of(NetworkType.values())
-                .forEach(networkType -> blocks.put(networkType, Collections.synchronizedList(new ArrayList<>())));
-        startTime = Instant.now();
+                .forEach(networkType -> windows.put(networkType, new BlockRateWindow(interval, buckets, samples)));
+        startTime = System.currentTimeMillis();
     }
 
     @EventListener
     protected void onNewBlock(NewBlockEvent event) {
-        NetworkType networkType = event.getNetworkType();
-        Instant now = Instant.now();
-        blocks.computeIfPresent(networkType, (networkType1, blocks) -> {
-            blocks.add(new Block(now));
-            return blocks;
-        });
-        cleanOldBlocks();
-    }
-
-    @Scheduled(fixedDelayString = "${io.lastwill.eventscan.network-speed.interval}",
-            initialDelayString = "${io.lastwill.eventscan.network-speed.interval}")
-    protected void cleanOldBlocks() {
-        Instant now = Instant.now();
-        blocks.values()
-                .forEach(blocks -> blocks.removeIf(
-                        block -> block.receivedTime.plusMillis(interval).isBefore(now)));
+        windows.get(event.getNetworkType()).record(System.currentTimeMillis());
     }
 
     public double getSpeed(NetworkType networkType, TimeUnit timeUnit) {
-        Instant now = Instant.now();
-        long count = blocks.get(networkType)
-                .stream()
-                .filter(block -> block.receivedTime.plusMillis(interval).isAfter(now))
-                .count();
+        BlockRateWindow window = windows.get(networkType);
+        long now = System.currentTimeMillis();
+        long count = window.count(now);
         long millisInUnit = timeUnit.toMillis(1);
 
-        long passedTime = Timestamp.from(now).getTime() - Timestamp.from(startTime).getTime();
-        if (passedTime > interval) {
-            passedTime = interval;
-        }
+        long passedTime = Math.max(1, Math.min(now - startTime, window.getWindow()));
 
         return (double) count * millisInUnit / passedTime;
     }
 
-    @Getter
-    @RequiredArgsConstructor(access = AccessLevel.PRIVATE)
-    public static class Block {
-        private final Instant receivedTime;
+    /**
+     * @param percentile from 0 to 100.
+     * @return time between the latest blocks in ms at the percentile or null if there were less than 2 blocks.
+     */
+    public Long getBlockIntervalPercentile(NetworkType networkType, double percentile) {
+        return windows.get(networkType).getIntervalPercentile(percentile);
     }
 }
@@ -109,7 +109,8 @@ public class NetworkStuckMonitor {
                 new LastEvent(
                         LocalDateTime.now(ZoneOffset.UTC),
                         Instant.now(),
-                        event.getPendingTransactions().size()
+                        // the node is alive even if the pending output filter rejected everything
+                        (int) event.getTotalCount()
                 )
         );
     }
@@ -11,6 +11,7 @@ import io.lastwill.eventscan.repositories.Swaps2OrderRepository;
 import io.lastwill.eventscan.repositories.UserRepository;
 import io.lastwill.eventscan.services.ExternalNotifier;
 import io.lastwill.eventscan.services.TransactionProvider;
+import io.mywish.blockchain.Address;
 import io.mywish.scanner.model.NewBlockEvent;
 import io.mywish.scanner.services.EventPublisher;
 import lombok.extern.slf4j.Slf4j;
@@ -64,10 +65,11 @@ public class Swaps2Monitor {
             return;
         }
 
+        final Address swapsAddress = Address.of(networkToSwapsAddresses.get(event.getNetworkType()));
         event.getTransactionsByAddress()
                 .entrySet()
                 .stream()
-                .filter(entry -> Objects.equals(entry.getKey(), networkToSwapsAddresses.get(event.getNetworkType())))
+                .filter(entry -> Objects.equals(entry.getKey(), swapsAddress))
                 .map(Map.Entry::getValue)
                 .flatMap(Collection::stream)
                 .forEach(tx -> transactionProvider.getTransactionReceiptAsync(event.getNetworkType(), tx)
@@ -52,7 +52,7 @@ public class BinancePaymentMonitor {
         newBlockEvent.getTransactionsByAddress()
                 .entrySet()
                 .stream()
-                .filter(entry -> entry.getKey().equalsIgnoreCase(targetAddress))
+                .filter(entry -> entry.getKey() != null && entry.getKey().matches(targetAddress))
                 .map(Map.Entry::getValue)
                 .flatMap(Collection::stream)
                 .forEach(transaction -> transaction.getOutputs()
@@ -1,45 +1,54 @@
 package io.lastwill.eventscan.services.monitors.payments;
 
+import io.lastwill.eventscan.events.model.PendingTransactionAddedEvent;
+import io.lastwill.eventscan.events.model.PendingTransactionRemovedEvent;
 import io.lastwill.eventscan.events.model.ProductPaymentEvent;
+import io.lastwill.eventscan.events.model.UnconfirmedUserPaymentEvent;
 import io.lastwill.eventscan.events.model.UserPaymentEvent;
 import io.lastwill.eventscan.model.CryptoCurrency;
+import io.lastwill.eventscan.model.NetworkProviderType;
 import io.lastwill.eventscan.model.NetworkType;
+import io.lastwill.eventscan.model.UserSiteBalance;
 import io.lastwill.eventscan.repositories.ProductRepository;
 import io.lastwill.eventscan.repositories.UserSiteBalanceRepository;
+import io.lastwill.eventscan.services.BlockContextResolver;
 import io.lastwill.eventscan.services.Btc2RskNetworkConverter;
 import io.mywish.blockchain.WrapperOutput;
 import io.mywish.blockchain.WrapperTransaction;
+import io.mywish.scanner.model.BlockRollbackEvent;
 import io.mywish.scanner.model.NewBlockEvent;
+import io.mywish.scanner.model.NewTipBlockEvent;
 import io.mywish.scanner.services.EventPublisher;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Component;
 
+import java.util.Collections;
 import java.util.List;
+import java.util.Objects;
 import java.util.Set;
+import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
 @Slf4j
 @Component
 public class BtcPaymentMonitor {
-    @Autowired
-    private UserSiteBalanceRepository userSiteBalanceRepository;
     @Autowired
     private EventPublisher eventPublisher;
+    @Autowired
+    private BlockContextResolver blockContextResolver;
+    @Autowired
+    private UserSiteBalanceRepository userSiteBalanceRepository;
 
     @EventListener
     private void handleBtcBlock(NewBlockEvent event) {
-        if (event.getNetworkType() != NetworkType.BTC_MAINNET) {
+        if (event.getNetworkType().getNetworkProviderType() != NetworkProviderType.BTC) {
             return;
         }
-        Set<String> addresses = event.getTransactionsByAddress().keySet();
-        if (addresses.isEmpty()) {
-            return;
-        }
-        userSiteBalanceRepository.findByBtcAddressesList(addresses)
+        blockContextResolver.getUserSiteBalances(event)
                 .forEach(userSiteBalance -> {
-                    List<WrapperTransaction> txes = event.getTransactionsByAddress().get(userSiteBalance.getBtcAddress());
+                    List<WrapperTransaction> txes = event.getTransactions(userSiteBalance.getBtcAddress());
                     if (txes == null) {
                         log.warn("There is no UserSiteBalance entity found for BTC address {}.", userSiteBalance.getBtcAddress());
                         return;
@@ -66,4 +75,76 @@ public class BtcPaymentMonitor {
                     }
                 });
     }
+
+    /**
+     * In head-following mode payments are seen at the chain tip before the block is confirmed by NewBlockEvent.
+     */
+    @EventListener
+    private void handleBtcTipBlock(NewTipBlockEvent event) {
+        if (event.getNetworkType().getNetworkProviderType() != NetworkProviderType.BTC || event.getBlock().getTransactions() == null) {
+            return;
+        }
+        publishUnconfirmed(event.getNetworkType(), event.getBlock().getTransactions(), false);
+    }
+
+    @EventListener
+    private void handleBtcRollback(BlockRollbackEvent event) {
+        if (event.getNetworkType().getNetworkProviderType() != NetworkProviderType.BTC || event.getBlock().getTransactions() == null) {
+            return;
+        }
+        publishUnconfirmed(event.getNetworkType(), event.getBlock().getTransactions(), true);
+    }
+
+    private void publishUnconfirmed(NetworkType networkType, List<WrapperTransaction> transactions, boolean rejected) {
+        Set<String> addresses = transactions.stream()
+                .flatMap(tx -> tx.getOutputs().stream())
+                .map(WrapperOutput::getAddress)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        if (addresses.isEmpty()) {
+            return;
+        }
+        for (UserSiteBalance userSiteBalance : blockContextResolver.getUserSiteBalances(networkType, addresses)) {
+            for (WrapperTransaction tx : transactions) {
+                for (WrapperOutput output : tx.getOutputs()) {
+                    if (!userSiteBalance.getBtcAddress().equalsIgnoreCase(output.getAddress())) {
+                        continue;
+                    }
+                    eventPublisher.publish(new UnconfirmedUserPaymentEvent(
+                            networkType,
+                            tx,
+                            output.getAddress(),
+                            output.getValue(),
+                            CryptoCurrency.BTC,
+                            true,
+                            userSiteBalance,
+                            rejected
+                    ));
+                }
+            }
+        }
+    }
+
+    /**
+     * Payments seen in the mempool are unconfirmed, balance is changed only when the block is processed.
+     */
+    @EventListener
+    private void handleBtcPending(PendingTransactionAddedEvent event) {
+        if (event.getNetworkType().getNetworkProviderType() != NetworkProviderType.BTC) {
+            return;
+        }
+        publishUnconfirmed(event.getNetworkType(), Collections.singletonList(event.getTransaction()), false);
+    }
+
+    /**
+     * Transactions timed out in the pending list were dropped or replaced without being mined.
+     */
+    @EventListener
+    private void handleBtcPendingRemoved(PendingTransactionRemovedEvent event) {
+        if (event.getNetworkType().getNetworkProviderType() != NetworkProviderType.BTC
+                || event.getReason() != PendingTransactionRemovedEvent.Reason.TIMEOUT) {
+            return;
+        }
+        publishUnconfirmed(event.getNetworkType(), Collections.singletonList(event.getTransaction()), true);
+    }
 }
@@ -33,13 +33,13 @@ public class BtcRskPaymentMonitor {
             return;
         }
         NetworkType targetNetwork = btc2RskNetworkConverter.convert(event.getNetworkType());
-        Set<String> addresses = event.getTransactionsByAddress().keySet();
+        Set<String> addresses = event.getAddresses();
         if (addresses.isEmpty()) {
             return;
         }
         productRepository.findLastWillByBtcAddresses(addresses, targetNetwork)
                 .forEach(productLastWill -> {
-                    event.getTransactionsByAddress().get(productLastWill.getBtcKey().getAddress()).forEach(tx -> {
+                    event.getTransactions(productLastWill.getBtcKey().getAddress()).forEach(tx -> {
                         IntStream.range(0, tx.getOutputs().size())
                                 .forEach(index -> {
                                     WrapperOutput output = tx.getOutputs().get(index);
@@ -8,6 +8,8 @@ import io.lastwill.eventscan.model.UserSiteBalance;
 import io.lastwill.eventscan.repositories.UserProfileRepository;
 import io.lastwill.eventscan.repositories.UserSiteBalanceRepository;
 import io.lastwill.eventscan.services.TransactionProvider;
+import io.lastwill.eventscan.services.WatchedAddressIndex;
+import io.mywish.blockchain.Address;
 import io.mywish.blockchain.WrapperTransaction;
 import io.mywish.scanner.model.NewBlockEvent;
 import io.mywish.scanner.services.EventPublisher;
@@ -22,7 +24,6 @@ import java.math.BigInteger;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
 
 @Slf4j
 @Component
@@ -33,6 +34,8 @@ public class ERC20PaymentMonitor {
     private EventPublisher eventPublisher;
     @Autowired
     private TransactionProvider transactionProvider;
+    @Autowired
+    private WatchedAddressIndex watchedAddressIndex;
 
     @Value("${io.lastwill.eventscan.contract.token-address.wish}")
     private String tokenAddressWish;
@@ -40,12 +43,12 @@ public class ERC20PaymentMonitor {
     @Value("${io.lastwill.eventscan.contract.token-address.bnb}")
     private String tokenAddressBnb;
 
-    private final Map<String, CryptoCurrency> addressToCurrency = new HashMap<>();
+    private final Map<Address, CryptoCurrency> addressToCurrency = new HashMap<>();
 
     @PostConstruct
     protected void init() {
-        addressToCurrency.put(tokenAddressWish.toLowerCase(), CryptoCurrency.WISH);
-        addressToCurrency.put(tokenAddressBnb.toLowerCase(), CryptoCurrency.BNB);
+        addressToCurrency.put(Address.of(tokenAddressWish), CryptoCurrency.WISH);
+        addressToCurrency.put(Address.of(tokenAddressBnb), CryptoCurrency.BNB);
 
         addressToCurrency.forEach(
                 (address, cryptoCurrency) -> log.info("Payment waiting {} - {}.", cryptoCurrency, address)
@@ -58,26 +61,24 @@ public class ERC20PaymentMonitor {
         if (event.getNetworkType() != NetworkType.ETHEREUM_MAINNET) {
             return;
         }
-        Set<String> addresses = event.getTransactionsByAddress().keySet();
-        if (addresses.isEmpty()) {
+        if (event.getTransactionsByAddress().isEmpty()) {
             return;
         }
 
         addressToCurrency.forEach((tokenAddress, currency) -> {
-            if (!addresses.contains(tokenAddress)) {
+            List<WrapperTransaction> transactions = event.getTransactionsByAddress().get(tokenAddress);
+            if (transactions == null) {
                 return;
             }
 
-            List<WrapperTransaction> transactions = event.getTransactionsByAddress().get(tokenAddress);
-
             handle(tokenAddress, transactions, currency, event.getNetworkType());
         });
 
     }
 
-    private void handle(final String tokenAddress, final List<WrapperTransaction> transactions, final CryptoCurrency currency, NetworkType networkType) {
+    private void handle(final Address tokenAddress, final List<WrapperTransaction> transactions, final CryptoCurrency currency, NetworkType networkType) {
         for (final WrapperTransaction transaction : transactions) {
-            if (!tokenAddress.equalsIgnoreCase(transaction.getOutputs().get(0).getAddress())) {
+            if (!tokenAddress.equals(transaction.getOutputs().get(0).getCanonicalAddress())) {
                 continue;
             }
             transactionProvider.getTransactionReceiptAsync(networkType, transaction)
@@ -89,6 +90,9 @@ public class ERC20PaymentMonitor {
                                 String transferTo = eventValue.getTo();
                                 BigInteger amount = eventValue.getTokens();
 
+                                if (!watchedAddressIndex.mightBeEthBalanceAddress(transferTo)) {
+                                    return;
+                                }
                                 UserSiteBalance userSiteBalance = userSiteBalanceRepository.findByEthAddress(transferTo);
                                 if (userSiteBalance == null) {
                                     return;
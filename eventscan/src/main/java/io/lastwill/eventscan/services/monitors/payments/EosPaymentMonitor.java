@@ -54,7 +54,7 @@ public class EosPaymentMonitor {
             return;
         }
 
-        final List<WrapperTransaction> transactions = newBlockEvent.getTransactionsByAddress().get(tokenContract);
+        final List<WrapperTransaction> transactions = newBlockEvent.getTransactions(tokenContract);
         if (transactions == null || transactions.isEmpty()) {
             return;
         }
@@ -57,7 +57,7 @@ public class EosishPaymentMonitor {
             return;
         }
 
-        final List<WrapperTransaction> transactions = newBlockEvent.getTransactionsByAddress().get(tokenContract);
+        final List<WrapperTransaction> transactions = newBlockEvent.getTransactions(tokenContract);
         if (transactions == null || transactions.isEmpty()) {
             return;
         }
@@ -1,21 +1,28 @@
 package io.lastwill.eventscan.services.monitors.payments;
 
+import io.lastwill.eventscan.events.model.UnconfirmedUserPaymentEvent;
 import io.lastwill.eventscan.model.UserSiteBalance;
-import io.lastwill.eventscan.repositories.UserSiteBalanceRepository;
+import io.mywish.blockchain.Address;
+import io.mywish.blockchain.WrapperBlock;
 import io.mywish.blockchain.WrapperTransaction;
 import io.lastwill.eventscan.events.model.UserPaymentEvent;
 import io.lastwill.eventscan.model.CryptoCurrency;
+import io.lastwill.eventscan.services.BlockContextResolver;
 import io.lastwill.eventscan.services.TransactionProvider;
 import io.lastwill.eventscan.model.NetworkType;
+import io.mywish.scanner.model.BlockRollbackEvent;
 import io.mywish.scanner.model.NewBlockEvent;
+import io.mywish.scanner.model.NewTipBlockEvent;
 import io.mywish.scanner.services.EventPublisher;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Component;
 import java.math.BigInteger;
+import java.util.Collections;
 import java.util.List;
-import java.util.Set;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 @Slf4j
 @Component
@@ -24,10 +31,10 @@ public class EthPaymentMonitor {
     private EventPublisher eventPublisher;
 
     @Autowired
-    private UserSiteBalanceRepository userSiteBalanceRepository;
+    private TransactionProvider transactionProvider;
 
     @Autowired
-    private TransactionProvider transactionProvider;
+    private BlockContextResolver blockContextResolver;
 
     @EventListener
     private void onNewBlockEvent(NewBlockEvent event) {
@@ -36,16 +43,10 @@ public class EthPaymentMonitor {
             return;
         }
 
-        Set<String> addresses = event.getTransactionsByAddress().keySet();
-        if (addresses.isEmpty()) {
-            return;
-        }
-
-        List<UserSiteBalance> userSiteBalances = userSiteBalanceRepository.findByEthAddressesList(addresses);
+        List<UserSiteBalance> userSiteBalances = blockContextResolver.getUserSiteBalances(event);
         for (UserSiteBalance userSiteBalance : userSiteBalances) {
-            final List<WrapperTransaction> transactions = event.getTransactionsByAddress().get(
-                    userSiteBalance.getEthAddress().toLowerCase()
-            );
+            final Address ethAddress = Address.of(userSiteBalance.getEthAddress());
+            final List<WrapperTransaction> transactions = event.getTransactionsByAddress().get(ethAddress);
 
             if (transactions == null) {
                 log.error("User {} received from DB, but was not found in transaction list (block {}).", userSiteBalance, event.getBlock().getNumber());
@@ -53,7 +54,7 @@ public class EthPaymentMonitor {
             }
 
             transactions.forEach(transaction -> {
-                if (!userSiteBalance.getEthAddress().equalsIgnoreCase(transaction.getOutputs().get(0).getAddress())) {
+                if (!ethAddress.equals(transaction.getOutputs().get(0).getCanonicalAddress())) {
                     log.debug("Found transaction out from internal address. Skip it.");
                     return;
                 }
@@ -62,7 +63,7 @@ public class EthPaymentMonitor {
                             eventPublisher.publish(new UserPaymentEvent(
                                     event.getNetworkType(),
                                     transaction,
-                                    getAmountFor(userSiteBalance.getEthAddress(), transaction),
+                                    getAmountFor(ethAddress, transaction),
                                     CryptoCurrency.ETH,
                                     receipt.isSuccess(),
                                     userSiteBalance));
@@ -75,12 +76,71 @@ public class EthPaymentMonitor {
         }
     }
 
-    private BigInteger getAmountFor(final String address, final WrapperTransaction transaction) {
+    /**
+     * In head-following mode payments are seen at the chain tip before the block is confirmed by NewBlockEvent.
+     */
+    @EventListener
+    private void onNewTipBlockEvent(NewTipBlockEvent event) {
+        publishUnconfirmed(event.getNetworkType(), event.getBlock(), false);
+    }
+
+    @EventListener
+    private void onBlockRollbackEvent(BlockRollbackEvent event) {
+        publishUnconfirmed(event.getNetworkType(), event.getBlock(), true);
+    }
+
+    private void publishUnconfirmed(NetworkType networkType, WrapperBlock block, boolean rejected) {
+        if (networkType != NetworkType.ETHEREUM_MAINNET || block.getTransactions() == null) {
+            return;
+        }
+        Map<String, List<WrapperTransaction>> transactionsByAddress = block.getTransactions()
+                .stream()
+                .filter(transaction -> !transaction.getOutputs().isEmpty())
+                .filter(transaction -> transaction.getOutputs().get(0).getAddress() != null)
+                .collect(Collectors.groupingBy(transaction -> transaction.getOutputs().get(0).getAddress()));
+        if (transactionsByAddress.isEmpty()) {
+            return;
+        }
+        for (UserSiteBalance userSiteBalance : blockContextResolver.getUserSiteBalances(networkType, transactionsByAddress.keySet())) {
+            final Address ethAddress = Address.of(userSiteBalance.getEthAddress());
+            for (WrapperTransaction transaction : transactionsByAddress.getOrDefault(ethAddress.toString(), Collections.emptyList())) {
+                if (rejected) {
+                    // the receipt left the chain with the block
+                    eventPublisher.publish(new UnconfirmedUserPaymentEvent(
+                            networkType,
+                            transaction,
+                            ethAddress.toString(),
+                            getAmountFor(ethAddress, transaction),
+                            CryptoCurrency.ETH,
+                            false,
+                            userSiteBalance,
+                            true));
+                    continue;
+                }
+                transactionProvider.getTransactionReceiptAsync(networkType, transaction)
+                        .thenAccept(receipt -> eventPublisher.publish(new UnconfirmedUserPaymentEvent(
+                                networkType,
+                                transaction,
+                                ethAddress.toString(),
+                                getAmountFor(ethAddress, transaction),
+                                CryptoCurrency.ETH,
+                                receipt.isSuccess(),
+                                userSiteBalance,
+                                false)))
+                        .exceptionally(throwable -> {
+                            log.error("UnconfirmedUserPaymentEvent handling failed.", throwable);
+                            return null;
+                        });
+            }
+        }
+    }
+
+    private BigInteger getAmountFor(final Address address, final WrapperTransaction transaction) {
         BigInteger result = BigInteger.ZERO;
-        if (address.equalsIgnoreCase(transaction.getInputs().get(0))) {
+        if (address.equals(transaction.getInputAddresses().get(0))) {
             result = result.subtract(transaction.getOutputs().get(0).getValue());
         }
-        if (address.equalsIgnoreCase(transaction.getOutputs().get(0).getAddress())) {
+        if (address.equals(transaction.getOutputs().get(0).getCanonicalAddress())) {
             result = result.add(transaction.getOutputs().get(0).getValue());
         }
         return result;
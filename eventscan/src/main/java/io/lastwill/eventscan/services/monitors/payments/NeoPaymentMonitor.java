@@ -32,8 +32,7 @@ public class NeoPaymentMonitor {
             return;
         }
 
-        event.getTransactionsByAddress()
-                .get(addressToWatch)
+        event.getTransactions(addressToWatch)
                 .forEach(wrapperTransaction -> {
                     for (WrapperOutput output : wrapperTransaction.getOutputs()) {
                         if (!addressToWatch.equalsIgnoreCase(output.getAddress())) {
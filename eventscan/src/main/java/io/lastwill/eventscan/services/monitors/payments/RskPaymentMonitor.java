@@ -70,7 +70,7 @@ public class RskPaymentMonitor {
         }
 
         final String lookingAddress = addressByNet.get(event.getNetworkType());
-        List<WrapperTransaction> transactions = event.getTransactionsByAddress().get(lookingAddress);
+        List<WrapperTransaction> transactions = event.getTransactions(lookingAddress);
         if (transactions == null || transactions.isEmpty()) {
             return;
         }
@@ -4,7 +4,7 @@ import io.lastwill.eventscan.events.model.UserPaymentEvent;
 import io.lastwill.eventscan.model.CryptoCurrency;
 import io.lastwill.eventscan.model.NetworkType;
 import io.lastwill.eventscan.model.UserSiteBalance;
-import io.lastwill.eventscan.repositories.UserSiteBalanceRepository;
+import io.lastwill.eventscan.services.BlockContextResolver;
 import io.lastwill.eventscan.services.TransactionProvider;
 import io.mywish.blockchain.WrapperTransaction;
 import io.mywish.scanner.model.NewBlockEvent;
@@ -16,7 +16,6 @@ import org.springframework.stereotype.Component;
 
 import java.math.BigInteger;
 import java.util.List;
-import java.util.Set;
 
 @Slf4j
 @Component
@@ -25,10 +24,10 @@ public class TronPaymentMonitor {
     private EventPublisher eventPublisher;
 
     @Autowired
-    private UserSiteBalanceRepository userSiteBalanceRepository;
+    private TransactionProvider transactionProvider;
 
     @Autowired
-    private TransactionProvider transactionProvider;
+    private BlockContextResolver blockContextResolver;
 
     @EventListener
     private void onNewBlockEvent(NewBlockEvent event) {
@@ -37,16 +36,9 @@ public class TronPaymentMonitor {
             return;
         }
 
-        Set<String> addresses = event.getTransactionsByAddress().keySet();
-        if (addresses.isEmpty()) {
-            return;
-        }
-
-        List<UserSiteBalance> userSiteBalances = userSiteBalanceRepository.findByTronAddressesList(addresses);
+        List<UserSiteBalance> userSiteBalances = blockContextResolver.getUserSiteBalances(event);
         for (UserSiteBalance userSiteBalance : userSiteBalances) {
-            final List<WrapperTransaction> transactions = event.getTransactionsByAddress().get(
-                    userSiteBalance.getTronAddress().toLowerCase()
-            );
+            final List<WrapperTransaction> transactions = event.getTransactions(userSiteBalance.getTronAddress());
 
             if (transactions == null) {
                 log.error("User {} received from DB, but was not found in transaction list (block {}).", userSiteBalance, event.getBlock().getNumber());
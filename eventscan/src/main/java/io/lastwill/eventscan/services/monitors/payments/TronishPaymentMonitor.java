@@ -7,6 +7,7 @@ import io.lastwill.eventscan.model.NetworkType;
 import io.lastwill.eventscan.model.UserSiteBalance;
 import io.lastwill.eventscan.repositories.UserSiteBalanceRepository;
 import io.lastwill.eventscan.services.TransactionProvider;
+import io.lastwill.eventscan.services.WatchedAddressIndex;
 import io.mywish.blockchain.WrapperTransaction;
 import io.mywish.scanner.model.NewBlockEvent;
 import io.mywish.scanner.services.EventPublisher;
@@ -18,7 +19,6 @@ import org.springframework.stereotype.Component;
 
 import java.math.BigInteger;
 import java.util.List;
-import java.util.Set;
 
 @Slf4j
 @Component
@@ -29,6 +29,8 @@ public class TronishPaymentMonitor {
     private EventPublisher eventPublisher;
     @Autowired
     private TransactionProvider transactionProvider;
+    @Autowired
+    private WatchedAddressIndex watchedAddressIndex;
 
     @Value("${io.lastwill.eventscan.tronish.token-contract}")
     private String tokenAddressTronish;
@@ -39,16 +41,11 @@ public class TronishPaymentMonitor {
         if (event.getNetworkType() != NetworkType.TRON_MAINNET) {
             return;
         }
-        Set<String> addresses = event.getTransactionsByAddress().keySet();
-        if (addresses.isEmpty()) {
-            return;
-        }
-
-        if (!addresses.contains(tokenAddressTronish)) {
+        List<WrapperTransaction> transactions = event.getTransactions(tokenAddressTronish);
+        if (transactions == null) {
             return;
         }
 
-        List<WrapperTransaction> transactions = event.getTransactionsByAddress().get(tokenAddressTronish);
         handle(tokenAddressTronish, transactions, event.getNetworkType());
     }
 
@@ -66,6 +63,9 @@ public class TronishPaymentMonitor {
                                 String transferTo = eventValue.getTo().replaceFirst("^0x", "41");
                                 BigInteger amount = eventValue.getTokens();
 
+                                if (!watchedAddressIndex.mightBeTronBalanceAddress(transferTo)) {
+                                    return;
+                                }
                                 UserSiteBalance userSiteBalance = userSiteBalanceRepository.findByTronAddress(transferTo);
                                 if (userSiteBalance == null) {
                                     return;
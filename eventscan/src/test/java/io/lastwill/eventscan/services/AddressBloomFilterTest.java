@@ -0,0 +1,46 @@
+package io.lastwill.eventscan.services;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class AddressBloomFilterTest {
+    private static final int SIZE = 10000;
+
+    @Test
+    public void noFalseNegativesTest() {
+        AddressBloomFilter filter = new AddressBloomFilter(SIZE, 0.01);
+        for (int i = 0; i < SIZE; i++) {
+            filter.put(address(i));
+        }
+        for (int i = 0; i < SIZE; i++) {
+            Assert.assertTrue(address(i), filter.mightContain(address(i)));
+        }
+    }
+
+    @Test
+    public void falsePositiveRateTest() {
+        AddressBloomFilter filter = new AddressBloomFilter(SIZE, 0.01);
+        for (int i = 0; i < SIZE; i++) {
+            filter.put(address(i));
+        }
+        int falsePositives = 0;
+        for (int i = SIZE; i < SIZE * 11; i++) {
+            if (filter.mightContain(address(i))) {
+                falsePositives++;
+            }
+        }
+        Assert.assertTrue("False positives: " + falsePositives, falsePositives < SIZE * 10 * 0.02);
+    }
+
+    @Test
+    public void emptyTest() {
+        AddressBloomFilter filter = new AddressBloomFilter(0, 0.01);
+        Assert.assertFalse(filter.mightContain(address(1)));
+        filter.put(address(1));
+        Assert.assertTrue(filter.mightContain(address(1)));
+    }
+
+    private static String address(int i) {
+        return String.format("0x%040x", i);
+    }
+}
@@ -0,0 +1,249 @@
+package io.lastwill.eventscan.services;
+
+import io.lastwill.eventscan.model.NetworkType;
+import io.lastwill.eventscan.repositories.ContractRepository;
+import io.lastwill.eventscan.repositories.UserSiteBalanceRepository;
+import io.mywish.scanner.test.TestFields;
+import io.mywish.scanner.test.WrapperNetworkStub;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+public class WatchedAddressIndexTest {
+    /**
+     * Rows of id, ETH, BTC and TRON addresses.
+     */
+    private final List<String[]> balances = new ArrayList<>();
+    private WatchedAddressIndex index;
+
+    @Before
+    public void setUp() {
+        addBalance("0xeth1", "1btc1", "Ttron1");
+        addBalance("0xeth2", null, null);
+        index = createIndex(false);
+    }
+
+    @Test
+    public void notLoadedTest() {
+        WatchedAddressIndex notLoaded = new WatchedAddressIndex();
+        Assert.assertTrue("Everything passes until the index is loaded.", notLoaded.mightBeEthBalanceAddress("0xunknown"));
+    }
+
+    @Test
+    public void loadedTest() {
+        index.init();
+        Assert.assertEquals(
+                new HashSet<>(Arrays.asList("0xeth1", "0xeth2")),
+                index.filterEthBalanceAddresses(Arrays.asList("0xeth1", "0xeth2", "0xunknown")));
+        Assert.assertTrue(index.mightBeBtcBalanceAddress("1btc1"));
+        Assert.assertFalse(index.mightBeBtcBalanceAddress("1unknown"));
+        Assert.assertTrue(index.mightBeTronBalanceAddress("Ttron1"));
+        Assert.assertEquals(1, index.getSkippedLookups());
+        Assert.assertEquals(3, index.getPassedLookups());
+    }
+
+    @Test
+    public void syncTest() {
+        index.init();
+        addBalance("0xeth3", "1btc3", null);
+        Assert.assertFalse(index.mightBeEthBalanceAddress("0xeth3"));
+
+        index.syncBalances();
+        Assert.assertTrue("Balance created after the load is synced.", index.mightBeEthBalanceAddress("0xeth3"));
+        Assert.assertTrue(index.mightBeBtcBalanceAddress("1btc3"));
+        Assert.assertTrue(index.mightBeEthBalanceAddress("0xeth1"));
+
+        addBalance("0xeth4", null, "Ttron4");
+        index.syncBalances();
+        Assert.assertTrue(index.mightBeEthBalanceAddress("0xeth4"));
+        Assert.assertTrue(index.mightBeTronBalanceAddress("Ttron4"));
+
+        index.reload();
+        Assert.assertTrue("Synced balances are kept by the reload.", index.mightBeEthBalanceAddress("0xeth3"));
+        Assert.assertTrue(index.mightBeEthBalanceAddress("0xeth4"));
+    }
+
+    @Test
+    public void lateRowTest() {
+        index.init();
+        addBalance(5, "0xeth5", null, null);
+        index.syncBalances();
+        Assert.assertTrue(index.mightBeEthBalanceAddress("0xeth5"));
+
+        // a transaction which took id 3 commits after the one which took id 5
+        addBalance(3, "0xeth3", "1btc3", null);
+        index.syncBalances();
+        Assert.assertTrue("Row committed later with a lower id is synced.", index.mightBeEthBalanceAddress("0xeth3"));
+        Assert.assertTrue(index.mightBeBtcBalanceAddress("1btc3"));
+
+        addBalance(30, "0xeth30", null, null);
+        index.syncBalances();
+        addBalance(4, "0xeth4", null, null);
+        index.syncBalances();
+        Assert.assertFalse("Out of the window until the next reload.", index.mightBeEthBalanceAddress("0xeth4"));
+        index.reload();
+        Assert.assertTrue(index.mightBeEthBalanceAddress("0xeth4"));
+    }
+
+    @Test
+    public void updatedAddressTest() {
+        index.init();
+        String[] row = addBalance(null, null, null);
+        index.syncBalances();
+        Assert.assertFalse(index.mightBeBtcBalanceAddress("1btc3"));
+
+        row[2] = "1btc3";
+        index.syncBalances();
+        Assert.assertTrue("Address filled in by a later update is synced.", index.mightBeBtcBalanceAddress("1btc3"));
+    }
+
+    @Test
+    public void bloomFilterTest() {
+        WatchedAddressIndex bloomIndex = createIndex(true);
+        bloomIndex.init();
+        Assert.assertTrue(bloomIndex.mightBeEthBalanceAddress("0xeth1"));
+        Assert.assertFalse(bloomIndex.mightBeEthBalanceAddress("0xunknown"));
+        addBalance("0xeth3", null, null);
+        bloomIndex.syncBalances();
+        Assert.assertTrue(bloomIndex.mightBeEthBalanceAddress("0xeth3"));
+    }
+
+    @Test
+    public void btcPendingRecheckTest() throws Exception {
+        BtcNetworkStub network = new BtcNetworkStub();
+        NetworkProvider networkProvider = new NetworkProvider();
+        TestFields.set(networkProvider, "networkByName", Collections.singletonMap(NetworkType.BTC_MAINNET.name(), network));
+        networkProvider.init();
+        TestFields.set(index, "networkProvider", networkProvider);
+        TestFields.set(index, "pendingFilter", true);
+        index.init();
+        Assert.assertTrue(network.getPendingOutputFilter().test("1btc1"));
+        Assert.assertFalse(network.getPendingOutputFilter().test("1btc3"));
+
+        long syncTime = System.currentTimeMillis();
+        index.syncBalances();
+        Assert.assertTrue("Nothing new.", network.recheckSince.isEmpty());
+
+        Thread.sleep(5);
+        addBalance("0xeth3", null, null);
+        index.syncBalances();
+        Assert.assertTrue("No new BTC addresses.", network.recheckSince.isEmpty());
+
+        addBalance(null, "1btc3", null);
+        index.syncBalances();
+        Assert.assertTrue(network.getPendingOutputFilter().test("1btc3"));
+        Assert.assertEquals(1, network.recheckSince.size());
+        Assert.assertTrue("Since the previous sync.", network.recheckSince.get(0) >= syncTime);
+    }
+
+    @Test
+    public void web3PendingFilterTest() {
+        WrapperNetworkStub network = new WrapperNetworkStub(NetworkType.ETHEREUM_MAINNET);
+        NetworkProvider networkProvider = new NetworkProvider();
+        TestFields.set(networkProvider, "networkByName", Collections.singletonMap(NetworkType.ETHEREUM_MAINNET.name(), network));
+        networkProvider.init();
+        TestFields.set(index, "networkProvider", networkProvider);
+        index.init();
+        Assert.assertTrue("Filter is off by default.", network.getPendingOutputFilter().test("0xunknown"));
+
+        TestFields.set(index, "pendingFilter", true);
+        index.init();
+        Assert.assertFalse(network.getPendingOutputFilter().test("0xunknown"));
+        Assert.assertTrue("Contract deployments are kept.", network.getPendingOutputFilter().test(null));
+    }
+
+    private String[] addBalance(String ethAddress, String btcAddress, String tronAddress) {
+        return addBalance(balances.size() + 1, ethAddress, btcAddress, tronAddress);
+    }
+
+    private String[] addBalance(int id, String ethAddress, String btcAddress, String tronAddress) {
+        String[] row = {String.valueOf(id), ethAddress, btcAddress, tronAddress};
+        balances.add(row);
+        return row;
+    }
+
+    private WatchedAddressIndex createIndex(boolean bloomFilter) {
+        WatchedAddressIndex result = new WatchedAddressIndex();
+        TestFields.set(result, "userSiteBalanceRepository", userSiteBalanceRepository());
+        TestFields.set(result, "contractRepository", repository(ContractRepository.class, args -> Collections.emptyList()));
+        TestFields.set(result, "networkProvider", new NetworkProvider());
+        TestFields.set(result, "enabled", true);
+        TestFields.set(result, "bloomFilter", bloomFilter);
+        TestFields.set(result, "bloomFilterFpp", 0.01);
+        TestFields.set(result, "pendingFilter", false);
+        TestFields.set(result, "syncIdWindow", 10);
+        return result;
+    }
+
+    private UserSiteBalanceRepository userSiteBalanceRepository() {
+        return (UserSiteBalanceRepository) Proxy.newProxyInstance(
+                getClass().getClassLoader(),
+                new Class<?>[] {UserSiteBalanceRepository.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "findMaxId":
+                            return balances.stream()
+                                    .map(row -> Integer.valueOf(row[0]))
+                                    .max(Integer::compare)
+                                    .orElse(null);
+                        case "findAllEthAddresses":
+                            return addresses(1, 0, Integer.MAX_VALUE);
+                        case "findAllBtcAddresses":
+                            return addresses(2, 0, Integer.MAX_VALUE);
+                        case "findAllTronAddresses":
+                            return addresses(3, 0, Integer.MAX_VALUE);
+                        case "findEthAddressesByIdRange":
+                            return addresses(1, (Integer) args[0], (Integer) args[1]);
+                        case "findBtcAddressesByIdRange":
+                            return addresses(2, (Integer) args[0], (Integer) args[1]);
+                        case "findTronAddressesByIdRange":
+                            return addresses(3, (Integer) args[0], (Integer) args[1]);
+                        default:
+                            throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+    }
+
+    private List<String> addresses(int column, int fromId, int toId) {
+        return balances.stream()
+                .filter(row -> Integer.parseInt(row[0]) > fromId && Integer.parseInt(row[0]) <= toId)
+                .map(row -> row[column])
+                .filter(address -> address != null)
+                .collect(Collectors.toList());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T repository(Class<T> type, Function<Object[], Object> answer) {
+        return (T) Proxy.newProxyInstance(
+                WatchedAddressIndexTest.class.getClassLoader(),
+                new Class<?>[] {type},
+                (proxy, method, args) -> answer.apply(args));
+    }
+
+    private static class BtcNetworkStub extends WrapperNetworkStub {
+        private final List<Long> recheckSince = new ArrayList<>();
+
+        BtcNetworkStub() {
+            super(NetworkType.BTC_MAINNET);
+        }
+
+        @Override
+        public void recheckPendingTransactions(long since) {
+            recheckSince.add(since);
+        }
+
+        @Override
+        public boolean isPendingTransactionsSupported() {
+            return true;
+        }
+    }
+}
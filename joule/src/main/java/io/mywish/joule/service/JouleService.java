@@ -33,9 +33,7 @@ public class JouleService {
 
     @EventListener
     protected void onNewBlockEvent(NewBlockEvent newBlockEvent) {
-        List<WrapperTransaction> transactions = newBlockEvent
-                .getTransactionsByAddress()
-                .get(jouleAddress.toLowerCase());
+        List<WrapperTransaction> transactions = newBlockEvent.getTransactions(jouleAddress);
         if (transactions == null || transactions.isEmpty()) {
             return;
         }
@@ -45,7 +43,7 @@ public class JouleService {
                 continue;
             }
 
-            if (!jouleAddress.equalsIgnoreCase(transaction.getOutputs().get(0).getAddress().toLowerCase())) {
+            if (!transaction.getOutputs().get(0).getCanonicalAddress().matches(jouleAddress)) {
                 continue;
             }
 
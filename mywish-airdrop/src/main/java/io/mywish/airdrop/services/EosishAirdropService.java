@@ -85,11 +85,11 @@ public class EosishAirdropService {
 
     @EventListener
     protected void onNewBlock(NewBlockEvent event) {
-        if (!event.getTransactionsByAddress().containsKey(tokenAccount)) {
+        List<WrapperTransaction> transactions = event.getTransactions(tokenAccount);
+        if (transactions == null) {
             return;
         }
-        event.getTransactionsByAddress()
-                .get(tokenAccount)
+        transactions
                 .stream()
                 .map(WrapperTransaction::getHash)
                 .peek(log::info)
@@ -0,0 +1,26 @@
+package io.lastwill.eventscan.events.model;
+
+import io.lastwill.eventscan.model.CryptoCurrency;
+import io.lastwill.eventscan.model.NetworkType;
+import io.lastwill.eventscan.model.UserSiteBalance;
+import io.mywish.blockchain.WrapperTransaction;
+import lombok.Getter;
+
+import java.math.BigInteger;
+
+/**
+ * Payment to the user balance which is not confirmed yet: it is in the mempool or in a block at the chain tip.
+ * Balances are credited only by {@link UserPaymentEvent}, published when the payment is confirmed.
+ * When the transaction left the mempool or its block left the chain, the event is published again as rejected.
+ */
+@Getter
+public class UnconfirmedUserPaymentEvent extends PaymentEvent {
+    private final UserSiteBalance userSiteBalance;
+    private final boolean rejected;
+
+    public UnconfirmedUserPaymentEvent(NetworkType networkType, WrapperTransaction transaction, String address, BigInteger amount, CryptoCurrency currency, boolean isSuccess, UserSiteBalance userSiteBalance, boolean rejected) {
+        super(networkType, transaction, address, amount, currency, isSuccess);
+        this.userSiteBalance = userSiteBalance;
+        this.rejected = rejected;
+    }
+}
@@ -15,6 +15,12 @@ public interface ContractRepository extends CrudRepository<Contract, Integer> {
     @Query("select c from Contract c where c.product.network.type = :network and lower(c.address) in :addresses")
     List<Contract> findByAddressesList(@Param("addresses") Collection<String> addresses, @Param("network") NetworkType network);
 
+    @Query("select distinct lower(c.address) from Contract c where c.product.network.type = :network and c.address is not null")
+    List<String> findAddressesByNetwork(@Param("network") NetworkType network);
+
+    @Query("select c from Contract c where c.product.network.type = :network and (lower(c.address) in :addresses or lower(c.txHash) in :hashes)")
+    List<Contract> findByAddressesOrTxHashes(@Param("addresses") Collection<String> addresses, @Param("hashes") Collection<String> hashes, @Param("network") NetworkType network);
+
     @Query("select c from Contract c where c.product = :product")
     List<Contract> findByProduct(@Param("product") Product product);
 
@@ -19,6 +19,27 @@ public interface UserSiteBalanceRepository extends CrudRepository<UserSiteBalanc
     @Query("select c from UserSiteBalance c where c.tronAddress in :addresses")
     List<UserSiteBalance> findByTronAddressesList(@Param("addresses") Collection<String> addresses);
 
+    @Query("select c.ethAddress from UserSiteBalance c where c.ethAddress is not null")
+    List<String> findAllEthAddresses();
+
+    @Query("select c.btcAddress from UserSiteBalance c where c.btcAddress is not null")
+    List<String> findAllBtcAddresses();
+
+    @Query("select c.tronAddress from UserSiteBalance c where c.tronAddress is not null")
+    List<String> findAllTronAddresses();
+
+    @Query("select max(c.id) from UserSiteBalance c")
+    Integer findMaxId();
+
+    @Query("select c.ethAddress from UserSiteBalance c where c.ethAddress is not null and c.id > :fromId and c.id <= :toId")
+    List<String> findEthAddressesByIdRange(@Param("fromId") int fromId, @Param("toId") int toId);
+
+    @Query("select c.btcAddress from UserSiteBalance c where c.btcAddress is not null and c.id > :fromId and c.id <= :toId")
+    List<String> findBtcAddressesByIdRange(@Param("fromId") int fromId, @Param("toId") int toId);
+
+    @Query("select c.tronAddress from UserSiteBalance c where c.tronAddress is not null and c.id > :fromId and c.id <= :toId")
+    List<String> findTronAddressesByIdRange(@Param("fromId") int fromId, @Param("toId") int toId);
+
     @Query("select c from UserSiteBalance c where c.ethAddress = :address")
     UserSiteBalance findByEthAddress(@Param("address") String internalAddress);
 
@@ -1,9 +1,13 @@
 package io.mywish.scanner;
 
 import io.lastwill.eventscan.model.NetworkType;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
 import io.mywish.blockchain.WrapperModule;
 import io.mywish.scanner.services.PendingTransactionService;
+import io.mywish.scanner.services.TimingEventListenerFactory;
+import io.mywish.scanner.services.TimingEventMulticaster;
 import org.springframework.context.annotation.*;
+import org.springframework.context.support.AbstractApplicationContext;
 import org.springframework.context.support.PropertySourcesPlaceholderConfigurer;
 
 @Configuration
@@ -16,6 +20,24 @@ public class ScannerModule {
         return new PropertySourcesPlaceholderConfigurer();
     }
 
+    @Bean(name = AbstractApplicationContext.APPLICATION_EVENT_MULTICASTER_BEAN_NAME)
+    public TimingEventMulticaster applicationEventMulticaster() {
+        return new TimingEventMulticaster();
+    }
+
+    @Bean
+    public TimingEventListenerFactory timingEventListenerFactory() {
+        return new TimingEventListenerFactory();
+    }
+
+    /**
+     * Registries to export metrics are added by the application.
+     */
+    @Bean
+    public CompositeMeterRegistry meterRegistry() {
+        return new CompositeMeterRegistry();
+    }
+
     @Bean
     public PendingTransactionService pendingTransactionServiceMain() {
         return new PendingTransactionService(NetworkType.ETHEREUM_MAINNET);
@@ -35,4 +57,14 @@ public class ScannerModule {
     public PendingTransactionService pendingTransactionServiceEosTestnet() {
         return new PendingTransactionService(NetworkType.EOS_TESTNET);
     }
+
+    @Bean
+    public PendingTransactionService pendingTransactionServiceBtcMain() {
+        return new PendingTransactionService(NetworkType.BTC_MAINNET);
+    }
+
+    @Bean
+    public PendingTransactionService pendingTransactionServiceBtcTestnet() {
+        return new PendingTransactionService(NetworkType.BTC_TESTNET_3);
+    }
 }
@@ -0,0 +1,20 @@
+package io.mywish.scanner.model;
+
+import io.lastwill.eventscan.events.model.BaseEvent;
+import io.lastwill.eventscan.model.NetworkType;
+import io.mywish.blockchain.WrapperBlock;
+import lombok.Getter;
+
+/**
+ * The block was already published by {@link NewTipBlockEvent}, but left the chain. Blocks of the new chain
+ * with the same numbers are published again by {@link NewTipBlockEvent}.
+ */
+@Getter
+public class BlockRollbackEvent extends BaseEvent {
+    private final WrapperBlock block;
+
+    public BlockRollbackEvent(NetworkType networkType, WrapperBlock block) {
+        super(networkType);
+        this.block = block;
+    }
+}
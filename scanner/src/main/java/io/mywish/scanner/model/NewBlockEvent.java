@@ -2,19 +2,77 @@ package io.mywish.scanner.model;
 
 import io.lastwill.eventscan.events.model.BaseEvent;
 import io.lastwill.eventscan.model.NetworkType;
+import io.mywish.blockchain.Address;
 import io.mywish.blockchain.WrapperBlock;
 import io.mywish.blockchain.WrapperTransaction;
+import lombok.AccessLevel;
 import lombok.Getter;
 import org.springframework.util.MultiValueMap;
 
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
 @Getter
 public class NewBlockEvent extends BaseEvent {
     private final WrapperBlock block;
-    private final MultiValueMap<String, WrapperTransaction> transactionsByAddress;
+    private final MultiValueMap<Address, WrapperTransaction> transactionsByAddress;
+    @Getter(AccessLevel.NONE)
+    private final Map<String, Object> context = new ConcurrentHashMap<>();
+    @Getter(AccessLevel.NONE)
+    private volatile Set<String> addresses;
 
-    public NewBlockEvent(NetworkType networkType, WrapperBlock block, MultiValueMap<String, WrapperTransaction> transactionsByAddress) {
+    public NewBlockEvent(NetworkType networkType, WrapperBlock block, MultiValueMap<Address, WrapperTransaction> transactionsByAddress) {
         super(networkType);
         this.block = block;
         this.transactionsByAddress = transactionsByAddress;
     }
-}
\ No newline at end of file
+
+    /**
+     * @param address address in any case.
+     * @return transactions of the address or null if there is not any.
+     */
+    public List<WrapperTransaction> getTransactions(String address) {
+        return address == null ? null : transactionsByAddress.get(Address.of(address));
+    }
+
+    /**
+     * @return canonical strings of all block addresses, hex addresses are in lower case.
+     */
+    public Set<String> getAddresses() {
+        Set<String> result = addresses;
+        if (result == null) {
+            result = new HashSet<>(transactionsByAddress.size() * 4 / 3 + 1);
+            for (Address address : transactionsByAddress.keySet()) {
+                result.add(address.toString());
+            }
+            result = Collections.unmodifiableSet(result);
+            addresses = result;
+        }
+        return result;
+    }
+
+    /**
+     * Values resolved for the block once and shared by all listeners, e.g. contracts found in DB.
+     * The supplier is called only by the first listener asking for the key.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T getContextValue(String key, Supplier<T> supplier) {
+        Object value = context.get(key);
+        if (value == null) {
+            // not computeIfAbsent: suppliers may ask for other values of the same block
+            synchronized (context) {
+                value = context.get(key);
+                if (value == null) {
+                    value = supplier.get();
+                    context.put(key, value);
+                }
+            }
+        }
+        return (T) value;
+    }
+}
@@ -5,13 +5,40 @@ import io.lastwill.eventscan.model.NetworkType;
 import io.mywish.blockchain.WrapperTransaction;
 import lombok.Getter;
 
+import java.util.Collections;
 import java.util.List;
 
 @Getter
 public class NewPendingTransactionsEvent extends BaseEvent {
     private final List<WrapperTransaction> pendingTransactions;
+    /**
+     * Hashes which left the node pending list: mined or dropped.
+     */
+    private final List<String> droppedHashes;
+    /**
+     * New pending transactions rejected by the network pending output filter, they are not in the list.
+     */
+    private final long filteredCount;
+
     public NewPendingTransactionsEvent(NetworkType networkType, List<WrapperTransaction> pendingTransactions) {
+        this(networkType, pendingTransactions, Collections.emptyList());
+    }
+
+    public NewPendingTransactionsEvent(NetworkType networkType, List<WrapperTransaction> pendingTransactions, List<String> droppedHashes) {
+        this(networkType, pendingTransactions, droppedHashes, 0);
+    }
+
+    public NewPendingTransactionsEvent(NetworkType networkType, List<WrapperTransaction> pendingTransactions, List<String> droppedHashes, long filteredCount) {
         super(networkType);
         this.pendingTransactions = pendingTransactions;
+        this.droppedHashes = droppedHashes;
+        this.filteredCount = filteredCount;
+    }
+
+    /**
+     * @return how many new pending transactions the node had, before the pending output filter.
+     */
+    public long getTotalCount() {
+        return pendingTransactions.size() + filteredCount;
     }
 }
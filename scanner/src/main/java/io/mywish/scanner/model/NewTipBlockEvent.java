@@ -0,0 +1,20 @@
+package io.mywish.scanner.model;
+
+import io.lastwill.eventscan.events.model.BaseEvent;
+import io.lastwill.eventscan.model.NetworkType;
+import io.mywish.blockchain.WrapperBlock;
+import lombok.Getter;
+
+/**
+ * The block at the chain tip in head-following mode. It may still leave the chain by {@link BlockRollbackEvent},
+ * {@link NewBlockEvent} is published for it only when it gets enough confirmations.
+ */
+@Getter
+public class NewTipBlockEvent extends BaseEvent {
+    private final WrapperBlock block;
+
+    public NewTipBlockEvent(NetworkType networkType, WrapperBlock block) {
+        super(networkType);
+        this.block = block;
+    }
+}
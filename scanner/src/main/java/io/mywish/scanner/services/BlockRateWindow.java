@@ -0,0 +1,91 @@
+package io.mywish.scanner.services;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Counts blocks over the sliding window split into fixed number of buckets and keeps the latest inter-arrival times
+ * in a ring. Both recording and querying cost does not depend on the block rate; there are no locks.
+ */
+public class BlockRateWindow {
+    private final long window;
+    private final long bucketWidth;
+    private final int bucketCount;
+    private final AtomicLongArray bucketCounts;
+    private final AtomicLongArray bucketIndexes;
+
+    private final AtomicLongArray intervals;
+    private final AtomicLong intervalCount = new AtomicLong();
+    private final AtomicLong lastArrival = new AtomicLong(-1);
+
+    /**
+     * @param window    window length, ms.
+     * @param buckets   amount of buckets, the window slides by window/buckets steps.
+     * @param samples   amount of the latest inter-arrival times for percentiles.
+     */
+    public BlockRateWindow(long window, int buckets, int samples) {
+        this.bucketCount = buckets;
+        this.bucketWidth = Math.max(1, window / buckets);
+        this.window = bucketWidth * buckets;
+        this.bucketCounts = new AtomicLongArray(buckets);
+        this.bucketIndexes = new AtomicLongArray(buckets);
+        for (int i = 0; i < buckets; i++) {
+            bucketIndexes.set(i, -1);
+        }
+        this.intervals = new AtomicLongArray(samples);
+    }
+
+    public void record(long timestamp) {
+        long index = timestamp / bucketWidth;
+        int slot = (int) (index % bucketCount);
+        long slotIndex = bucketIndexes.get(slot);
+        if (slotIndex != index && bucketIndexes.compareAndSet(slot, slotIndex, index)) {
+            bucketCounts.set(slot, 0);
+        }
+        bucketCounts.incrementAndGet(slot);
+
+        long previous = lastArrival.getAndSet(timestamp);
+        if (previous >= 0 && timestamp >= previous) {
+            long position = intervalCount.getAndIncrement();
+            intervals.set((int) (position % intervals.length()), timestamp - previous);
+        }
+    }
+
+    /**
+     * @return amount of blocks recorded within the window before the timestamp.
+     */
+    public long count(long timestamp) {
+        long index = timestamp / bucketWidth;
+        long count = 0;
+        for (int slot = 0; slot < bucketCount; slot++) {
+            long slotIndex = bucketIndexes.get(slot);
+            if (slotIndex > index - bucketCount && slotIndex <= index) {
+                count += bucketCounts.get(slot);
+            }
+        }
+        return count;
+    }
+
+    public long getWindow() {
+        return window;
+    }
+
+    /**
+     * @param percentile from 0 to 100.
+     * @return inter-arrival time in ms among the latest samples or null if there are not any.
+     */
+    public Long getIntervalPercentile(double percentile) {
+        int size = (int) Math.min(intervalCount.get(), intervals.length());
+        if (size == 0) {
+            return null;
+        }
+        long[] values = new long[size];
+        for (int i = 0; i < size; i++) {
+            values[i] = intervals.get(i);
+        }
+        Arrays.sort(values);
+        int rank = (int) Math.ceil(percentile / 100 * size) - 1;
+        return values[Math.max(0, Math.min(size - 1, rank))];
+    }
+}
@@ -1,13 +1,10 @@
-package io.lastwill.eventscan.services;
+package io.mywish.scanner.services;
 
+import io.mywish.blockchain.WrapperBlock;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.var;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.stereotype.Component;
-import org.web3j.protocol.core.methods.response.EthBlock;
-import org.web3j.protocol.core.methods.response.EthBlock.Block;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -17,7 +14,9 @@ import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
-@Component
+/**
+ * Tracks parents of the recent blocks of one network and decides which blocks got enough confirmations.
+ */
 @Slf4j
 public class CommitmentService {
     public enum Status {
@@ -27,14 +26,14 @@ public class CommitmentService {
     }
 
     private final int maxChainSize = 64;
-    private final ConcurrentHashMap<String, Block> blockChain = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, WrapperBlock> blockChain = new ConcurrentHashMap<>();
     private final ConcurrentHashMap<Long, List<Holder<?>>> register = new ConcurrentHashMap<>();
     private final AtomicLong lowWaiterNo = new AtomicLong(Long.MAX_VALUE);
     private final AtomicLong lowBlockNo = new AtomicLong(Long.MAX_VALUE);
     private final int requiredChainLength;
     private int cleanChainSize = maxChainSize * 2;
 
-    public CommitmentService(@Value("${io.lastwill.eventscan.commit-chain-length}") int requiredChainLength) {
+    public CommitmentService(int requiredChainLength) {
         this.requiredChainLength = requiredChainLength;
     }
 
@@ -44,8 +43,8 @@ public class CommitmentService {
      * @param block New block.
      * @return True if parent of this black was found in blockchain, and it is not empty blockchain.
      */
-    public Status addBlock(EthBlock.Block block) {
-        long blockNo = block.getNumber().longValue();
+    public Status addBlock(WrapperBlock block) {
+        long blockNo = block.getNumber();
         if (blockChain.containsKey(block.getHash())) {
             return Status.DUPLICATE;
         }
@@ -82,6 +81,13 @@ public class CommitmentService {
         }
     }
 
+    /**
+     * @return block from the tracked window or null if it is unknown or already cleaned up.
+     */
+    public WrapperBlock getBlock(String hash) {
+        return blockChain.get(hash);
+    }
+
     public <T> void waitCommitment(String blockHash, long blockNumber, T payload, Handler<T> handler) {
         register.putIfAbsent(blockNumber, new ArrayList<>());
 
@@ -116,15 +122,15 @@ public class CommitmentService {
         return completableFuture;
     }
 
-    private void validateChain(Block childBlock, long initialBlockNo) {
+    private void validateChain(WrapperBlock childBlock, long initialBlockNo) {
         var block = blockChain.get(childBlock.getParentHash());
         if (block == null) {
-            if (lowWaiterNo.get() < childBlock.getNumber().longValue()) {
-                log.error("Broken chain on level {}, but there is lowest waiters at {}.", childBlock.getNumber().longValue(), lowWaiterNo.get());
+            if (lowWaiterNo.get() < childBlock.getNumber()) {
+                log.error("Broken chain on level {}, but there is lowest waiters at {}.", childBlock.getNumber(), lowWaiterNo.get());
             }
             return;
         }
-        long blockNo = block.getNumber().longValue();
+        long blockNo = block.getNumber();
         int delta = (int) (initialBlockNo - blockNo);
         if (delta < requiredChainLength) {
             // just go deeper
@@ -154,8 +160,8 @@ public class CommitmentService {
         long lowBlock = Math.max(lowWaiterNo.get() - maxChainSize, 1);
         blockChain.values()
                 .stream()
-                .filter(block -> block.getNumber().longValue() <= lowBlock)
-                .map(Block::getHash)
+                .filter(block -> block.getNumber() <= lowBlock)
+                .map(WrapperBlock::getHash)
                 .collect(Collectors.toList())
                 .forEach(blockChain::remove);
     }
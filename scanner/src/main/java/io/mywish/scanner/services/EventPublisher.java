@@ -1,16 +1,113 @@
 package io.mywish.scanner.services;
 
 import io.lastwill.eventscan.events.model.BaseEvent;
+import io.lastwill.eventscan.model.NetworkType;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Component;
 
+import javax.annotation.PreDestroy;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In async mode events are handled on a single thread per network, so events of one network keep their order
+ * and slow listeners do not delay the scanner until the network queue is full.
+ * Events published by listeners themselves are handled immediately in the same thread, as in sync mode.
+ */
+@Slf4j
 @Component
 public class EventPublisher {
+    private static final ThreadLocal<Boolean> laneThread = ThreadLocal.withInitial(() -> false);
+
     @Autowired
     private ApplicationEventPublisher applicationEventPublisher;
 
+    @Value("${etherscanner.event-publisher.async:false}")
+    private boolean async;
+
+    @Value("${etherscanner.event-publisher.queue-size:100}")
+    private int queueSize;
+
+    @Value("${etherscanner.event-publisher.shutdown-timeout-ms:10000}")
+    private long shutdownTimeoutMs;
+
+    private final Map<NetworkType, ThreadPoolExecutor> lanes = new ConcurrentHashMap<>();
+
     public void publish(BaseEvent event) {
-        applicationEventPublisher.publishEvent(event);
+        if (!async || event.getNetworkType() == null || laneThread.get()) {
+            applicationEventPublisher.publishEvent(event);
+            return;
+        }
+        getLane(event.getNetworkType()).execute(() -> {
+            try {
+                applicationEventPublisher.publishEvent(event);
+            }
+            catch (Throwable e) {
+                log.error("Handling {} event {} failed.", event.getNetworkType(), event.getClass().getSimpleName(), e);
+            }
+        });
+    }
+
+    public Map<NetworkType, Integer> getQueueSizes() {
+        Map<NetworkType, Integer> result = new EnumMap<>(NetworkType.class);
+        lanes.forEach((networkType, lane) -> result.put(networkType, lane.getQueue().size()));
+        return result;
+    }
+
+    private ThreadPoolExecutor getLane(NetworkType networkType) {
+        return lanes.computeIfAbsent(networkType, type -> new ThreadPoolExecutor(
+                1,
+                1,
+                0L,
+                TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueSize),
+                runnable -> {
+                    Thread thread = new Thread(() -> {
+                        laneThread.set(true);
+                        runnable.run();
+                    }, type + "-events");
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                (runnable, executor) -> {
+                    if (executor.isShutdown()) {
+                        log.warn("{} event queue is closed, handle event in caller thread.", type);
+                        runnable.run();
+                        return;
+                    }
+                    try {
+                        // block the scanner until the lane has a free slot
+                        executor.getQueue().put(runnable);
+                    }
+                    catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new RuntimeException("Interrupted while waiting for " + type + " event queue.", e);
+                    }
+                }
+        ));
+    }
+
+    @PreDestroy
+    private void close() {
+        lanes.values().forEach(ThreadPoolExecutor::shutdown);
+        for (Map.Entry<NetworkType, ThreadPoolExecutor> entry : lanes.entrySet()) {
+            try {
+                if (!entry.getValue().awaitTermination(shutdownTimeoutMs, TimeUnit.MILLISECONDS)) {
+                    log.warn("{} event queue was not drained in {} ms, {} events left.",
+                            entry.getKey(), shutdownTimeoutMs, entry.getValue().getQueue().size());
+                }
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
     }
 }
@@ -0,0 +1,121 @@
+package io.mywish.scanner.services;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Stores last block by the wrapped persister from a background thread: every flushBlocks blocks or every
+ * flushInterval ms, only the latest value. Rollbacks to a lower block and close() are flushed synchronously.
+ * Durability: after a crash the scanner restarts at most flushBlocks blocks or flushInterval ms behind,
+ * so these blocks are processed again.
+ */
+@Slf4j
+public class LastBlockCoalescingPersister implements LastBlockPersister {
+    private final String name;
+    private final LastBlockPersister persister;
+    private final int flushBlocks;
+    private final long flushInterval;
+
+    private final Object flushSync = new Object();
+    private ScheduledExecutorService executor;
+    private volatile boolean closed;
+
+    private Long pendingBlock;
+    private int pendingCount;
+    private Long flushedBlock;
+
+    public LastBlockCoalescingPersister(String name, LastBlockPersister persister, int flushBlocks, long flushInterval) {
+        this.name = name;
+        this.persister = persister;
+        this.flushBlocks = flushBlocks;
+        this.flushInterval = flushInterval;
+    }
+
+    @Override
+    public void open() {
+        persister.open();
+        Long lastBlock = persister.getLastBlock();
+        if (lastBlock != null) {
+            flushedBlock = lastBlock;
+        }
+        closed = false;
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, name + "-checkpoint");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::flushSafe, flushInterval, flushInterval, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        if (executor != null) {
+            executor.shutdown();
+            try {
+                executor.awaitTermination(flushInterval, TimeUnit.MILLISECONDS);
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        flushSafe();
+        persister.close();
+    }
+
+    @Override
+    public synchronized Long getLastBlock() {
+        return pendingBlock != null ? pendingBlock : persister.getLastBlock();
+    }
+
+    @Override
+    public void saveLastBlock(long blockNumber) {
+        boolean flushNow;
+        boolean flushInBackground;
+        synchronized (this) {
+            pendingBlock = blockNumber;
+            pendingCount++;
+            flushNow = closed || (flushedBlock != null && blockNumber < flushedBlock);
+            flushInBackground = pendingCount >= flushBlocks;
+        }
+        if (flushNow) {
+            flushSafe();
+        }
+        else if (flushInBackground) {
+            try {
+                executor.execute(this::flushSafe);
+            }
+            catch (Exception e) {
+                flushSafe();
+            }
+        }
+    }
+
+    private void flushSafe() {
+        synchronized (flushSync) {
+            Long block;
+            synchronized (this) {
+                block = pendingBlock;
+                if (block == null) {
+                    return;
+                }
+                pendingCount = 0;
+            }
+            try {
+                persister.saveLastBlock(block);
+                synchronized (this) {
+                    flushedBlock = block;
+                    if (pendingBlock != null && pendingBlock.equals(block)) {
+                        pendingBlock = null;
+                    }
+                }
+            }
+            catch (Exception e) {
+                log.warn("{}: saving last block {} failed, will retry.", name, block, e);
+            }
+        }
+    }
+}
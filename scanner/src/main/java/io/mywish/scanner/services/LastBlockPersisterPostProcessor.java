@@ -0,0 +1,35 @@
+package io.mywish.scanner.services;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Wraps every last block persister bean into {@link LastBlockCoalescingPersister} when async checkpoints are enabled.
+ */
+@Slf4j
+@Component
+public class LastBlockPersisterPostProcessor implements BeanPostProcessor {
+    @Value("${etherscanner.checkpoint.async:false}")
+    private boolean async;
+    @Value("${etherscanner.checkpoint.flush-blocks:100}")
+    private int flushBlocks;
+    @Value("${etherscanner.checkpoint.flush-interval-ms:5000}")
+    private long flushInterval;
+
+    @Override
+    public Object postProcessBeforeInitialization(Object bean, String beanName) throws BeansException {
+        return bean;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException {
+        if (!async || !(bean instanceof LastBlockPersister) || bean instanceof LastBlockCoalescingPersister) {
+            return bean;
+        }
+        log.info("Last block of {} is saved every {} blocks or {} ms.", beanName, flushBlocks, flushInterval);
+        return new LastBlockCoalescingPersister(beanName, (LastBlockPersister) bean, flushBlocks, flushInterval);
+    }
+}
@@ -6,29 +6,47 @@ import io.lastwill.eventscan.model.NetworkType;
 import io.mywish.scanner.model.NewBlockEvent;
 import io.mywish.scanner.model.NewPendingTransactionsEvent;
 import io.mywish.blockchain.WrapperBlock;
+import io.mywish.blockchain.WrapperOutput;
 import io.mywish.blockchain.WrapperTransaction;
+import lombok.EqualsAndHashCode;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.event.EventListener;
 
-import java.time.LocalDateTime;
-import java.time.ZoneOffset;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * Pending transactions are kept in insertion order. All entries live the same ttl, so the eldest entry always
+ * expires first and expiration as well as eviction by the count or byte limit take O(1) per transaction.
+ * Hex hashes are stored as 4 longs instead of Strings.
+ */
 @Slf4j
 public class PendingTransactionService {
+    private final static int TRANSACTION_OVERHEAD = 96;
+    private final static int OUTPUT_OVERHEAD = 96;
+    private final static int ENTRY_OVERHEAD = 112;
+
     @Autowired
     private EventPublisher eventPublisher;
     @Value("${etherscanner.pending-transactions-threshold:0}")
     private int transactionsThreshold;
+    @Value("${etherscanner.pending-transactions-max-bytes:0}")
+    private long maxBytes;
+    @Value("${etherscanner.pending-transactions-ttl-ms:0}")
+    private long ttl;
 
     private final NetworkType networkType;
-    private final TreeMap<LocalDateTime, List<String>> transactionsByTime = new TreeMap<>();
-    private final HashMap<String, WrapperTransaction> transactionsByHash = new HashMap<>();
+    private final LinkedHashMap<Object, Entry> transactionsByHash = new LinkedHashMap<>();
+    private long bytes;
+
+    private final AtomicLong addedCount = new AtomicLong();
+    private final AtomicLong acceptedCount = new AtomicLong();
+    private final AtomicLong timeoutCount = new AtomicLong();
 
     public PendingTransactionService(NetworkType networkType) {
         this.networkType = networkType;
@@ -40,18 +58,33 @@ public class PendingTransactionService {
             return;
         }
 
-        LocalDateTime now = LocalDateTime.now(ZoneOffset.UTC);
-        List<WrapperTransaction> transactions = event.getPendingTransactions();
-        if (transactions.isEmpty()) {
-            return;
+        if (!event.getDroppedHashes().isEmpty()) {
+            // mined transactions leave the node list before their block is processed, so they are kept here
+            // until the block accepts them or ttl is over
+            log.debug("{}: {} transactions left node pending list.", networkType, event.getDroppedHashes().size());
         }
-        List<String> hashes = transactionsByTime.getOrDefault(now, new ArrayList<>());
-        for (WrapperTransaction wrapperTransaction : transactions) {
-            if (transactionsByHash.containsKey(wrapperTransaction.getHash())) {
-                continue;
+        List<WrapperTransaction> transactions = event.getPendingTransactions();
+        long now = System.currentTimeMillis();
+        List<WrapperTransaction> added = new ArrayList<>();
+        List<WrapperTransaction> removed = new ArrayList<>();
+        int size;
+        synchronized (this) {
+            for (WrapperTransaction wrapperTransaction : transactions) {
+                Object key = toKey(wrapperTransaction.getHash());
+                if (transactionsByHash.containsKey(key)) {
+                    continue;
+                }
+                Entry entry = new Entry(wrapperTransaction, now, estimateSize(wrapperTransaction));
+                transactionsByHash.put(key, entry);
+                bytes += entry.size;
+                added.add(wrapperTransaction);
             }
-            transactionsByHash.put(wrapperTransaction.getHash(), wrapperTransaction);
-            hashes.add(wrapperTransaction.getHash());
+            removeOutdated(now, removed);
+            size = transactionsByHash.size();
+        }
+        addedCount.addAndGet(added.size());
+
+        for (WrapperTransaction wrapperTransaction : added) {
             try {
                 eventPublisher.publish(new PendingTransactionAddedEvent(
                         networkType,
@@ -62,42 +95,24 @@ public class PendingTransactionService {
                 log.warn("{}: Exception occurs on handling new pending transaction.", networkType, e);
             }
         }
-        transactionsByTime.put(now, hashes);
+        publishTimeouts(removed);
 
-        log.info("{}: {} new transactions, now list has {} transactions, threshold is {}.",
+        if (added.isEmpty() && removed.isEmpty()) {
+            return;
+        }
+        log.info("{}: {} new transactions, {} removed, now list has {} transactions, threshold is {}.",
                 networkType,
-                transactions.size(),
-                transactionsByHash.size(),
+                added.size(),
+                removed.size(),
+                size,
                 transactionsThreshold
         );
-        while (transactionsByHash.size() > transactionsThreshold) {
-            LocalDateTime firstKey = transactionsByTime.firstKey();
-            log.debug("{}: removing pending transaction at {}.", networkType, firstKey);
-            List<String> oldHashes = transactionsByTime.remove(firstKey);
-            for (String hash : oldHashes) {
-                WrapperTransaction transaction = transactionsByHash.remove(hash);
-                if (transaction == null) {
-                    continue;
-                }
-                try {
-                    eventPublisher.publish(new PendingTransactionRemovedEvent(
-                            networkType,
-                            transaction,
-                            PendingTransactionRemovedEvent.Reason.TIMEOUT,
-                            null
-                    ));
-                }
-                catch (Exception e) {
-                    log.warn("{}: Exception occurs on removing outdated transaction.", networkType, e);
-                }
-            }
-        }
-        if (!transactionsByHash.isEmpty()) {
-            log.info("{}: most early pending transaction is at {}.", networkType, transactionsByTime.firstKey());
-        }
     }
 
-
+    /**
+     * Accepts pending transactions of the block and expires outdated ones: with ingress filtering most pending
+     * polls bring nothing new, so blocks are the regular tick for ttl.
+     */
     @EventListener
     public void newBlock(NewBlockEvent event) {
         if (networkType != event.getNetworkType()) {
@@ -105,13 +120,24 @@ public class PendingTransactionService {
         }
 
         WrapperBlock block = event.getBlock();
-        int counter = 0;
-        for (WrapperTransaction transaction : block.getTransactions()) {
-            WrapperTransaction removedTransaction = transactionsByHash.remove(transaction.getHash());
-            if (removedTransaction == null) {
-                continue;
+        List<WrapperTransaction> accepted = new ArrayList<>();
+        List<WrapperTransaction> removed = new ArrayList<>();
+        synchronized (this) {
+            if (transactionsByHash.isEmpty()) {
+                return;
             }
-            counter++;
+            for (WrapperTransaction transaction : block.getTransactions()) {
+                Entry entry = transactionsByHash.remove(toKey(transaction.getHash()));
+                if (entry == null) {
+                    continue;
+                }
+                bytes -= entry.size;
+                accepted.add(entry.transaction);
+            }
+            removeOutdated(System.currentTimeMillis(), removed);
+        }
+        acceptedCount.addAndGet(accepted.size());
+        for (WrapperTransaction removedTransaction : accepted) {
             eventPublisher.publish(new PendingTransactionRemovedEvent(
                     networkType,
                     removedTransaction,
@@ -119,8 +145,140 @@ public class PendingTransactionService {
                     block.getNumber()
             ));
         }
-        if (counter > 0) {
-            log.info("{}: remove transactions {} because of block {}.", networkType, counter, block.getNumber());
+        if (!accepted.isEmpty()) {
+            log.info("{}: remove transactions {} because of block {}.", networkType, accepted.size(), block.getNumber());
+        }
+        publishTimeouts(removed);
+        if (!removed.isEmpty()) {
+            log.info("{}: {} outdated transactions removed.", networkType, removed.size());
+        }
+    }
+
+    public synchronized int getSize() {
+        return transactionsByHash.size();
+    }
+
+    public synchronized long getBytes() {
+        return bytes;
+    }
+
+    public long getAddedCount() {
+        return addedCount.get();
+    }
+
+    public long getAcceptedCount() {
+        return acceptedCount.get();
+    }
+
+    public long getTimeoutCount() {
+        return timeoutCount.get();
+    }
+
+    private void publishTimeouts(List<WrapperTransaction> removed) {
+        timeoutCount.addAndGet(removed.size());
+        for (WrapperTransaction transaction : removed) {
+            try {
+                eventPublisher.publish(new PendingTransactionRemovedEvent(
+                        networkType,
+                        transaction,
+                        PendingTransactionRemovedEvent.Reason.TIMEOUT,
+                        null
+                ));
+            }
+            catch (Exception e) {
+                log.warn("{}: Exception occurs on removing outdated transaction.", networkType, e);
+            }
+        }
+    }
+
+    /**
+     * Removes the eldest transactions while they are outdated or any of the limits is exceeded.
+     */
+    private void removeOutdated(long now, List<WrapperTransaction> removed) {
+        Iterator<Entry> iterator = transactionsByHash.values().iterator();
+        while (iterator.hasNext()) {
+            Entry eldest = iterator.next();
+            boolean outdated = ttl > 0 && now - eldest.addedAt >= ttl;
+            boolean overCount = transactionsByHash.size() > transactionsThreshold;
+            boolean overBytes = maxBytes > 0 && bytes > maxBytes;
+            if (!outdated && !overCount && !overBytes) {
+                break;
+            }
+            iterator.remove();
+            bytes -= eldest.size;
+            removed.add(eldest.transaction);
+        }
+    }
+
+    private static int estimateSize(WrapperTransaction transaction) {
+        int size = TRANSACTION_OVERHEAD;
+        if (transaction.getInputs() != null) {
+            for (String input : transaction.getInputs()) {
+                size += stringSize(input);
+            }
+        }
+        if (transaction.getOutputs() != null) {
+            for (WrapperOutput output : transaction.getOutputs()) {
+                size += OUTPUT_OVERHEAD + stringSize(output.getAddress()) + output.getRetainedScriptSize();
+            }
+        }
+        return size + stringSize(transaction.getHash()) + ENTRY_OVERHEAD;
+    }
+
+    private static int stringSize(String value) {
+        return value == null ? 0 : 40 + 2 * value.length();
+    }
+
+    /**
+     * @return 32 bytes hash packed into {@link Hash32} if the hash is 64 hex digits, otherwise the hash itself.
+     */
+    private static Object toKey(String hash) {
+        if (hash == null) {
+            return "";
+        }
+        int offset = hash.startsWith("0x") || hash.startsWith("0X") ? 2 : 0;
+        if (hash.length() - offset != 64) {
+            return hash;
+        }
+        long[] parts = new long[4];
+        for (int i = 0; i < 64; i++) {
+            int digit = Character.digit(hash.charAt(offset + i), 16);
+            if (digit < 0) {
+                return hash;
+            }
+            parts[i / 16] = (parts[i / 16] << 4) | digit;
+        }
+        return new Hash32(parts[0], parts[1], parts[2], parts[3]);
+    }
+
+    @EqualsAndHashCode
+    private static class Hash32 {
+        private final long part0;
+        private final long part1;
+        private final long part2;
+        private final long part3;
+
+        Hash32(long part0, long part1, long part2, long part3) {
+            this.part0 = part0;
+            this.part1 = part1;
+            this.part2 = part2;
+            this.part3 = part3;
+        }
+    }
+
+    /**
+     * The whole transaction is kept: listeners of the TIMEOUT removal see no block with the transaction,
+     * they read its outputs and scripts and ask the node for its receipt. Its size is counted by maxBytes.
+     */
+    private static class Entry {
+        private final WrapperTransaction transaction;
+        private final long addedAt;
+        private final int size;
+
+        Entry(WrapperTransaction transaction, long addedAt, int size) {
+            this.transaction = transaction;
+            this.addedAt = addedAt;
+            this.size = size;
         }
     }
 }
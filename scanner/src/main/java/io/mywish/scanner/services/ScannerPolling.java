@@ -1,20 +1,36 @@
 package io.mywish.scanner.services;
 
+import io.mywish.scanner.model.BlockRollbackEvent;
 import io.mywish.scanner.model.NewPendingTransactionsEvent;
+import io.mywish.scanner.model.NewTipBlockEvent;
 import io.mywish.blockchain.WrapperBlock;
 import io.mywish.blockchain.WrapperNetwork;
 import io.mywish.blockchain.WrapperTransaction;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 
 import javax.annotation.PostConstruct;
 import javax.annotation.PreDestroy;
+import java.util.Deque;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @Slf4j
 public abstract class ScannerPolling extends Scanner {
     private final Object sync = new Object();
+    private boolean wakeUpRequested;
 
     private Long lastBlockNo;
 
@@ -25,6 +41,76 @@ public abstract class ScannerPolling extends Scanner {
     @Getter
     private final long reachInterval;
 
+    /**
+     * How many blocks may be requested from the node at once while the scanner is behind the chain.
+     * Blocks are still processed strictly one by one in height order. 1 means no prefetch.
+     */
+    @Getter
+    @Value("${etherscanner.prefetch-window:1}")
+    private int prefetchWindow;
+    private ExecutorService prefetchExecutor;
+    /**
+     * Requested blocks in height order, the head is always nextBlockNo.
+     */
+    private final Deque<CompletableFuture<WrapperBlock>> prefetchedBlocks = new ConcurrentLinkedDeque<>();
+    private long nextPrefetchBlockNo;
+
+    /**
+     * Load blocks at the chain tip instead of waiting for commitmentChainLength confirmations and publish them
+     * by NewTipBlockEvent. Parents of the recent blocks are tracked: when the chain is reorganized, orphaned blocks
+     * are rolled back by BlockRollbackEvent and blocks of the new chain are published again.
+     * Payment monitors report payments of tip blocks as unconfirmed and as rejected on rollback. NewBlockEvent,
+     * which balances are credited and contracts are handled by, is published only when a block gets
+     * commitmentChainLength confirmations. The last committed block is persisted, so uncommitted blocks are
+     * loaded again after restart. Networks without parent hash fall back to the usual mode.
+     */
+    @Getter
+    @Value("${etherscanner.head-following:false}")
+    private boolean headFollowing;
+    private CommitmentService commitmentService;
+    private WrapperBlock lastProcessedBlock;
+
+    /**
+     * Wait between cycles is predicted by the median time between chain head changes: halves the remaining time
+     * while the next block is expected and grows with the elapsed time when it is late. The wait is bounded by
+     * pollingInterval multiplied by min and max ratio. Pending transactions are still fetched once per pollingInterval.
+     */
+    @Getter
+    @Value("${etherscanner.adaptive-polling:false}")
+    private boolean adaptivePolling;
+    @Value("${etherscanner.adaptive-polling.min-ratio:0.25}")
+    private double adaptiveMinRatio;
+    @Value("${etherscanner.adaptive-polling.max-ratio:4}")
+    private double adaptiveMaxRatio;
+    private final BlockRateWindow headArrivals = new BlockRateWindow(TimeUnit.HOURS.toMillis(1), 60, 32);
+    private long headChangeTimestamp;
+    private long pendingFetchTimestamp;
+    @Getter
+    private volatile long currentPollingInterval;
+
+    private final CommitmentService.Handler<WrapperBlock> commitmentHandler = new CommitmentService.Handler<WrapperBlock>() {
+        @Override
+        public void committed(long blockNumber, WrapperBlock block, int chainLength) {
+            lastBlockPersister.saveLastBlock(blockNumber);
+            try {
+                processBlock(block);
+            }
+            catch (Exception e) {
+                // the block is committed once, failing the tip block would not process it again
+                log.error("{}: processing of committed block {} failed.", network.getType(), blockNumber, e);
+            }
+        }
+
+        @Override
+        public void rejected(long blockNumber, WrapperBlock block, int chainLength) {
+            log.debug("{}: block {} ({}) is not in the chain.", network.getType(), blockNumber, block.getHash());
+        }
+    };
+
+    @Autowired(required = false)
+    private MeterRegistry meterRegistry;
+    private Timer blockFetchTimer;
+
     protected final AtomicBoolean isTerminated = new AtomicBoolean(false);
 
     private final Runnable poller = () -> {
@@ -42,14 +128,19 @@ public abstract class ScannerPolling extends Scanner {
     private void polling() throws InterruptedException {
         try {
             long start = System.currentTimeMillis();
+            Long previousBlockNo = lastBlockNo;
             lastBlockNo = network.getLastBlock();
             if (log.isDebugEnabled()) {
                 log.debug("Get actual block no: {} ms.", System.currentTimeMillis() - start);
             }
+            if (previousBlockNo != null && lastBlockNo > previousBlockNo) {
+                headChangeTimestamp = System.currentTimeMillis();
+                headArrivals.record(headChangeTimestamp);
+            }
 
             loadNextBlock();
 
-            if (lastBlockNo - nextBlockNo > commitmentChainLength) {
+            if (isReadyToProcess(nextBlockNo)) {
                 if (reachInterval > 0) {
                     Thread.sleep(reachInterval);
                 }
@@ -64,20 +155,28 @@ public abstract class ScannerPolling extends Scanner {
                 log.info("{}: there is no block from {} ms.", network.getType(), interval);
             }
 
-            if (network.isPendingTransactionsSupported()) {
+            if (network.isPendingTransactionsSupported() && isPendingFetchTime()) {
                 log.debug("Get actual list of pending.");
                 List<WrapperTransaction> pendingTxs = network.fetchPendingTransactions();
-                if (!pendingTxs.isEmpty()) {
+                List<String> droppedTxs = network.fetchDroppedPendingTransactions();
+                long filteredCount = network.fetchFilteredPendingCount();
+                if (!pendingTxs.isEmpty() || !droppedTxs.isEmpty() || filteredCount > 0) {
                     eventPublisher.publish(new NewPendingTransactionsEvent(
                             network.getType(),
-                            pendingTxs
+                            pendingTxs,
+                            droppedTxs,
+                            filteredCount
                     ));
                 }
             }
 
             log.debug("All blocks processed, wait new one.");
             synchronized (sync) {
-                sync.wait(pollingInterval);
+                if (!wakeUpRequested) {
+                    currentPollingInterval = nextPollingInterval();
+                    sync.wait(currentPollingInterval);
+                }
+                wakeUpRequested = false;
             }
         } catch (InterruptedException e) {
             throw e;
@@ -87,24 +186,187 @@ public abstract class ScannerPolling extends Scanner {
         }
     }
 
+    /**
+     * Starts the next polling cycle without waiting for the polling interval, e.g. when the node notified about a new block.
+     */
+    protected void wakeUp() {
+        synchronized (sync) {
+            wakeUpRequested = true;
+            sync.notifyAll();
+        }
+    }
+
+    private long nextPollingInterval() {
+        if (!adaptivePolling) {
+            return pollingInterval;
+        }
+        Long expected = headArrivals.getIntervalPercentile(50);
+        if (expected == null) {
+            return pollingInterval;
+        }
+        long elapsed = System.currentTimeMillis() - headChangeTimestamp;
+        long remaining = expected - elapsed;
+        long interval = remaining > 0 ? remaining / 2 : elapsed / 8;
+        long min = Math.max(1, (long) (pollingInterval * adaptiveMinRatio));
+        long max = Math.max(min, (long) (pollingInterval * adaptiveMaxRatio));
+        return Math.max(min, Math.min(max, interval));
+    }
+
+    private boolean isPendingFetchTime() {
+        long now = System.currentTimeMillis();
+        if (adaptivePolling && now - pendingFetchTimestamp < pollingInterval) {
+            return false;
+        }
+        pendingFetchTimestamp = now;
+        return true;
+    }
+
+    private boolean isReadyToProcess(long blockNo) {
+        return headFollowing
+                ? blockNo <= lastBlockNo
+                : lastBlockNo - blockNo > commitmentChainLength;
+    }
+
     private void loadNextBlock() throws Exception {
-        long delta = lastBlockNo - nextBlockNo;
-        if (delta <= getCommitmentChainLength()) {
+        if (!isReadyToProcess(nextBlockNo)) {
             return;
         }
 
         long start = System.currentTimeMillis();
-        WrapperBlock block = network.getBlock(nextBlockNo);
+        WrapperBlock block = prefetchExecutor == null
+                ? network.getBlock(nextBlockNo)
+                : takePrefetchedBlock();
+        if (blockFetchTimer != null) {
+            blockFetchTimer.record(System.currentTimeMillis() - start, TimeUnit.MILLISECONDS);
+        }
         if (log.isDebugEnabled()) {
             log.debug("Get next block: {} ms.", System.currentTimeMillis() - start);
+            if (prefetchExecutor != null) {
+                log.debug("Prefetch: {} blocks in flight, {} blocks buffered.", getPrefetchInFlight(), getPrefetchBuffered());
+            }
         }
 
-        lastBlockIncrementTimestamp = System.currentTimeMillis();
+        try {
+            if (block.getNumber() != null && !block.getNumber().equals(nextBlockNo)) {
+                throw new IllegalStateException(network.getType() + ": block " + block.getNumber()
+                        + " was loaded instead of " + nextBlockNo + ".");
+            }
+
+            if (headFollowing && !followChain(block)) {
+                return;
+            }
 
-        lastBlockPersister.saveLastBlock(nextBlockNo);
+            lastBlockIncrementTimestamp = System.currentTimeMillis();
+
+            if (!headFollowing) {
+                lastBlockPersister.saveLastBlock(nextBlockNo);
+            }
+        }
+        catch (Exception e) {
+            // the block is already taken from the queue but not processed, the rest of the queue does not match nextBlockNo
+            resetPrefetch();
+            throw e;
+        }
         nextBlockNo++;
 
-        processBlock(block);
+        if (headFollowing) {
+            eventPublisher.publish(new NewTipBlockEvent(network.getType(), block));
+        }
+        else {
+            processBlock(block);
+        }
+    }
+
+    /**
+     * @return false if the block must not be processed now: it does not continue the processed blocks, the last
+     * processed block is rolled back then, or the network does not provide parent hashes.
+     */
+    private boolean followChain(WrapperBlock block) throws Exception {
+        if (block.getParentHash() == null) {
+            log.warn("{}: network does not provide parent hash, process blocks after {} confirmations.",
+                    network.getType(), commitmentChainLength);
+            headFollowing = false;
+            resetPrefetch();
+            return false;
+        }
+        if (lastProcessedBlock != null && !lastProcessedBlock.getHash().equals(block.getParentHash())) {
+            WrapperBlock orphan = lastProcessedBlock;
+            log.warn("{}: chain reorganization found at block {}, roll back block {} ({}).",
+                    network.getType(), block.getNumber(), orphan.getNumber(), orphan.getHash());
+            resetPrefetch();
+            eventPublisher.publish(new BlockRollbackEvent(network.getType(), orphan));
+            lastProcessedBlock = commitmentService.getBlock(orphan.getParentHash());
+            if (lastProcessedBlock == null) {
+                log.error("{}: reorganization is deeper than tracked blocks, continue from block {} without checks.",
+                        network.getType(), orphan.getNumber());
+            }
+            nextBlockNo = orphan.getNumber();
+            return false;
+        }
+
+        commitmentService.addBlock(block);
+        commitmentService.waitCommitment(block.getHash(), block.getNumber(), block, commitmentHandler);
+        lastProcessedBlock = block;
+        return true;
+    }
+
+    private WrapperBlock takePrefetchedBlock() throws Exception {
+        if (prefetchedBlocks.isEmpty()) {
+            nextPrefetchBlockNo = nextBlockNo;
+        }
+        // the same condition as in loadNextBlock: only blocks ready to process are requested
+        while (prefetchedBlocks.size() < prefetchWindow && isReadyToProcess(nextPrefetchBlockNo)) {
+            final long blockNo = nextPrefetchBlockNo++;
+            prefetchedBlocks.addLast(CompletableFuture.supplyAsync(() -> {
+                try {
+                    return network.getBlock(blockNo);
+                }
+                catch (Exception e) {
+                    throw new RuntimeException(e);
+                }
+            }, prefetchExecutor));
+        }
+
+        try {
+            return prefetchedBlocks.removeFirst().get();
+        }
+        catch (ExecutionException e) {
+            resetPrefetch();
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException && cause.getCause() instanceof Exception) {
+                throw (Exception) cause.getCause();
+            }
+            throw e;
+        }
+        catch (InterruptedException e) {
+            resetPrefetch();
+            throw e;
+        }
+    }
+
+    private void resetPrefetch() {
+        CompletableFuture<WrapperBlock> future;
+        while ((future = prefetchedBlocks.pollFirst()) != null) {
+            future.cancel(true);
+        }
+    }
+
+    /**
+     * @return how many prefetched blocks are still being loaded from the node.
+     */
+    public int getPrefetchInFlight() {
+        return (int) prefetchedBlocks.stream()
+                .filter(future -> !future.isDone())
+                .count();
+    }
+
+    /**
+     * @return how many prefetched blocks are already loaded and wait until previous blocks are processed.
+     */
+    public int getPrefetchBuffered() {
+        return (int) prefetchedBlocks.stream()
+                .filter(CompletableFuture::isDone)
+                .count();
     }
 
 
@@ -132,6 +394,7 @@ public abstract class ScannerPolling extends Scanner {
         try {
             lastBlockNo = network.getLastBlock();
             lastBlockIncrementTimestamp = System.currentTimeMillis();
+            headChangeTimestamp = lastBlockIncrementTimestamp;
             if (nextBlockNo == null) {
                 nextBlockNo = lastBlockNo - commitmentChainLength;
             }
@@ -141,6 +404,44 @@ public abstract class ScannerPolling extends Scanner {
             log.error("{} sending failed.", network.getType());
             throw e;
         }
+
+        if (headFollowing) {
+            commitmentService = new CommitmentService(commitmentChainLength);
+            log.info("{}: process blocks at the chain tip, {} confirmations to commit.", network.getType(), commitmentChainLength);
+        }
+
+        if (prefetchWindow > 1) {
+            final AtomicInteger threadCounter = new AtomicInteger(0);
+            prefetchExecutor = Executors.newFixedThreadPool(prefetchWindow, runnable -> {
+                Thread thread = new Thread(runnable, network.getType() + "-prefetch-" + threadCounter.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+            log.info("{}: prefetch up to {} blocks.", network.getType(), prefetchWindow);
+        }
+
+        currentPollingInterval = pollingInterval;
+
+        if (meterRegistry != null) {
+            String type = network.getType().name();
+            Gauge.builder("scanner.height.head", this, scanner -> scanner.lastBlockNo == null ? Double.NaN : scanner.lastBlockNo)
+                    .tag("network", type)
+                    .register(meterRegistry);
+            Gauge.builder("scanner.height.processed", this, scanner -> scanner.nextBlockNo == null ? Double.NaN : scanner.nextBlockNo - 1)
+                    .tag("network", type)
+                    .register(meterRegistry);
+            Gauge.builder("scanner.polling.interval", this, ScannerPolling::getCurrentPollingInterval)
+                    .tag("network", type)
+                    .register(meterRegistry);
+            blockFetchTimer = Timer.builder("scanner.block.fetch")
+                    .tag("network", type)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry);
+        }
+        if (adaptivePolling) {
+            log.info("{}: adaptive polling interval from {} to {} ms.", network.getType(),
+                    (long) (pollingInterval * adaptiveMinRatio), (long) (pollingInterval * adaptiveMaxRatio));
+        }
     }
 
     @PreDestroy
@@ -153,6 +454,10 @@ public abstract class ScannerPolling extends Scanner {
             log.warn("Persister for {} closing failed.", network.getType(), e);
         }
         isTerminated.set(true);
+        if (prefetchExecutor != null) {
+            resetPrefetch();
+            prefetchExecutor.shutdownNow();
+        }
         log.info("Wait {} ms till cycle is completed for {}.", pollingInterval + 1, network.getType());
         synchronized (sync) {
             sync.notifyAll();
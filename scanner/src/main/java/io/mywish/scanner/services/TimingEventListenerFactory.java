@@ -0,0 +1,41 @@
+package io.mywish.scanner.services;
+
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.event.ApplicationListenerMethodAdapter;
+import org.springframework.context.event.DefaultEventListenerFactory;
+import org.springframework.core.Ordered;
+import org.springframework.util.ClassUtils;
+
+import java.lang.reflect.Method;
+
+/**
+ * Creates {@link org.springframework.context.event.EventListener} method listeners with a short stable name,
+ * so {@link TimingEventMulticaster} can key timings by Class.method instead of the method signature.
+ */
+public class TimingEventListenerFactory extends DefaultEventListenerFactory {
+    public TimingEventListenerFactory() {
+        // before the default factory, which has the lowest precedence
+        setOrder(Ordered.LOWEST_PRECEDENCE - 1);
+    }
+
+    @Override
+    public ApplicationListener<?> createApplicationListener(String beanName, Class<?> type, Method method) {
+        return new MethodListener(beanName, type, method);
+    }
+
+    public static String getName(ApplicationListener<?> listener) {
+        if (listener instanceof MethodListener) {
+            return ((MethodListener) listener).name;
+        }
+        return ClassUtils.getUserClass(listener).getSimpleName();
+    }
+
+    private static class MethodListener extends ApplicationListenerMethodAdapter {
+        private final String name;
+
+        MethodListener(String beanName, Class<?> targetClass, Method method) {
+            super(beanName, targetClass, method);
+            this.name = ClassUtils.getUserClass(targetClass).getSimpleName() + "." + method.getName();
+        }
+    }
+}
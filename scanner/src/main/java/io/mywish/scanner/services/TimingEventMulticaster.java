@@ -0,0 +1,61 @@
+package io.mywish.scanner.services;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.mywish.scanner.model.ListenerTiming;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.PayloadApplicationEvent;
+import org.springframework.context.event.SimpleApplicationEventMulticaster;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how long each listener handles events, to find out which monitor slows down the scanners.
+ * Listeners are named by {@link TimingEventListenerFactory#getName}.
+ */
+@Slf4j
+public class TimingEventMulticaster extends SimpleApplicationEventMulticaster {
+    @Value("${etherscanner.event-publisher.slow-listener-ms:1000}")
+    private long slowListenerMs;
+
+    @Autowired(required = false)
+    private MeterRegistry meterRegistry;
+
+    private final Map<String, ListenerTiming> timings = new ConcurrentHashMap<>();
+
+    @Override
+    @SuppressWarnings("rawtypes")
+    protected void invokeListener(ApplicationListener listener, ApplicationEvent event) {
+        long start = System.nanoTime();
+        try {
+            super.invokeListener(listener, event);
+        }
+        finally {
+            long elapsed = System.nanoTime() - start;
+            String name = TimingEventListenerFactory.getName(listener);
+            timings.computeIfAbsent(name, key -> new ListenerTiming()).record(elapsed);
+            Object payload = event instanceof PayloadApplicationEvent
+                    ? ((PayloadApplicationEvent<?>) event).getPayload()
+                    : event;
+            if (meterRegistry != null) {
+                meterRegistry.timer("events.listener",
+                        "event", payload.getClass().getSimpleName(),
+                        "listener", name)
+                        .record(elapsed, TimeUnit.NANOSECONDS);
+            }
+            if (TimeUnit.NANOSECONDS.toMillis(elapsed) >= slowListenerMs) {
+                log.warn("Listener {} handled {} in {} ms.", name, payload.getClass().getSimpleName(), TimeUnit.NANOSECONDS.toMillis(elapsed));
+            }
+        }
+    }
+
+    public Map<String, ListenerTiming> getTimings() {
+        return Collections.unmodifiableMap(timings);
+    }
+}
@@ -0,0 +1,35 @@
+package io.mywish.scanner.services;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class BlockRateWindowTest {
+    final BlockRateWindow target = new BlockRateWindow(60000, 60, 10);
+
+    @Test
+    public void slidingTest() {
+        for (long time = 0; time < 60000; time += 1000) {
+            target.record(time);
+        }
+        Assert.assertEquals(60, target.count(59999));
+        Assert.assertEquals("First 10 seconds left the window.", 50, target.count(69999));
+        Assert.assertEquals(0, target.count(200000));
+
+        target.record(200000);
+        Assert.assertEquals(1, target.count(200000));
+    }
+
+    @Test
+    public void percentileTest() {
+        Assert.assertNull(target.getIntervalPercentile(50));
+        long time = 0;
+        for (int i = 1; i <= 20; i++) {
+            time += i * 100;
+            target.record(time);
+        }
+        // only the latest 10 intervals: 1100..2000
+        Assert.assertEquals(1100L, (long) target.getIntervalPercentile(0));
+        Assert.assertEquals(1500L, (long) target.getIntervalPercentile(50));
+        Assert.assertEquals(2000L, (long) target.getIntervalPercentile(100));
+    }
+}
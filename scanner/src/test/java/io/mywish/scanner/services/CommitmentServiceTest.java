@@ -1,19 +1,19 @@
-package io.lastwill.eventscan.services;
+package io.mywish.scanner.services;
 
+import io.mywish.blockchain.WrapperBlock;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
-import org.web3j.protocol.core.methods.response.EthBlock;
 
+import java.time.Instant;
+import java.util.Collections;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 
 public class CommitmentServiceTest {
-    private class BlockStub extends EthBlock.Block {
+    private class BlockStub extends WrapperBlock {
         BlockStub(String hash, String blockNo, String parent) {
-            setHash(hash);
-            setNumber(blockNo);
-            setParentHash(parent);
+            super(hash, Long.decode(blockNo), Instant.EPOCH, Collections.emptyList(), parent);
         }
     }
 
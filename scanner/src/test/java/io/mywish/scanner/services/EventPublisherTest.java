@@ -0,0 +1,129 @@
+package io.mywish.scanner.services;
+
+import io.lastwill.eventscan.events.model.BaseEvent;
+import io.lastwill.eventscan.model.NetworkType;
+import io.mywish.scanner.test.TestFields;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.context.ApplicationEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+public class EventPublisherTest {
+    private final EventPublisher publisher = new EventPublisher();
+    private final List<Handled> handled = new CopyOnWriteArrayList<>();
+    private Consumer<SeqEvent> listener = event -> {};
+
+    @Before
+    public void setUp() {
+        TestFields.set(publisher, "applicationEventPublisher", new ApplicationEventPublisher() {
+            @Override
+            public void publishEvent(ApplicationEvent event) {
+                publishEvent((Object) event);
+            }
+
+            @Override
+            public void publishEvent(Object event) {
+                handled.add(new Handled((SeqEvent) event, Thread.currentThread().getName()));
+                listener.accept((SeqEvent) event);
+            }
+        });
+        TestFields.set(publisher, "queueSize", 2);
+        TestFields.set(publisher, "shutdownTimeoutMs", 10000L);
+    }
+
+    @Test
+    public void syncByDefaultTest() {
+        publisher.publish(new SeqEvent(NetworkType.ETHEREUM_MAINNET, 1));
+        Assert.assertEquals("Handled before publish returns.", 1, handled.size());
+        Assert.assertEquals(Thread.currentThread().getName(), handled.get(0).thread);
+        Assert.assertTrue(publisher.getQueueSizes().isEmpty());
+    }
+
+    @Test
+    public void asyncLanesKeepNetworkOrderTest() {
+        TestFields.set(publisher, "async", true);
+        listener = event -> {
+            if (event.seq % 10 == 0) {
+                // a slow listener fills the small queue, so the publisher has to wait for free slots
+                sleep(5);
+            }
+        };
+        for (int seq = 0; seq < 50; seq++) {
+            publisher.publish(new SeqEvent(NetworkType.ETHEREUM_MAINNET, seq));
+            publisher.publish(new SeqEvent(NetworkType.BTC_MAINNET, seq));
+        }
+        close();
+
+        Assert.assertEquals(100, handled.size());
+        for (NetworkType type : new NetworkType[] {NetworkType.ETHEREUM_MAINNET, NetworkType.BTC_MAINNET}) {
+            List<Handled> lane = handled.stream()
+                    .filter(item -> item.event.getNetworkType() == type)
+                    .collect(Collectors.toList());
+            List<Integer> expected = new ArrayList<>();
+            for (int seq = 0; seq < 50; seq++) {
+                expected.add(seq);
+            }
+            Assert.assertEquals(expected, lane.stream().map(item -> item.event.seq).collect(Collectors.toList()));
+            Assert.assertTrue(lane.stream().allMatch(item -> item.thread.equals(type + "-events")));
+        }
+    }
+
+    @Test
+    public void nestedEventHandledInLaneTest() {
+        TestFields.set(publisher, "async", true);
+        listener = event -> {
+            if (event.seq == 0) {
+                publisher.publish(new SeqEvent(NetworkType.ETHEREUM_MAINNET, 1));
+                Assert.assertEquals("Nested event is handled before the listener returns.", 2, handled.size());
+            }
+        };
+        publisher.publish(new SeqEvent(NetworkType.ETHEREUM_MAINNET, 0));
+        close();
+
+        Assert.assertEquals(2, handled.size());
+        Assert.assertEquals("ETHEREUM_MAINNET-events", handled.get(1).thread);
+    }
+
+    private void close() {
+        Method close = ReflectionUtils.findMethod(EventPublisher.class, "close");
+        ReflectionUtils.makeAccessible(close);
+        ReflectionUtils.invokeMethod(close, publisher);
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static class SeqEvent extends BaseEvent {
+        private final int seq;
+
+        SeqEvent(NetworkType networkType, int seq) {
+            super(networkType);
+            this.seq = seq;
+        }
+    }
+
+    private static class Handled {
+        private final SeqEvent event;
+        private final String thread;
+
+        Handled(SeqEvent event, String thread) {
+            this.event = event;
+            this.thread = thread;
+        }
+    }
+}
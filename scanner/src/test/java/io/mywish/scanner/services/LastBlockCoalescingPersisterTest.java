@@ -0,0 +1,67 @@
+package io.mywish.scanner.services;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class LastBlockCoalescingPersisterTest {
+    final AtomicInteger saveCount = new AtomicInteger(0);
+    final LastBlockMemoryPersister persister = new LastBlockMemoryPersister(null) {
+        @Override
+        public void saveLastBlock(long blockNumber) {
+            saveCount.incrementAndGet();
+            super.saveLastBlock(blockNumber);
+        }
+    };
+    LastBlockCoalescingPersister target;
+
+    @Before
+    public void setUp() {
+        target = new LastBlockCoalescingPersister("test", persister, 1000, 60000);
+        target.open();
+    }
+
+    @After
+    public void tearDown() {
+        target.close();
+    }
+
+    @Test
+    public void coalesceTest() {
+        for (long i = 1; i <= 100; i++) {
+            target.saveLastBlock(i);
+        }
+        Assert.assertEquals("Nothing saved before flush.", 0, saveCount.get());
+        Assert.assertEquals(100L, (long) target.getLastBlock());
+
+        target.close();
+        Assert.assertEquals("Only the latest block saved.", 1, saveCount.get());
+    }
+
+    @Test
+    public void flushBlocksTest() throws InterruptedException {
+        target.close();
+        target = new LastBlockCoalescingPersister("test", persister, 10, 60000);
+        target.open();
+        for (long i = 1; i <= 10; i++) {
+            target.saveLastBlock(i);
+        }
+        for (int i = 0; i < 100 && saveCount.get() == 0; i++) {
+            Thread.sleep(10);
+        }
+        Assert.assertEquals(1, saveCount.get());
+    }
+
+    @Test
+    public void rollbackTest() {
+        target.saveLastBlock(10);
+        target.close();
+        target.open();
+        target.saveLastBlock(11);
+        target.saveLastBlock(9);
+        Assert.assertEquals("Rollback saved immediately.", 2, saveCount.get());
+    }
+}
@@ -0,0 +1,146 @@
+package io.mywish.scanner.services;
+
+import io.lastwill.eventscan.events.model.PendingTransactionAddedEvent;
+import io.lastwill.eventscan.events.model.PendingTransactionRemovedEvent;
+import io.lastwill.eventscan.model.NetworkType;
+import io.mywish.blockchain.WrapperBlock;
+import io.mywish.blockchain.WrapperOutput;
+import io.mywish.blockchain.WrapperTransaction;
+import io.mywish.scanner.model.NewBlockEvent;
+import io.mywish.scanner.model.NewPendingTransactionsEvent;
+import io.mywish.scanner.test.RecordingEventPublisher;
+import io.mywish.scanner.test.TestFields;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.util.CollectionUtils;
+
+import java.math.BigInteger;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.stream.Collectors;
+
+public class PendingTransactionServiceTest {
+    private static final NetworkType NETWORK_TYPE = NetworkType.ETHEREUM_MAINNET;
+
+    private final RecordingEventPublisher eventPublisher = new RecordingEventPublisher();
+    private final PendingTransactionService service = new PendingTransactionService(NETWORK_TYPE);
+
+    @Before
+    public void setUp() {
+        TestFields.set(service, "eventPublisher", eventPublisher);
+        TestFields.set(service, "transactionsThreshold", 100);
+    }
+
+    @Test
+    public void countLimitTest() {
+        TestFields.set(service, "transactionsThreshold", 2);
+        pending(hash(1), hash(2), hash(3));
+        Assert.assertEquals(2, service.getSize());
+        Assert.assertEquals("The eldest is evicted.", Collections.singletonList(hash(1)), removed(PendingTransactionRemovedEvent.Reason.TIMEOUT));
+        Assert.assertEquals(3, service.getAddedCount());
+        Assert.assertEquals(1, service.getTimeoutCount());
+    }
+
+    @Test
+    public void bytesLimitTest() {
+        pending(hash(1));
+        long entryBytes = service.getBytes();
+        Assert.assertTrue(entryBytes > 0);
+
+        TestFields.set(service, "maxBytes", entryBytes * 2);
+        pending(hash(2), hash(3));
+        Assert.assertEquals(2, service.getSize());
+        Assert.assertEquals(entryBytes * 2, service.getBytes());
+        Assert.assertEquals(Collections.singletonList(hash(1)), removed(PendingTransactionRemovedEvent.Reason.TIMEOUT));
+    }
+
+    @Test
+    public void hexScriptBytesTest() {
+        String hex = "0x76a914" + String.format("%040x", 1) + "88ac";
+        service.updatePending(new NewPendingTransactionsEvent(NETWORK_TYPE, Collections.singletonList(
+                withOutput(hash(1), new WrapperOutput(hash(1), 0, null, BigInteger.ONE, hex)))));
+        long hexBytes = service.getBytes();
+        service.updatePending(new NewPendingTransactionsEvent(NETWORK_TYPE, Collections.singletonList(
+                withOutput(hash(2), new WrapperOutput(hash(2), 0, null, BigInteger.ONE, new byte[25])))));
+        long decodedBytes = service.getBytes() - hexBytes;
+        Assert.assertEquals("Undecoded script is kept as a hex string.", (40 + 2 * 52) - (16 + 25), hexBytes - decodedBytes);
+    }
+
+    @Test
+    public void ttlTest() throws InterruptedException {
+        TestFields.set(service, "ttl", 20L);
+        pending(hash(1));
+        Thread.sleep(50);
+        pending(hash(2));
+        Assert.assertEquals(Collections.singletonList(hash(1)), removed(PendingTransactionRemovedEvent.Reason.TIMEOUT));
+
+        Thread.sleep(50);
+        pending();
+        Assert.assertEquals("Expired by the empty poll.", 0, service.getSize());
+        Assert.assertEquals(Arrays.asList(hash(1), hash(2)), removed(PendingTransactionRemovedEvent.Reason.TIMEOUT));
+    }
+
+    @Test
+    public void ttlOnBlockTest() throws InterruptedException {
+        TestFields.set(service, "ttl", 20L);
+        pending(hash(1), hash(2));
+        Thread.sleep(50);
+        block(hash(1));
+        Assert.assertEquals(0, service.getSize());
+        Assert.assertEquals(0, service.getBytes());
+        Assert.assertEquals(Collections.singletonList(hash(1)), removed(PendingTransactionRemovedEvent.Reason.ACCEPTED));
+        Assert.assertEquals("Expired without any pending poll.", Collections.singletonList(hash(2)),
+                removed(PendingTransactionRemovedEvent.Reason.TIMEOUT));
+    }
+
+    @Test
+    public void keyPackingTest() {
+        String hash = hash(0xabcdef);
+        pending(hash, "not-a-hex-hash");
+        pending(hash.substring(2).toUpperCase());
+        Assert.assertEquals("The same hash in another format is a duplicate.", 2, service.getSize());
+        Assert.assertEquals(2, eventPublisher.count(PendingTransactionAddedEvent.class));
+
+        block(hash.toUpperCase().replace("0X", "0x"), "not-a-hex-hash");
+        Assert.assertEquals(0, service.getSize());
+        Assert.assertEquals(2, service.getAcceptedCount());
+    }
+
+    private void pending(String... hashes) {
+        service.updatePending(new NewPendingTransactionsEvent(NETWORK_TYPE, transactions(hashes)));
+    }
+
+    private void block(String... hashes) {
+        service.newBlock(new NewBlockEvent(
+                NETWORK_TYPE,
+                new WrapperBlock("0x1", 1L, Instant.EPOCH, transactions(hashes)),
+                CollectionUtils.toMultiValueMap(new HashMap<>())
+        ));
+    }
+
+    private List<String> removed(PendingTransactionRemovedEvent.Reason reason) {
+        return eventPublisher.getEvents(PendingTransactionRemovedEvent.class)
+                .stream()
+                .filter(event -> event.getReason() == reason)
+                .map(event -> event.getTransaction().getHash())
+                .collect(Collectors.toList());
+    }
+
+    private static List<WrapperTransaction> transactions(String... hashes) {
+        return Arrays.stream(hashes)
+                .map(hash -> new WrapperTransaction(hash, Collections.emptyList(), Collections.emptyList(), false))
+                .collect(Collectors.toList());
+    }
+
+    private static WrapperTransaction withOutput(String hash, WrapperOutput output) {
+        return new WrapperTransaction(hash, Collections.emptyList(), Collections.singletonList(output), false);
+    }
+
+    private static String hash(int value) {
+        return String.format("0x%064x", value);
+    }
+}
@@ -0,0 +1,172 @@
+package io.mywish.scanner.services;
+
+import io.lastwill.eventscan.model.NetworkType;
+import io.mywish.blockchain.WrapperBlock;
+import io.mywish.blockchain.WrapperTransaction;
+import io.mywish.scanner.model.BlockRollbackEvent;
+import io.mywish.scanner.model.NewBlockEvent;
+import io.mywish.scanner.model.NewTipBlockEvent;
+import io.mywish.scanner.test.RecordingEventPublisher;
+import io.mywish.scanner.test.TestFields;
+import io.mywish.scanner.test.WrapperNetworkStub;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.util.CollectionUtils;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Method;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+public class ScannerPollingTest {
+    private static final int COMMITMENT_CHAIN_LENGTH = 2;
+
+    private final ChainStub network = new ChainStub();
+    private final PersisterStub persister = new PersisterStub();
+    private final RecordingEventPublisher eventPublisher = new RecordingEventPublisher();
+    private ScannerPolling scanner;
+
+    @Before
+    public void setUp() throws Exception {
+        network.add("a1", "a0", "tx1");
+        network.add("a2", "a1", "tx2");
+        network.add("a3", "a2", "tx3");
+
+        scanner = new ScannerPolling(network, persister, 1L, COMMITMENT_CHAIN_LENGTH) {
+            @Override
+            protected void processBlock(WrapperBlock block) {
+                eventPublisher.publish(new NewBlockEvent(
+                        network.getType(),
+                        block,
+                        CollectionUtils.toMultiValueMap(new HashMap<>())
+                ));
+            }
+        };
+        scanner.eventPublisher = eventPublisher;
+        TestFields.set(scanner, "headFollowing", true);
+        scanner.open();
+    }
+
+    @Test
+    public void tipBlocksAreNotCreditedTest() throws Exception {
+        pollAll();
+        Assert.assertEquals(3, eventPublisher.count(NewTipBlockEvent.class));
+        Assert.assertEquals("Only blocks with enough confirmations.", Collections.singletonList("tx1"), credited());
+        Assert.assertEquals(1L, persister.getLastBlock().longValue());
+    }
+
+    @Test
+    public void reorganizationTest() throws Exception {
+        pollAll();
+
+        // tx3 is mined again in the new chain, tx3b leaves the chain with the orphaned block
+        network.replace(3, "b3", "a2", "tx3", "tx4");
+        network.add("b4", "b3", "tx5");
+        network.add("b5", "b4", "tx6");
+        network.add("b6", "b5", "tx7");
+        pollAll();
+
+        Assert.assertEquals(1, eventPublisher.count(BlockRollbackEvent.class));
+        Assert.assertEquals("a3", eventPublisher.getEvents(BlockRollbackEvent.class).get(0).getBlock().getHash());
+        Assert.assertEquals(
+                "Each transaction of the final chain is credited once.",
+                Arrays.asList("tx1", "tx2", "tx3", "tx4", "tx5"),
+                credited());
+        Assert.assertEquals(4L, persister.getLastBlock().longValue());
+    }
+
+    @Test
+    public void orphanedBlockIsNotCreditedTest() throws Exception {
+        network.add("a4", "a3", "orphan");
+        pollAll();
+        network.replace(4, "b4", "a3", "tx4");
+        network.add("b5", "b4", "tx5");
+        network.add("b6", "b5", "tx6");
+        pollAll();
+
+        Assert.assertEquals(1, eventPublisher.count(BlockRollbackEvent.class));
+        Assert.assertFalse(credited().contains("orphan"));
+        Assert.assertEquals(Arrays.asList("tx1", "tx2", "tx3", "tx4"), credited());
+    }
+
+    private void pollAll() throws Exception {
+        Method polling = ReflectionUtils.findMethod(ScannerPolling.class, "polling");
+        ReflectionUtils.makeAccessible(polling);
+        // every cycle processes one block, reorganizations step back one block per cycle
+        for (int i = 0; i < 20; i++) {
+            polling.invoke(scanner);
+        }
+    }
+
+    /**
+     * @return transactions of all NewBlockEvent, as a payment monitor would credit them.
+     */
+    private List<String> credited() {
+        return eventPublisher.getEvents(NewBlockEvent.class)
+                .stream()
+                .flatMap(event -> event.getBlock().getTransactions().stream())
+                .map(WrapperTransaction::getHash)
+                .collect(Collectors.toList());
+    }
+
+    private static class PersisterStub implements LastBlockPersister {
+        private Long lastBlock = 1L;
+
+        @Override
+        public void open() {
+        }
+
+        @Override
+        public void close() {
+        }
+
+        @Override
+        public Long getLastBlock() {
+            return lastBlock;
+        }
+
+        @Override
+        public void saveLastBlock(long blockNumber) {
+            lastBlock = blockNumber;
+        }
+    }
+
+    private static class ChainStub extends WrapperNetworkStub {
+        private final Map<Long, WrapperBlock> blocks = new HashMap<>();
+
+        ChainStub() {
+            super(NetworkType.ETHEREUM_MAINNET);
+        }
+
+        void add(String hash, String parentHash, String... transactions) {
+            replace(blocks.size() + 1, hash, parentHash, transactions);
+        }
+
+        void replace(long number, String hash, String parentHash, String... transactions) {
+            List<WrapperTransaction> wrappers = new ArrayList<>();
+            for (String transaction : transactions) {
+                wrappers.add(new WrapperTransaction(transaction, Collections.emptyList(), Collections.emptyList(), false));
+            }
+            blocks.keySet().removeIf(blockNo -> blockNo > number);
+            blocks.put(number, new WrapperBlock(hash, number, Instant.EPOCH, wrappers, parentHash));
+        }
+
+        @Override
+        public Long getLastBlock() {
+            return (long) blocks.size();
+        }
+
+        @Override
+        public WrapperBlock getBlock(Long number) {
+            return blocks.get(number);
+        }
+
+    }
+}
@@ -0,0 +1,69 @@
+package io.mywish.scanner.services;
+
+import io.mywish.scanner.model.ListenerTiming;
+import org.junit.Assert;
+import org.junit.Test;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.context.support.AbstractApplicationContext;
+import org.springframework.context.support.PropertySourcesPlaceholderConfigurer;
+
+import java.util.Map;
+
+public class TimingEventMulticasterTest {
+    @Test
+    public void listenerNamesTest() {
+        try (AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext(Config.class)) {
+            context.publishEvent("payload");
+
+            Map<String, ListenerTiming> timings = context.getBean(TimingEventMulticaster.class).getTimings();
+            Assert.assertEquals(1, timings.get("MethodListener.onString").getCount());
+            Assert.assertTrue(timings.get("PlainListener").getCount() > 0);
+            Assert.assertEquals(2, timings.size());
+        }
+    }
+
+    @Configuration
+    static class Config {
+        @Bean
+        public static PropertySourcesPlaceholderConfigurer propertyConfig() {
+            return new PropertySourcesPlaceholderConfigurer();
+        }
+
+        @Bean(name = AbstractApplicationContext.APPLICATION_EVENT_MULTICASTER_BEAN_NAME)
+        public TimingEventMulticaster applicationEventMulticaster() {
+            return new TimingEventMulticaster();
+        }
+
+        @Bean
+        public TimingEventListenerFactory timingEventListenerFactory() {
+            return new TimingEventListenerFactory();
+        }
+
+        @Bean
+        public MethodListener methodListener() {
+            return new MethodListener();
+        }
+
+        @Bean
+        public PlainListener plainListener() {
+            return new PlainListener();
+        }
+    }
+
+    static class MethodListener {
+        @EventListener
+        public void onString(String payload) {
+        }
+    }
+
+    static class PlainListener implements ApplicationListener<ContextRefreshedEvent> {
+        @Override
+        public void onApplicationEvent(ContextRefreshedEvent event) {
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package io.mywish.scanner.test;
+
+import io.mywish.scanner.services.EventPublisher;
+import org.springframework.context.ApplicationEvent;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+
+/**
+ * Event publisher without listeners, published events are kept in order.
+ */
+public class RecordingEventPublisher extends EventPublisher {
+    private final List<Object> events = new CopyOnWriteArrayList<>();
+
+    public RecordingEventPublisher() {
+        TestFields.set(this, "applicationEventPublisher", new ApplicationEventPublisher() {
+            @Override
+            public void publishEvent(ApplicationEvent event) {
+                publishEvent((Object) event);
+            }
+
+            @Override
+            public void publishEvent(Object event) {
+                events.add(event);
+            }
+        });
+    }
+
+    public List<Object> getEvents() {
+        return events;
+    }
+
+    public <T> List<T> getEvents(Class<T> type) {
+        return events.stream()
+                .filter(type::isInstance)
+                .map(type::cast)
+                .collect(Collectors.toList());
+    }
+
+    public long count(Class<?> type) {
+        return events.stream().filter(type::isInstance).count();
+    }
+}
@@ -0,0 +1,23 @@
+package io.mywish.scanner.test;
+
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Field;
+
+/**
+ * Injects private fields the way Spring does, like ReflectionTestUtils.setField of spring-test,
+ * which is not among the test dependencies.
+ */
+public final class TestFields {
+    private TestFields() {
+    }
+
+    public static void set(Object target, String name, Object value) {
+        Field field = ReflectionUtils.findField(target.getClass(), name);
+        if (field == null) {
+            throw new IllegalArgumentException("There is no field " + name + " in " + target.getClass() + ".");
+        }
+        ReflectionUtils.makeAccessible(field);
+        ReflectionUtils.setField(field, target, value);
+    }
+}
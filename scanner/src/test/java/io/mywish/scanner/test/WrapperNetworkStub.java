@@ -0,0 +1,55 @@
+package io.mywish.scanner.test;
+
+import io.lastwill.eventscan.model.NetworkType;
+import io.mywish.blockchain.WrapperBlock;
+import io.mywish.blockchain.WrapperNetwork;
+import io.mywish.blockchain.WrapperTransaction;
+import io.mywish.blockchain.WrapperTransactionReceipt;
+
+import java.math.BigInteger;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Network without a node: tests override only the calls they expect, the rest fail.
+ */
+public class WrapperNetworkStub extends WrapperNetwork {
+    public WrapperNetworkStub(NetworkType type) {
+        super(type);
+    }
+
+    @Override
+    public Long getLastBlock() throws Exception {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public BigInteger getBalance(String address, Long blockNo) throws Exception {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public WrapperBlock getBlock(String hash) throws Exception {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public WrapperBlock getBlock(Long number) throws Exception {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public WrapperTransactionReceipt getTxReceipt(WrapperTransaction transaction) throws Exception {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public boolean isPendingTransactionsSupported() {
+        return false;
+    }
+
+    @Override
+    public List<WrapperTransaction> fetchPendingTransactions() throws Exception {
+        return Collections.emptyList();
+    }
+}